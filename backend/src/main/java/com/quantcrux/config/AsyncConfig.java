@@ -0,0 +1,52 @@
+package com.quantcrux.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Boot only creates its application executor when no other Executor bean
+     * exists, so it is declared here next to the dedicated ones. Spring MVC runs
+     * streamed responses on it, and plain @Async methods use it.
+     */
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Runs backtest jobs. The queue is bounded, so a flood of submissions is
+     * rejected instead of piling up in memory.
+     */
+    @Bean(name = "backtestJobExecutor")
+    public ThreadPoolTaskExecutor backtestJobExecutor(@Value("${backtest.jobs.parallelism:2}") int parallelism,
+                                                      @Value("${backtest.jobs.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("backtest-job-");
+        return executor;
+    }
+
+    /**
+     * Runs market data imports one at a time, as imports of the same symbol
+     * must not interleave
+     */
+    @Bean(name = "marketDataImportExecutor")
+    public ThreadPoolTaskExecutor marketDataImportExecutor(
+            @Value("${market-data.import.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("market-data-import-");
+        return executor;
+    }
+}
@@ -1,5 +1,7 @@
 package com.quantcrux.config;
 
+import com.quantcrux.service.BacktestCheckpointService;
+import com.quantcrux.service.MarketDataUpdateService;
 import com.quantcrux.service.SessionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -11,6 +13,12 @@ public class ScheduledTasks {
     @Autowired
     private SessionService sessionService;
 
+    @Autowired
+    private BacktestCheckpointService backtestCheckpointService;
+
+    @Autowired
+    private MarketDataUpdateService marketDataUpdateService;
+
     // Clean up expired sessions every hour
     @Scheduled(fixedRate = 3600000) // 1 hour
     public void cleanupExpiredSessions() {
@@ -21,4 +29,35 @@ public class ScheduledTasks {
             System.err.println("Error cleaning up expired sessions: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    // Extend every checkpointed backtest with the day's new bars
+    @Scheduled(cron = "${backtest.checkpoints.refresh-cron:0 0 2 * * *}")
+    public void refreshBacktestCheckpoints() {
+        try {
+            int refreshed = backtestCheckpointService.refreshAll();
+            System.out.println("Refreshed " + refreshed + " backtest checkpoints at: " + new java.util.Date());
+        } catch (Exception e) {
+            System.err.println("Error refreshing backtest checkpoints: " + e.getMessage());
+        }
+    }
+
+    // Move the cached market quotes
+    @Scheduled(fixedRateString = "${market-data.quotes.tick-ms:5000}")
+    public void tickMarketQuotes() {
+        try {
+            marketDataUpdateService.simulateMarketUpdate();
+        } catch (Exception e) {
+            System.err.println("Error updating market quotes: " + e.getMessage());
+        }
+    }
+
+    // Write the moved quotes back to market_data
+    @Scheduled(fixedDelayString = "${market-data.quotes.flush-ms:10000}")
+    public void flushMarketQuotes() {
+        try {
+            marketDataUpdateService.flushQuotes();
+        } catch (Exception e) {
+            System.err.println("Error flushing market quotes: " + e.getMessage());
+        }
+    }
+}
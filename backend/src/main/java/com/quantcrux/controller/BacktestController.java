@@ -1,14 +1,41 @@
 package com.quantcrux.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quantcrux.dto.BacktestJobDTO;
 import com.quantcrux.dto.BacktestRequest;
 import com.quantcrux.dto.BacktestResult;
+import com.quantcrux.dto.BacktestSweepRequest;
+import com.quantcrux.dto.BootstrapRequest;
+import com.quantcrux.dto.BootstrapResult;
+import com.quantcrux.dto.BacktestSweepUpdate;
+import com.quantcrux.dto.EventBacktestRequest;
+import com.quantcrux.dto.MessageResponse;
+import com.quantcrux.dto.PortfolioBacktestRequest;
+import com.quantcrux.dto.WalkForwardRequest;
+import com.quantcrux.service.BacktestCheckpointService;
+import com.quantcrux.service.BacktestJobService;
 import com.quantcrux.service.BacktestService;
+import com.quantcrux.service.BacktestSweepService;
+import com.quantcrux.service.BootstrapService;
+import com.quantcrux.service.EventBacktestService;
+import com.quantcrux.service.PortfolioBacktestService;
+import com.quantcrux.service.WalkForwardService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
 import jakarta.validation.Valid;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 // @CrossOrigin(origins = "http://localhost:3000")
 @CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"}, maxAge = 3600)
 @RestController
@@ -18,15 +45,189 @@ public class BacktestController {
     @Autowired
     private BacktestService backtestService;
 
+    @Autowired
+    private BacktestCheckpointService backtestCheckpointService;
+
+    @Autowired
+    private BacktestSweepService backtestSweepService;
+
+    @Autowired
+    private BacktestJobService backtestJobService;
+
+    @Autowired
+    private PortfolioBacktestService portfolioBacktestService;
+
+    @Autowired
+    private WalkForwardService walkForwardService;
+
+    @Autowired
+    private EventBacktestService eventBacktestService;
+
+    @Autowired
+    private BootstrapService bootstrapService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${backtest.sweep.timeout-ms:1800000}")
+    private long sweepTimeoutMs;
+
     @PostMapping
     public ResponseEntity<BacktestResult> runBacktest(@Valid @RequestBody BacktestRequest request) {
         BacktestResult result = backtestService.runBacktest(request);
-        return ResponseEntity.ok(result);
+        return ResponseEntity.ok(result.downsample(request.getCurvePoints()));
+    }
+
+    /**
+     * Continue the stored checkpoint of this backtest over the bars since its last
+     * run, or run it in full the first time; either way the checkpoint is updated
+     */
+    @PostMapping("/incremental")
+    public ResponseEntity<BacktestResult> runIncremental(@Valid @RequestBody BacktestRequest request) {
+        BacktestResult result = backtestCheckpointService.runIncremental(request);
+        return ResponseEntity.ok(result.downsample(request.getCurvePoints()));
+    }
+
+    /**
+     * Backtest the strategy over several assets sharing one pool of capital
+     */
+    @PostMapping("/portfolio")
+    public ResponseEntity<BacktestResult> runPortfolioBacktest(@Valid @RequestBody PortfolioBacktestRequest request) {
+        BacktestResult result = portfolioBacktestService.runBacktest(request);
+        return ResponseEntity.ok(result.downsample(request.getCurvePoints()));
+    }
+
+    /**
+     * Backtest through the event-driven engine: orders fill on later bars with slippage and commission
+     */
+    @PostMapping("/event-driven")
+    public ResponseEntity<BacktestResult> runEventDriven(@Valid @RequestBody EventBacktestRequest request) {
+        BacktestResult result = eventBacktestService.runBacktest(request);
+        return ResponseEntity.ok(result.downsample(request.getCurvePoints()));
+    }
+
+    /**
+     * Re-optimise the parameters on rolling training windows and trade them on the
+     * following test windows; the result covers the test windows only. The windows
+     * run off the request thread and are stopped after the sweep timeout.
+     */
+    @PostMapping("/walk-forward")
+    public DeferredResult<ResponseEntity<BacktestResult>> runWalkForward(
+            @Valid @RequestBody WalkForwardRequest request) {
+        DeferredResult<ResponseEntity<BacktestResult>> response = new DeferredResult<>(sweepTimeoutMs);
+
+        CompletableFuture<BacktestResult> walkForward = walkForwardService.runWalkForward(request);
+        walkForward.whenComplete((result, error) -> {
+            if (error != null) {
+                response.setErrorResult(error);
+            } else {
+                response.setResult(ResponseEntity.ok(result.downsample(request.getCurvePoints())));
+            }
+        });
+        // Nobody is waiting any more, so stop running combinations
+        response.onTimeout(() -> walkForward.cancel(false));
+        response.onError(error -> walkForward.cancel(false));
+        return response;
+    }
+
+    /**
+     * Run the backtest, then bootstrap its daily returns for percentile bands of
+     * Sharpe ratio, drawdown, return and equity
+     */
+    @PostMapping("/bootstrap")
+    public ResponseEntity<BootstrapResult> runBootstrap(@Valid @RequestBody BootstrapRequest request) {
+        BacktestResult backtest = backtestService.runBacktest(request);
+        return ResponseEntity.ok(bootstrapService.analyse(backtest, request));
+    }
+
+    /**
+     * Backtest the strategy over a grid or sample of parameter values. The current
+     * ranking is streamed as newline-delimited JSON while the sweep runs, and once
+     * more when it completes.
+     */
+    @PostMapping(value = "/sweep", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseBodyEmitter sweep(@Valid @RequestBody BacktestSweepRequest request) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(sweepTimeoutMs);
+
+        CompletableFuture<Void> sweep = backtestSweepService.runSweep(request, update -> send(emitter, update));
+        sweep.whenComplete((ignored, error) -> {
+            if (sweep.isCancelled()) {
+                return;
+            }
+            if (error != null) {
+                emitter.completeWithError(error);
+            } else {
+                emitter.complete();
+            }
+        });
+        // Nobody is listening any more, so stop running combinations
+        emitter.onTimeout(() -> sweep.cancel(false));
+        emitter.onError(error -> sweep.cancel(false));
+        return emitter;
+    }
+
+    /**
+     * Queue a backtest and return its job at once; poll the job for progress and fetch the result when it completes
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitJob(@Valid @RequestBody BacktestRequest request, Authentication authentication) {
+        try {
+            BacktestJobDTO job = backtestJobService.submit(request, authentication.getName());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Failed to submit backtest: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/jobs")
+    public ResponseEntity<List<BacktestJobDTO>> getJobs(Authentication authentication) {
+        return ResponseEntity.ok(backtestJobService.getJobs(authentication.getName()));
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getJob(@PathVariable Long jobId, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(backtestJobService.getJob(jobId, authentication.getName()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * The stored BacktestResult of a completed job, served as saved
+     */
+    @GetMapping(value = "/jobs/{jobId}/result", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getJobResult(@PathVariable Long jobId, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(backtestJobService.getResultJson(jobId, authentication.getName()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/jobs/{jobId}")
+    public ResponseEntity<?> cancelJob(@PathVariable Long jobId, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(backtestJobService.cancel(jobId, authentication.getName()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
     }
 
     @GetMapping("/history")
-    public ResponseEntity<?> getBacktestHistory() {
-        // Return empty list for now
-        return ResponseEntity.ok(java.util.Collections.emptyList());
+    public ResponseEntity<List<BacktestJobDTO>> getBacktestHistory(Authentication authentication) {
+        return ResponseEntity.ok(backtestJobService.getJobs(authentication.getName()));
+    }
+
+    private void send(ResponseBodyEmitter emitter, BacktestSweepUpdate update) {
+        try {
+            String line = objectMapper.writeValueAsString(update) + "\n";
+            synchronized (emitter) {
+                emitter.send(line, MediaType.APPLICATION_NDJSON);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the emitter timed out
+        }
     }
 }
\ No newline at end of file
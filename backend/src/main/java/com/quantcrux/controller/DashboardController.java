@@ -6,17 +6,25 @@ import com.quantcrux.dto.SystemStatusResponse;
 import com.quantcrux.dto.UserSummaryResponse;
 import com.quantcrux.service.DashboardService;
 import com.quantcrux.service.MarketDataUpdateService;
+import com.quantcrux.service.MarketQuoteStream;
+import com.quantcrux.service.StreamTicketService;
 import com.quantcrux.service.SystemStatusService;
 import com.quantcrux.service.UserActivityService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 // @CrossOrigin(origins = "http://localhost:3000")
 @CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"}, maxAge = 3600)
@@ -36,6 +44,12 @@ public class DashboardController {
     @Autowired
     private SystemStatusService systemStatusService;
 
+    @Autowired
+    private StreamTicketService streamTicketService;
+
+    @Value("${market-data.stream.timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
     @GetMapping("/user/summary")
     public ResponseEntity<UserSummaryResponse> getUserSummary(Authentication authentication) {
         try {
@@ -69,6 +83,49 @@ public class DashboardController {
         }
     }
 
+    /**
+     * A single-use ticket for opening the quote stream, valid for ticket-ttl-ms
+     */
+    @PostMapping("/market/stream/ticket")
+    public ResponseEntity<Map<String, Object>> issueStreamTicket(Authentication authentication) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("ticket", streamTicketService.issue(authentication.getName()));
+        response.put("expiresInMs", streamTicketService.getTicketTtlMs());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Server-sent "quotes" events, each a JSON array of the quotes that changed
+     * since the last event, starting with the current ones. Without symbols every
+     * active market is streamed. As EventSource cannot set headers, the stream is
+     * opened with a ticket from /market/stream/ticket as the ticket parameter.
+     */
+    @GetMapping(value = "/market/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMarketData(@RequestParam(required = false) List<String> symbols) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Set<String> wanted = symbols == null ? Set.of() : symbols.stream()
+                .map(symbol -> symbol.trim().toUpperCase())
+                .filter(symbol -> !symbol.isEmpty())
+                .collect(Collectors.toSet());
+
+        MarketQuoteStream.Subscription subscription = marketDataUpdateService.subscribe(wanted,
+                new MarketQuoteStream.Sink() {
+                    @Override
+                    public void send(String quotes) throws IOException {
+                        emitter.send(SseEmitter.event().name("quotes").data(quotes, MediaType.APPLICATION_JSON));
+                    }
+
+                    @Override
+                    public void close() {
+                        emitter.complete();
+                    }
+                });
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(error -> subscription.cancel());
+        return emitter;
+    }
+
     @GetMapping("/system/status")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<SystemStatusResponse> getSystemStatus() {
@@ -1,11 +1,25 @@
 package com.quantcrux.controller;
 
-import com.quantcrux.dto.MarketDataPoint;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quantcrux.dto.MarketDataImportDTO;
+import com.quantcrux.dto.MarketDataImportRequest;
+import com.quantcrux.dto.MessageResponse;
+import com.quantcrux.service.BarSeries;
+import com.quantcrux.service.MarketDataImportService;
 import com.quantcrux.service.MarketDataService;
+import com.quantcrux.service.StoredBars;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import jakarta.validation.Valid;
+
+import java.time.LocalDate;
 import java.util.List;
 
 // @CrossOrigin(origins = "http://localhost:3000")
@@ -17,12 +31,84 @@ public class MarketDataController {
     @Autowired
     private MarketDataService marketDataService;
 
+    @Autowired
+    private MarketDataImportService marketDataImportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * The bars as a JSON array of {date, open, high, low, close, volume}, written
+     * straight from the stored columns
+     */
     @GetMapping("/{symbol}")
-    public ResponseEntity<List<MarketDataPoint>> getMarketData(
+    public ResponseEntity<?> getMarketData(
             @PathVariable String symbol,
             @RequestParam(defaultValue = "252") int days) {
-        
-        List<MarketDataPoint> data = marketDataService.getMarketData(symbol, days);
-        return ResponseEntity.ok(data);
+
+        StoredBars bars;
+        try {
+            bars = marketDataService.getStoredBars(symbol, days);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.writeStartArray();
+                for (int i = 0; i < bars.size(); i++) {
+                    json.writeStartObject();
+                    LocalDate date = LocalDate.ofEpochDay(BarSeries.epochDay(bars.timestamp(i)));
+                    json.writeStringField("date", date.toString());
+                    json.writeNumberField("open", bars.open(i));
+                    json.writeNumberField("high", bars.high(i));
+                    json.writeNumberField("low", bars.low(i));
+                    json.writeNumberField("close", bars.close(i));
+                    json.writeNumberField("volume", bars.volume(i));
+                    json.writeEndObject();
+                }
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Start loading a CSV file of bars from the import directory into the bar store
+     */
+    @PostMapping("/imports")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> submitImport(@Valid @RequestBody MarketDataImportRequest request,
+                                          Authentication authentication) {
+        try {
+            return ResponseEntity.ok(marketDataImportService.submit(request, authentication.getName()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/imports")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<MarketDataImportDTO>> getImports() {
+        return ResponseEntity.ok(marketDataImportService.getImports());
+    }
+
+    @GetMapping("/imports/{importId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getImport(@PathVariable Long importId) {
+        try {
+            return ResponseEntity.ok(marketDataImportService.getImport(importId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @PostMapping("/imports/{importId}/resume")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> resumeImport(@PathVariable Long importId) {
+        try {
+            return ResponseEntity.ok(marketDataImportService.resume(importId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,14 +1,24 @@
 package com.quantcrux.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quantcrux.dto.BatchPricingItem;
+import com.quantcrux.dto.BatchPricingRequest;
 import com.quantcrux.dto.PricingRequest;
 import com.quantcrux.dto.PricingResult;
+import com.quantcrux.service.BatchPricingService;
 import com.quantcrux.service.PricingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
 import jakarta.validation.Valid;
 
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
 // @CrossOrigin(origins = "http://localhost:3000")
 @CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"}, maxAge = 3600)
 @RestController
@@ -18,6 +28,15 @@ public class PricingController {
     @Autowired
     private PricingService pricingService;
 
+    @Autowired
+    private BatchPricingService batchPricingService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${pricing.batch.timeout-ms:600000}")
+    private long batchTimeoutMs;
+
     @PostMapping("/calculate")
     public ResponseEntity<PricingResult> calculatePrice(@Valid @RequestBody PricingRequest request) {
         PricingResult result = pricingService.calculatePrice(request);
@@ -29,4 +48,40 @@ public class PricingController {
         PricingResult result = pricingService.monteCarloPrice(request);
         return ResponseEntity.ok(result);
     }
-}
\ No newline at end of file
+
+    /**
+     * Price many products in one call. Results are streamed as newline-delimited JSON,
+     * one line per item in completion order; each line carries the item's index in the batch.
+     */
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseBodyEmitter batchPrice(@RequestBody BatchPricingRequest request) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(batchTimeoutMs);
+
+        CompletableFuture<Void> batch = batchPricingService.priceBatch(request, item -> send(emitter, item));
+        batch.whenComplete((ignored, error) -> {
+            if (batch.isCancelled()) {
+                return;
+            }
+            if (error != null) {
+                emitter.completeWithError(error);
+            } else {
+                emitter.complete();
+            }
+        });
+        // Nobody is listening any more, so stop pricing
+        emitter.onTimeout(() -> batch.cancel(false));
+        emitter.onError(error -> batch.cancel(false));
+        return emitter;
+    }
+
+    private void send(ResponseBodyEmitter emitter, BatchPricingItem item) {
+        try {
+            String line = objectMapper.writeValueAsString(item) + "\n";
+            synchronized (emitter) {
+                emitter.send(line, MediaType.APPLICATION_NDJSON);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the emitter timed out
+        }
+    }
+}
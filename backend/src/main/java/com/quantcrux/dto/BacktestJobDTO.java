@@ -0,0 +1,80 @@
+package com.quantcrux.dto;
+
+import com.quantcrux.model.BacktestJob;
+
+import java.time.LocalDateTime;
+
+public class BacktestJobDTO {
+    private Long id;
+    private Long strategyId;
+    private Integer strategyVersion;
+    private String symbol;
+    private String startDate;
+    private String endDate;
+    private Double initialCapital;
+    private String status;
+    private Double progress;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+
+    // Default constructor
+    public BacktestJobDTO() {}
+
+    public BacktestJobDTO(BacktestJob job) {
+        this.id = job.getId();
+        this.strategyId = job.getStrategyId();
+        this.strategyVersion = job.getStrategyVersion();
+        this.symbol = job.getSymbol();
+        this.startDate = job.getStartDate();
+        this.endDate = job.getEndDate();
+        this.initialCapital = job.getInitialCapital();
+        this.status = job.getStatus().name();
+        this.progress = job.getProgress();
+        this.errorMessage = job.getErrorMessage();
+        this.createdAt = job.getCreatedAt();
+        this.startedAt = job.getStartedAt();
+        this.completedAt = job.getCompletedAt();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getStrategyId() { return strategyId; }
+    public void setStrategyId(Long strategyId) { this.strategyId = strategyId; }
+
+    public Integer getStrategyVersion() { return strategyVersion; }
+    public void setStrategyVersion(Integer strategyVersion) { this.strategyVersion = strategyVersion; }
+
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+
+    public String getStartDate() { return startDate; }
+    public void setStartDate(String startDate) { this.startDate = startDate; }
+
+    public String getEndDate() { return endDate; }
+    public void setEndDate(String endDate) { this.endDate = endDate; }
+
+    public Double getInitialCapital() { return initialCapital; }
+    public void setInitialCapital(Double initialCapital) { this.initialCapital = initialCapital; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Double getProgress() { return progress; }
+    public void setProgress(Double progress) { this.progress = progress; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+}
@@ -1,5 +1,6 @@
 package com.quantcrux.dto;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
@@ -19,6 +20,10 @@ public class BacktestRequest {
     @NotNull
     private Double initialCapital;
 
+    // Downsample the returned equity curve to this many points; every bar when absent
+    @Min(3)
+    private Integer curvePoints;
+
     // Getters and Setters
     public Long getStrategyId() { return strategyId; }
     public void setStrategyId(Long strategyId) { this.strategyId = strategyId; }
@@ -34,4 +39,7 @@ public class BacktestRequest {
 
     public Double getInitialCapital() { return initialCapital; }
     public void setInitialCapital(Double initialCapital) { this.initialCapital = initialCapital; }
+
+    public Integer getCurvePoints() { return curvePoints; }
+    public void setCurvePoints(Integer curvePoints) { this.curvePoints = curvePoints; }
 }
\ No newline at end of file
@@ -1,21 +1,40 @@
 package com.quantcrux.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 import java.util.Map;
 
 public class BacktestResult {
     private Map<String, Object> results;
-    private List<Map<String, Object>> equityCurve;
+    private EquityCurve equityCurve;
+
+    // Per-window statistics of a walk-forward run
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<Map<String, Object>> windows;
 
-    public BacktestResult(Map<String, Object> results, List<Map<String, Object>> equityCurve) {
+    public BacktestResult(Map<String, Object> results, EquityCurve equityCurve) {
         this.results = results;
         this.equityCurve = equityCurve;
     }
 
+    /**
+     * Reduce the equity curve to at most the given number of points; null keeps every bar
+     */
+    public BacktestResult downsample(Integer curvePoints) {
+        if (curvePoints != null && equityCurve != null) {
+            equityCurve = equityCurve.downsample(curvePoints);
+        }
+        return this;
+    }
+
     // Getters and Setters
     public Map<String, Object> getResults() { return results; }
     public void setResults(Map<String, Object> results) { this.results = results; }
 
-    public List<Map<String, Object>> getEquityCurve() { return equityCurve; }
-    public void setEquityCurve(List<Map<String, Object>> equityCurve) { this.equityCurve = equityCurve; }
+    public EquityCurve getEquityCurve() { return equityCurve; }
+    public void setEquityCurve(EquityCurve equityCurve) { this.equityCurve = equityCurve; }
+
+    public List<Map<String, Object>> getWindows() { return windows; }
+    public void setWindows(List<Map<String, Object>> windows) { this.windows = windows; }
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.quantcrux.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+import java.util.Map;
+
+public class BacktestSweepRequest extends BacktestRequest {
+    // Parameter name (emaShort, emaLong, rsiPeriod, macdFast, macdSlow, macdSignal,
+    // rsiOversold, rsiOverbought, stopLoss, takeProfit, positionSize) to its range
+    @NotEmpty
+    private Map<String, Range> parameters;
+
+    // grid, random or latin_hypercube
+    private String sampling = "grid";
+
+    // Combinations drawn by random and latin_hypercube sampling
+    @Min(1)
+    private Integer samples = 1000;
+
+    private Long seed;
+
+    // sharpe_ratio, total_return or max_drawdown
+    private String rankBy = "sharpe_ratio";
+
+    @Min(1)
+    @Max(1000)
+    private Integer topN = 20;
+
+    /**
+     * Either explicit values, or min to max; a grid steps through min to max by step
+     */
+    public static class Range {
+        private List<Double> values;
+        private Double min;
+        private Double max;
+        private Double step;
+
+        public List<Double> getValues() { return values; }
+        public void setValues(List<Double> values) { this.values = values; }
+
+        public Double getMin() { return min; }
+        public void setMin(Double min) { this.min = min; }
+
+        public Double getMax() { return max; }
+        public void setMax(Double max) { this.max = max; }
+
+        public Double getStep() { return step; }
+        public void setStep(Double step) { this.step = step; }
+    }
+
+    // Getters and Setters
+    public Map<String, Range> getParameters() { return parameters; }
+    public void setParameters(Map<String, Range> parameters) { this.parameters = parameters; }
+
+    public String getSampling() { return sampling; }
+    public void setSampling(String sampling) { this.sampling = sampling; }
+
+    public Integer getSamples() { return samples; }
+    public void setSamples(Integer samples) { this.samples = samples; }
+
+    public Long getSeed() { return seed; }
+    public void setSeed(Long seed) { this.seed = seed; }
+
+    public String getRankBy() { return rankBy; }
+    public void setRankBy(String rankBy) { this.rankBy = rankBy; }
+
+    public Integer getTopN() { return topN; }
+    public void setTopN(Integer topN) { this.topN = topN; }
+}
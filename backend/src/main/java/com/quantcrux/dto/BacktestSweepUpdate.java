@@ -0,0 +1,62 @@
+package com.quantcrux.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class BacktestSweepUpdate {
+    // running, then complete once every combination has run
+    private String status;
+    private Long completed;
+    private Long total;
+    private Long failed;
+    private String rankBy;
+    private List<Entry> ranking;
+
+    /**
+     * One ranked combination: the swept parameter values and the backtest summary
+     */
+    public static class Entry {
+        private Integer rank;
+        private Long combination;
+        private Map<String, Double> parameters;
+        private Map<String, Object> results;
+
+        public Entry(Integer rank, Long combination, Map<String, Double> parameters, Map<String, Object> results) {
+            this.rank = rank;
+            this.combination = combination;
+            this.parameters = parameters;
+            this.results = results;
+        }
+
+        public Integer getRank() { return rank; }
+        public void setRank(Integer rank) { this.rank = rank; }
+
+        public Long getCombination() { return combination; }
+        public void setCombination(Long combination) { this.combination = combination; }
+
+        public Map<String, Double> getParameters() { return parameters; }
+        public void setParameters(Map<String, Double> parameters) { this.parameters = parameters; }
+
+        public Map<String, Object> getResults() { return results; }
+        public void setResults(Map<String, Object> results) { this.results = results; }
+    }
+
+    // Getters and Setters
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Long getCompleted() { return completed; }
+    public void setCompleted(Long completed) { this.completed = completed; }
+
+    public Long getTotal() { return total; }
+    public void setTotal(Long total) { this.total = total; }
+
+    public Long getFailed() { return failed; }
+    public void setFailed(Long failed) { this.failed = failed; }
+
+    public String getRankBy() { return rankBy; }
+    public void setRankBy(String rankBy) { this.rankBy = rankBy; }
+
+    public List<Entry> getRanking() { return ranking; }
+    public void setRanking(List<Entry> ranking) { this.ranking = ranking; }
+}
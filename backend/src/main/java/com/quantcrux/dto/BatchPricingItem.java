@@ -0,0 +1,44 @@
+package com.quantcrux.dto;
+
+public class BatchPricingItem {
+    private Integer index;
+    private Long productId;
+    private String status;
+    private PricingResult result;
+    private String error;
+
+    public BatchPricingItem(Integer index, Long productId) {
+        this.index = index;
+        this.productId = productId;
+    }
+
+    public static BatchPricingItem success(Integer index, Long productId, PricingResult result) {
+        BatchPricingItem item = new BatchPricingItem(index, productId);
+        item.setStatus("ok");
+        item.setResult(result);
+        return item;
+    }
+
+    public static BatchPricingItem failure(Integer index, Long productId, String error) {
+        BatchPricingItem item = new BatchPricingItem(index, productId);
+        item.setStatus("error");
+        item.setError(error);
+        return item;
+    }
+
+    // Getters and Setters
+    public Integer getIndex() { return index; }
+    public void setIndex(Integer index) { this.index = index; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public PricingResult getResult() { return result; }
+    public void setResult(PricingResult result) { this.result = result; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
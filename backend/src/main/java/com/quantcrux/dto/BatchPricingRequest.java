@@ -0,0 +1,45 @@
+package com.quantcrux.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class BatchPricingRequest {
+    // Explicit requests; validated one by one so a bad item cannot reject the batch
+    private List<PricingRequest> requests;
+
+    // Stored products, priced with the market parameters below
+    private List<Long> productIds;
+
+    // Spot per underlying asset; products on other underlyings use spotPrice
+    private Map<String, Double> spotPrices;
+
+    private Double spotPrice = 100.0;
+
+    private Double volatility = 0.2;
+
+    private Double riskFreeRate = 0.05;
+
+    private Integer numSimulations = 50000;
+
+    // Getters and Setters
+    public List<PricingRequest> getRequests() { return requests; }
+    public void setRequests(List<PricingRequest> requests) { this.requests = requests; }
+
+    public List<Long> getProductIds() { return productIds; }
+    public void setProductIds(List<Long> productIds) { this.productIds = productIds; }
+
+    public Map<String, Double> getSpotPrices() { return spotPrices; }
+    public void setSpotPrices(Map<String, Double> spotPrices) { this.spotPrices = spotPrices; }
+
+    public Double getSpotPrice() { return spotPrice; }
+    public void setSpotPrice(Double spotPrice) { this.spotPrice = spotPrice; }
+
+    public Double getVolatility() { return volatility; }
+    public void setVolatility(Double volatility) { this.volatility = volatility; }
+
+    public Double getRiskFreeRate() { return riskFreeRate; }
+    public void setRiskFreeRate(Double riskFreeRate) { this.riskFreeRate = riskFreeRate; }
+
+    public Integer getNumSimulations() { return numSimulations; }
+    public void setNumSimulations(Integer numSimulations) { this.numSimulations = numSimulations; }
+}
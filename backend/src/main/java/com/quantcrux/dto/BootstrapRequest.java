@@ -0,0 +1,41 @@
+package com.quantcrux.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+import java.util.List;
+
+public class BootstrapRequest extends BacktestRequest {
+    @Min(1)
+    @Max(100000)
+    private Integer resamples = 10000;
+
+    // Consecutive daily returns drawn together; 1 resamples single days
+    @Min(1)
+    private Integer blockSize = 20;
+
+    private Long seed;
+
+    private List<Double> percentiles = List.of(5.0, 25.0, 50.0, 75.0, 95.0);
+
+    // Bars the equity bands are reported at, spread evenly over the curve
+    @Min(2)
+    @Max(2000)
+    private Integer bandPoints = 100;
+
+    // Getters and Setters
+    public Integer getResamples() { return resamples; }
+    public void setResamples(Integer resamples) { this.resamples = resamples; }
+
+    public Integer getBlockSize() { return blockSize; }
+    public void setBlockSize(Integer blockSize) { this.blockSize = blockSize; }
+
+    public Long getSeed() { return seed; }
+    public void setSeed(Long seed) { this.seed = seed; }
+
+    public List<Double> getPercentiles() { return percentiles; }
+    public void setPercentiles(List<Double> percentiles) { this.percentiles = percentiles; }
+
+    public Integer getBandPoints() { return bandPoints; }
+    public void setBandPoints(Integer bandPoints) { this.bandPoints = bandPoints; }
+}
@@ -0,0 +1,47 @@
+package com.quantcrux.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class BootstrapResult {
+    private Integer resamples;
+    private Integer blockSize;
+    // The backtest's own statistics, for comparison with the bands
+    private Map<String, Object> observed;
+    // Percentile label (p5, p50, ...) to value across resamples
+    private Map<String, Double> sharpeRatio;
+    private Map<String, Double> maxDrawdown;
+    private Map<String, Double> totalReturn;
+    // Equity percentile bands at each date in bandDates
+    private List<String> bandDates;
+    private Map<String, double[]> equityBands;
+    private Long elapsedMs;
+
+    // Getters and Setters
+    public Integer getResamples() { return resamples; }
+    public void setResamples(Integer resamples) { this.resamples = resamples; }
+
+    public Integer getBlockSize() { return blockSize; }
+    public void setBlockSize(Integer blockSize) { this.blockSize = blockSize; }
+
+    public Map<String, Object> getObserved() { return observed; }
+    public void setObserved(Map<String, Object> observed) { this.observed = observed; }
+
+    public Map<String, Double> getSharpeRatio() { return sharpeRatio; }
+    public void setSharpeRatio(Map<String, Double> sharpeRatio) { this.sharpeRatio = sharpeRatio; }
+
+    public Map<String, Double> getMaxDrawdown() { return maxDrawdown; }
+    public void setMaxDrawdown(Map<String, Double> maxDrawdown) { this.maxDrawdown = maxDrawdown; }
+
+    public Map<String, Double> getTotalReturn() { return totalReturn; }
+    public void setTotalReturn(Map<String, Double> totalReturn) { this.totalReturn = totalReturn; }
+
+    public List<String> getBandDates() { return bandDates; }
+    public void setBandDates(List<String> bandDates) { this.bandDates = bandDates; }
+
+    public Map<String, double[]> getEquityBands() { return equityBands; }
+    public void setEquityBands(Map<String, double[]> equityBands) { this.equityBands = equityBands; }
+
+    public Long getElapsedMs() { return elapsedMs; }
+    public void setElapsedMs(Long elapsedMs) { this.elapsedMs = elapsedMs; }
+}
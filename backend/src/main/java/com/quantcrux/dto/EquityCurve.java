@@ -0,0 +1,99 @@
+package com.quantcrux.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDate;
+
+/**
+ * Portfolio value per bar, stored column-wise: dates as epoch days and values in
+ * parallel primitive arrays. Serialised as {"dates": [...], "values": [...]}.
+ */
+public class EquityCurve {
+    private final int[] dates;
+    private final double[] values;
+
+    @JsonCreator
+    public EquityCurve(@JsonProperty("dates") int[] dates, @JsonProperty("values") double[] values) {
+        if (dates.length != values.length) {
+            throw new IllegalArgumentException("Equity curve needs one value per date");
+        }
+        this.dates = dates;
+        this.values = values;
+    }
+
+    public int size() { return dates.length; }
+
+    public LocalDate date(int bar) { return LocalDate.ofEpochDay(dates[bar]); }
+
+    public double value(int bar) { return values[bar]; }
+
+    /**
+     * The curve reduced to at most the given number of points with
+     * Largest-Triangle-Three-Buckets: the first and last points are kept, and from
+     * each bucket in between the point forming the largest triangle with the point
+     * kept from the previous bucket and the average of the next one.
+     */
+    public EquityCurve downsample(int points) {
+        int n = dates.length;
+        if (points < 3) {
+            throw new IllegalArgumentException("An equity curve needs at least 3 points to downsample");
+        }
+        if (points >= n) {
+            return this;
+        }
+
+        int[] sampledDates = new int[points];
+        double[] sampledValues = new double[points];
+        sampledDates[0] = dates[0];
+        sampledValues[0] = values[0];
+
+        double bucketSize = (double) (n - 2) / (points - 2);
+        int selected = 0;
+        for (int b = 0; b < points - 2; b++) {
+            int start = (int) (b * bucketSize) + 1;
+            int end = b == points - 3 ? n - 1 : (int) ((b + 1) * bucketSize) + 1;
+
+            // Average of the next bucket, or the last point for the final bucket
+            int nextEnd = b + 1 >= points - 3 ? n - 1 : (int) ((b + 2) * bucketSize) + 1;
+            double averageX = 0;
+            double averageY = 0;
+            if (end < nextEnd) {
+                for (int i = end; i < nextEnd; i++) {
+                    averageX += dates[i];
+                    averageY += values[i];
+                }
+                averageX /= nextEnd - end;
+                averageY /= nextEnd - end;
+            } else {
+                averageX = dates[n - 1];
+                averageY = values[n - 1];
+            }
+
+            double x = dates[selected];
+            double y = values[selected];
+            double maxArea = -1;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                // Twice the triangle's area; only the comparison matters
+                double area = Math.abs((x - averageX) * (values[i] - y) - (x - dates[i]) * (averageY - y));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = i;
+                }
+            }
+            sampledDates[b + 1] = dates[chosen];
+            sampledValues[b + 1] = values[chosen];
+            selected = chosen;
+        }
+
+        sampledDates[points - 1] = dates[n - 1];
+        sampledValues[points - 1] = values[n - 1];
+        return new EquityCurve(sampledDates, sampledValues);
+    }
+
+    // Getters
+    public int[] getDates() { return dates; }
+
+    public double[] getValues() { return values; }
+}
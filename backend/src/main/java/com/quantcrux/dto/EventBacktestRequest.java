@@ -0,0 +1,68 @@
+package com.quantcrux.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.util.List;
+
+public class EventBacktestRequest {
+    @NotNull
+    private Long strategyId;
+
+    // Defaults to the strategy's assetList
+    private List<String> symbols;
+
+    @NotBlank
+    private String startDate;
+
+    @NotBlank
+    private String endDate;
+
+    @NotNull
+    private Double initialCapital;
+
+    // Downsample the returned equity curve to this many points; every bar when absent
+    @Min(3)
+    private Integer curvePoints;
+
+    // Paid on market and stop fills, in basis points of the price
+    @PositiveOrZero
+    private Double slippageBps = 0.0;
+
+    @PositiveOrZero
+    private Double commissionPerShare = 0.0;
+
+    // Fraction of each fill's notional
+    @PositiveOrZero
+    private Double commissionRate = 0.0;
+
+    // Getters and Setters
+    public Long getStrategyId() { return strategyId; }
+    public void setStrategyId(Long strategyId) { this.strategyId = strategyId; }
+
+    public List<String> getSymbols() { return symbols; }
+    public void setSymbols(List<String> symbols) { this.symbols = symbols; }
+
+    public String getStartDate() { return startDate; }
+    public void setStartDate(String startDate) { this.startDate = startDate; }
+
+    public String getEndDate() { return endDate; }
+    public void setEndDate(String endDate) { this.endDate = endDate; }
+
+    public Double getInitialCapital() { return initialCapital; }
+    public void setInitialCapital(Double initialCapital) { this.initialCapital = initialCapital; }
+
+    public Integer getCurvePoints() { return curvePoints; }
+    public void setCurvePoints(Integer curvePoints) { this.curvePoints = curvePoints; }
+
+    public Double getSlippageBps() { return slippageBps; }
+    public void setSlippageBps(Double slippageBps) { this.slippageBps = slippageBps; }
+
+    public Double getCommissionPerShare() { return commissionPerShare; }
+    public void setCommissionPerShare(Double commissionPerShare) { this.commissionPerShare = commissionPerShare; }
+
+    public Double getCommissionRate() { return commissionRate; }
+    public void setCommissionRate(Double commissionRate) { this.commissionRate = commissionRate; }
+}
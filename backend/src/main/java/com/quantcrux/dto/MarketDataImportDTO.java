@@ -0,0 +1,85 @@
+package com.quantcrux.dto;
+
+import com.quantcrux.model.MarketDataImport;
+
+import java.time.LocalDateTime;
+
+public class MarketDataImportDTO {
+    private Long id;
+    private String fileName;
+    private String symbol;
+    private String status;
+    private Long fileSize;
+    private Long committedOffset;
+    private Double progress;
+    private Long barsImported;
+    private Long rowsSkipped;
+    private Long rowsRejected;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+
+    // Default constructor
+    public MarketDataImportDTO() {}
+
+    public MarketDataImportDTO(MarketDataImport job) {
+        this.id = job.getId();
+        this.fileName = job.getFileName();
+        this.symbol = job.getSymbol();
+        this.status = job.getStatus().name();
+        this.fileSize = job.getFileSize();
+        this.committedOffset = job.getCommittedOffset();
+        this.progress = job.getFileSize() > 0 ? (double) job.getCommittedOffset() / job.getFileSize() : 1.0;
+        this.barsImported = job.getBarsImported();
+        this.rowsSkipped = job.getRowsSkipped();
+        this.rowsRejected = job.getRowsRejected();
+        this.errorMessage = job.getErrorMessage();
+        this.createdAt = job.getCreatedAt();
+        this.startedAt = job.getStartedAt();
+        this.completedAt = job.getCompletedAt();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Long getFileSize() { return fileSize; }
+    public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
+
+    public Long getCommittedOffset() { return committedOffset; }
+    public void setCommittedOffset(Long committedOffset) { this.committedOffset = committedOffset; }
+
+    public Double getProgress() { return progress; }
+    public void setProgress(Double progress) { this.progress = progress; }
+
+    public Long getBarsImported() { return barsImported; }
+    public void setBarsImported(Long barsImported) { this.barsImported = barsImported; }
+
+    public Long getRowsSkipped() { return rowsSkipped; }
+    public void setRowsSkipped(Long rowsSkipped) { this.rowsSkipped = rowsSkipped; }
+
+    public Long getRowsRejected() { return rowsRejected; }
+    public void setRowsRejected(Long rowsRejected) { this.rowsRejected = rowsRejected; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+}
@@ -0,0 +1,19 @@
+package com.quantcrux.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public class MarketDataImportRequest {
+    // CSV file inside the import directory
+    @NotBlank
+    private String fileName;
+
+    // Symbol of every row, for files without a symbol column
+    private String symbol;
+
+    // Getters and Setters
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+}
@@ -1,40 +0,0 @@
-package com.quantcrux.dto;
-
-import java.time.LocalDate;
-
-public class MarketDataPoint {
-    private LocalDate date;
-    private Double open;
-    private Double high;
-    private Double low;
-    private Double close;
-    private Long volume;
-
-    public MarketDataPoint(LocalDate date, Double open, Double high, Double low, Double close, Long volume) {
-        this.date = date;
-        this.open = open;
-        this.high = high;
-        this.low = low;
-        this.close = close;
-        this.volume = volume;
-    }
-
-    // Getters and Setters
-    public LocalDate getDate() { return date; }
-    public void setDate(LocalDate date) { this.date = date; }
-
-    public Double getOpen() { return open; }
-    public void setOpen(Double open) { this.open = open; }
-
-    public Double getHigh() { return high; }
-    public void setHigh(Double high) { this.high = high; }
-
-    public Double getLow() { return low; }
-    public void setLow(Double low) { this.low = low; }
-
-    public Double getClose() { return close; }
-    public void setClose(Double close) { this.close = close; }
-
-    public Long getVolume() { return volume; }
-    public void setVolume(Long volume) { this.volume = volume; }
-}
\ No newline at end of file
@@ -21,15 +21,23 @@ public class MarketSnapshotResponse {
     public MarketSnapshotResponse() {}
 
     public MarketSnapshotResponse(MarketData marketData) {
-        this.symbol = marketData.getSymbol();
-        this.name = marketData.getName();
-        this.price = marketData.getPrice();
-        this.changeAmount = marketData.getChangeAmount();
-        this.changePercent = marketData.getChangePercent();
-        this.volume = marketData.getVolume();
-        this.currency = marketData.getCurrency();
-        this.exchange = marketData.getExchange();
-        this.updatedAt = marketData.getUpdatedAt();
+        this(marketData.getSymbol(), marketData.getName(), marketData.getPrice(), marketData.getChangeAmount(),
+                marketData.getChangePercent(), marketData.getVolume(), marketData.getCurrency(),
+                marketData.getExchange(), marketData.getUpdatedAt());
+    }
+
+    public MarketSnapshotResponse(String symbol, String name, BigDecimal price, BigDecimal changeAmount,
+                                  BigDecimal changePercent, Long volume, String currency, String exchange,
+                                  LocalDateTime updatedAt) {
+        this.symbol = symbol;
+        this.name = name;
+        this.price = price;
+        this.changeAmount = changeAmount;
+        this.changePercent = changePercent;
+        this.volume = volume;
+        this.currency = currency;
+        this.exchange = exchange;
+        this.updatedAt = updatedAt;
         
         // Determine trend
         if (changePercent != null) {
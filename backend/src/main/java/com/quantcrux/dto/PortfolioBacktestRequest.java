@@ -0,0 +1,61 @@
+package com.quantcrux.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public class PortfolioBacktestRequest {
+    @NotNull
+    private Long strategyId;
+
+    // Defaults to the strategy's assetList
+    private List<String> symbols;
+
+    @NotBlank
+    private String startDate;
+
+    @NotBlank
+    private String endDate;
+
+    @NotNull
+    private Double initialCapital;
+
+    // Downsample the returned equity curve to this many points; every bar when absent
+    @Min(3)
+    private Integer curvePoints;
+
+    // equal_weight splits the invested fraction over the assets held;
+    // fixed_weight gives every asset the same share whether held or not
+    private String allocation = "equal_weight";
+
+    // Bars between rebalances back to target weights; 0 rebalances only when positions change
+    @Min(0)
+    private Integer rebalanceFrequency = 21;
+
+    // Getters and Setters
+    public Long getStrategyId() { return strategyId; }
+    public void setStrategyId(Long strategyId) { this.strategyId = strategyId; }
+
+    public List<String> getSymbols() { return symbols; }
+    public void setSymbols(List<String> symbols) { this.symbols = symbols; }
+
+    public String getStartDate() { return startDate; }
+    public void setStartDate(String startDate) { this.startDate = startDate; }
+
+    public String getEndDate() { return endDate; }
+    public void setEndDate(String endDate) { this.endDate = endDate; }
+
+    public Double getInitialCapital() { return initialCapital; }
+    public void setInitialCapital(Double initialCapital) { this.initialCapital = initialCapital; }
+
+    public Integer getCurvePoints() { return curvePoints; }
+    public void setCurvePoints(Integer curvePoints) { this.curvePoints = curvePoints; }
+
+    public String getAllocation() { return allocation; }
+    public void setAllocation(String allocation) { this.allocation = allocation; }
+
+    public Integer getRebalanceFrequency() { return rebalanceFrequency; }
+    public void setRebalanceFrequency(Integer rebalanceFrequency) { this.rebalanceFrequency = rebalanceFrequency; }
+}
@@ -1,7 +1,9 @@
 package com.quantcrux.dto;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 
 public class PricingRequest {
     @NotBlank
@@ -15,6 +17,8 @@ public class PricingRequest {
 
     private Double barrier;
 
+    private String underlyingAsset; // optional, lets cached prices be invalidated on market moves
+
     @NotNull
     private Double coupon;
 
@@ -27,8 +31,42 @@ public class PricingRequest {
     @NotNull
     private Double timeToMaturity;
 
+    @Min(1)
     private Integer numSimulations = 50000;
 
+    private Long seed;
+
+    // Target-precision mode: simulate until the 95% half-width is at most targetPrecision
+    @Positive
+    private Double targetPrecision;
+
+    @Min(1)
+    private Integer maxSimulations = 1000000; // path budget in target-precision mode
+
+    @Min(1)
+    private Long maxTimeMs = 10000L; // time budget in target-precision mode
+
+    private Boolean forceMonteCarlo = false; // skip the closed-form fast path, e.g. to validate it
+
+    private String greeksMethod = "finite_difference"; // finite_difference, pathwise, likelihood_ratio
+
+    private String sampler = "pseudo_random"; // pseudo_random, sobol, halton
+
+    private Integer qmcReplicates = 16; // independently scrambled point sets for the QMC error estimate
+
+    // Variance reduction
+    private Boolean antitheticVariates = false;
+
+    private Boolean controlVariate = false;
+
+    private Boolean momentMatching = false;
+
+    // Barrier monitoring
+    @Min(1)
+    private Integer monitoringFrequency = 52; // barrier observations per year of the simulated time grid
+
+    private Boolean barrierCorrection = true; // Brownian-bridge crossing probability between grid dates
+
     // Getters and Setters
     public String getProductType() { return productType; }
     public void setProductType(String productType) { this.productType = productType; }
@@ -42,6 +80,9 @@ public class PricingRequest {
     public Double getBarrier() { return barrier; }
     public void setBarrier(Double barrier) { this.barrier = barrier; }
 
+    public String getUnderlyingAsset() { return underlyingAsset; }
+    public void setUnderlyingAsset(String underlyingAsset) { this.underlyingAsset = underlyingAsset; }
+
     public Double getCoupon() { return coupon; }
     public void setCoupon(Double coupon) { this.coupon = coupon; }
 
@@ -56,4 +97,43 @@ public class PricingRequest {
 
     public Integer getNumSimulations() { return numSimulations; }
     public void setNumSimulations(Integer numSimulations) { this.numSimulations = numSimulations; }
+
+    public Long getSeed() { return seed; }
+    public void setSeed(Long seed) { this.seed = seed; }
+
+    public Double getTargetPrecision() { return targetPrecision; }
+    public void setTargetPrecision(Double targetPrecision) { this.targetPrecision = targetPrecision; }
+
+    public Integer getMaxSimulations() { return maxSimulations; }
+    public void setMaxSimulations(Integer maxSimulations) { this.maxSimulations = maxSimulations; }
+
+    public Long getMaxTimeMs() { return maxTimeMs; }
+    public void setMaxTimeMs(Long maxTimeMs) { this.maxTimeMs = maxTimeMs; }
+
+    public Boolean getForceMonteCarlo() { return forceMonteCarlo; }
+    public void setForceMonteCarlo(Boolean forceMonteCarlo) { this.forceMonteCarlo = forceMonteCarlo; }
+
+    public String getGreeksMethod() { return greeksMethod; }
+    public void setGreeksMethod(String greeksMethod) { this.greeksMethod = greeksMethod; }
+
+    public String getSampler() { return sampler; }
+    public void setSampler(String sampler) { this.sampler = sampler; }
+
+    public Integer getQmcReplicates() { return qmcReplicates; }
+    public void setQmcReplicates(Integer qmcReplicates) { this.qmcReplicates = qmcReplicates; }
+
+    public Boolean getAntitheticVariates() { return antitheticVariates; }
+    public void setAntitheticVariates(Boolean antitheticVariates) { this.antitheticVariates = antitheticVariates; }
+
+    public Boolean getControlVariate() { return controlVariate; }
+    public void setControlVariate(Boolean controlVariate) { this.controlVariate = controlVariate; }
+
+    public Boolean getMomentMatching() { return momentMatching; }
+    public void setMomentMatching(Boolean momentMatching) { this.momentMatching = momentMatching; }
+
+    public Integer getMonitoringFrequency() { return monitoringFrequency; }
+    public void setMonitoringFrequency(Integer monitoringFrequency) { this.monitoringFrequency = monitoringFrequency; }
+
+    public Boolean getBarrierCorrection() { return barrierCorrection; }
+    public void setBarrierCorrection(Boolean barrierCorrection) { this.barrierCorrection = barrierCorrection; }
 }
\ No newline at end of file
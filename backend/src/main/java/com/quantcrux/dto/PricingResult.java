@@ -1,5 +1,6 @@
 package com.quantcrux.dto;
 
+import java.util.HashMap;
 import java.util.Map;
 
 public class PricingResult {
@@ -7,6 +8,11 @@ public class PricingResult {
     private Map<String, Double> greeks;
     private Double confidenceInterval;
     private Integer numSimulations;
+    private Double varianceReductionFactor;
+    private Double qmcErrorEstimate;
+    private String pricingMethod;
+    private Long elapsedMs;
+    private Boolean targetPrecisionReached; // null unless a target precision was requested
 
     public PricingResult(Double price, Map<String, Double> greeks, Double confidenceInterval, Integer numSimulations) {
         this.price = price;
@@ -15,6 +21,19 @@ public class PricingResult {
         this.numSimulations = numSimulations;
     }
 
+    /**
+     * A copy that shares nothing mutable with the original
+     */
+    public PricingResult(PricingResult other) {
+        this(other.price, other.greeks != null ? new HashMap<>(other.greeks) : null,
+                other.confidenceInterval, other.numSimulations);
+        this.varianceReductionFactor = other.varianceReductionFactor;
+        this.qmcErrorEstimate = other.qmcErrorEstimate;
+        this.pricingMethod = other.pricingMethod;
+        this.elapsedMs = other.elapsedMs;
+        this.targetPrecisionReached = other.targetPrecisionReached;
+    }
+
     // Getters and Setters
     public Double getPrice() { return price; }
     public void setPrice(Double price) { this.price = price; }
@@ -27,4 +46,19 @@ public class PricingResult {
 
     public Integer getNumSimulations() { return numSimulations; }
     public void setNumSimulations(Integer numSimulations) { this.numSimulations = numSimulations; }
-}
\ No newline at end of file
+
+    public Double getVarianceReductionFactor() { return varianceReductionFactor; }
+    public void setVarianceReductionFactor(Double varianceReductionFactor) { this.varianceReductionFactor = varianceReductionFactor; }
+
+    public Double getQmcErrorEstimate() { return qmcErrorEstimate; }
+    public void setQmcErrorEstimate(Double qmcErrorEstimate) { this.qmcErrorEstimate = qmcErrorEstimate; }
+
+    public String getPricingMethod() { return pricingMethod; }
+    public void setPricingMethod(String pricingMethod) { this.pricingMethod = pricingMethod; }
+
+    public Long getElapsedMs() { return elapsedMs; }
+    public void setElapsedMs(Long elapsedMs) { this.elapsedMs = elapsedMs; }
+
+    public Boolean getTargetPrecisionReached() { return targetPrecisionReached; }
+    public void setTargetPrecisionReached(Boolean targetPrecisionReached) { this.targetPrecisionReached = targetPrecisionReached; }
+}
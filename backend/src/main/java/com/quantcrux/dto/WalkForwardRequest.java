@@ -0,0 +1,29 @@
+package com.quantcrux.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public class WalkForwardRequest extends BacktestSweepRequest {
+    // Bars each parameter search is run over
+    @NotNull
+    @Min(2)
+    private Integer trainBars = 252;
+
+    // Bars the chosen parameters are then traded on; windows roll forward by this much
+    @NotNull
+    @Min(1)
+    private Integer testBars = 63;
+
+    // Grow every training window from the first bar instead of rolling it
+    private Boolean anchored = false;
+
+    // Getters and Setters
+    public Integer getTrainBars() { return trainBars; }
+    public void setTrainBars(Integer trainBars) { this.trainBars = trainBars; }
+
+    public Integer getTestBars() { return testBars; }
+    public void setTestBars(Integer testBars) { this.testBars = testBars; }
+
+    public Boolean getAnchored() { return anchored; }
+    public void setAnchored(Boolean anchored) { this.anchored = anchored; }
+}
@@ -0,0 +1,77 @@
+package com.quantcrux.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Engine and indicator state at the end of a backtest, so the next run of the
+ * same backtest only has to simulate the bars that have arrived since
+ */
+@Entity
+@Table(name = "backtest_checkpoints", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_backtest_checkpoints_run",
+            columnNames = {"strategy_id", "symbol", "start_date", "initial_capital"})
+})
+public class BacktestCheckpoint {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "strategy_id", nullable = false)
+    private Long strategyId;
+
+    // A checkpoint only continues runs of the version it was made with
+    @Column(name = "strategy_version")
+    private Integer strategyVersion;
+
+    @Column(nullable = false)
+    private String symbol;
+
+    @Column(name = "start_date", nullable = false)
+    private String startDate;
+
+    @Column(name = "initial_capital", nullable = false)
+    private Double initialCapital;
+
+    @Column(name = "last_bar_date", nullable = false)
+    private LocalDate lastBarDate;
+
+    // BacktestService.Checkpoint.toBytes()
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] state;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getStrategyId() { return strategyId; }
+    public void setStrategyId(Long strategyId) { this.strategyId = strategyId; }
+
+    public Integer getStrategyVersion() { return strategyVersion; }
+    public void setStrategyVersion(Integer strategyVersion) { this.strategyVersion = strategyVersion; }
+
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+
+    public String getStartDate() { return startDate; }
+    public void setStartDate(String startDate) { this.startDate = startDate; }
+
+    public Double getInitialCapital() { return initialCapital; }
+    public void setInitialCapital(Double initialCapital) { this.initialCapital = initialCapital; }
+
+    public LocalDate getLastBarDate() { return lastBarDate; }
+    public void setLastBarDate(LocalDate lastBarDate) { this.lastBarDate = lastBarDate; }
+
+    public byte[] getState() { return state; }
+    public void setState(byte[] state) { this.state = state; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,116 @@
+package com.quantcrux.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A CSV file of bars being loaded into the bar store, and how far it has got
+ */
+@Entity
+@Table(name = "market_data_imports")
+public class MarketDataImport {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // As given, relative to the import directory
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(nullable = false, length = 1024)
+    private String path;
+
+    // Symbol of every row when the file has no symbol column
+    private String symbol;
+
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    // Byte offset up to which the file is stored; an interrupted import resumes here
+    @Column(name = "committed_offset", nullable = false)
+    private Long committedOffset = 0L;
+
+    @Column(name = "bars_imported", nullable = false)
+    private Long barsImported = 0L;
+
+    // Rows at or before their symbol's last stored bar
+    @Column(name = "rows_skipped", nullable = false)
+    private Long rowsSkipped = 0L;
+
+    // Rows that could not be parsed
+    @Column(name = "rows_rejected", nullable = false)
+    private Long rowsRejected = 0L;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ImportStatus status = ImportStatus.QUEUED;
+
+    @Column(name = "error_message")
+    private String errorMessage;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+
+    public Long getFileSize() { return fileSize; }
+    public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
+
+    public Long getCommittedOffset() { return committedOffset; }
+    public void setCommittedOffset(Long committedOffset) { this.committedOffset = committedOffset; }
+
+    public Long getBarsImported() { return barsImported; }
+    public void setBarsImported(Long barsImported) { this.barsImported = barsImported; }
+
+    public Long getRowsSkipped() { return rowsSkipped; }
+    public void setRowsSkipped(Long rowsSkipped) { this.rowsSkipped = rowsSkipped; }
+
+    public Long getRowsRejected() { return rowsRejected; }
+    public void setRowsRejected(Long rowsRejected) { this.rowsRejected = rowsRejected; }
+
+    public ImportStatus getStatus() { return status; }
+    public void setStatus(ImportStatus status) { this.status = status; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+
+    public enum ImportStatus {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+}
@@ -0,0 +1,14 @@
+package com.quantcrux.repository;
+
+import com.quantcrux.model.BacktestCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface BacktestCheckpointRepository extends JpaRepository<BacktestCheckpoint, Long> {
+
+    Optional<BacktestCheckpoint> findByStrategyIdAndSymbolAndStartDateAndInitialCapital(
+            Long strategyId, String symbol, String startDate, Double initialCapital);
+}
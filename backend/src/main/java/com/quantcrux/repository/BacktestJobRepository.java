@@ -0,0 +1,20 @@
+package com.quantcrux.repository;
+
+import com.quantcrux.model.BacktestJob;
+import com.quantcrux.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BacktestJobRepository extends JpaRepository<BacktestJob, Long> {
+
+    List<BacktestJob> findByUserOrderByCreatedAtDesc(User user);
+
+    Optional<BacktestJob> findByIdAndUser(Long id, User user);
+
+    List<BacktestJob> findByStatusIn(Collection<BacktestJob.JobStatus> statuses);
+}
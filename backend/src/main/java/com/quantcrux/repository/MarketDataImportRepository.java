@@ -0,0 +1,16 @@
+package com.quantcrux.repository;
+
+import com.quantcrux.model.MarketDataImport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MarketDataImportRepository extends JpaRepository<MarketDataImport, Long> {
+
+    List<MarketDataImport> findAllByOrderByCreatedAtDesc();
+
+    List<MarketDataImport> findByStatusIn(Collection<MarketDataImport.ImportStatus> statuses);
+}
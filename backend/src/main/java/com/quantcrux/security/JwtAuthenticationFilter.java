@@ -1,5 +1,6 @@
 package com.quantcrux.security;
 
+import com.quantcrux.service.StreamTicketService;
 import com.quantcrux.service.UserDetailsServiceImpl;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -25,15 +26,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private StreamTicketService streamTicketService;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
         try {
-            String jwt = getJwtFromRequest(request);
-
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
+            String username = getUsernameFromRequest(request);
 
+            if (username != null) {
                 UserDetails userDetails = userDetailsService.loadUserByUsername(username);
                 UsernamePasswordAuthenticationToken authentication = 
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
@@ -48,10 +50,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private String getJwtFromRequest(HttpServletRequest request) {
+    private String getUsernameFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
-            return bearerToken.substring(7);
+            String jwt = bearerToken.substring(7);
+            return tokenProvider.validateToken(jwt) ? tokenProvider.getUsernameFromToken(jwt) : null;
+        }
+        // EventSource cannot set headers, so the quote stream takes a single-use ticket instead
+        String ticket = request.getParameter("ticket");
+        if (StringUtils.hasText(ticket) && "/api/market/stream".equals(request.getServletPath())) {
+            return streamTicketService.redeem(ticket);
         }
         return null;
     }
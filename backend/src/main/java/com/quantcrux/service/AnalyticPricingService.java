@@ -0,0 +1,197 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.PricingRequest;
+import com.quantcrux.dto.PricingResult;
+import org.apache.commons.math3.distribution.NormalDistribution;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Closed-form Black-Scholes prices and Greeks for the payoffs that have one.
+ *
+ * Greeks use the same units as the Monte Carlo pricer: vega per 1% of
+ * volatility and theta per calendar day.
+ */
+@Service
+public class AnalyticPricingService {
+
+    private static final double VOL_POINT = 0.01;
+    private static final double DAY = 1.0 / 365.0;
+
+    private final NormalDistribution normal = new NormalDistribution(null, 0, 1);
+
+    /**
+     * Whether the request's payoff has a closed form in this service. Digital and
+     * barrier options have their own; every other product type is priced by Monte
+     * Carlo with the vanilla call payoff, so it gets the call formula here. The
+     * barrier formula assumes continuous monitoring, so a barrier observed on grid
+     * dates only, without the crossing correction, is left to Monte Carlo.
+     */
+    public boolean supports(PricingRequest request) {
+        boolean discreteBarrier = request.getProductType().equalsIgnoreCase("barrier_option")
+            && request.getBarrier() != null && Boolean.FALSE.equals(request.getBarrierCorrection());
+        return request.getTimeToMaturity() > 0 && request.getVolatility() > 0 && !discreteBarrier;
+    }
+
+    public PricingResult price(PricingRequest request) {
+        double spot = request.getSpotPrice();
+        double strike = request.getStrike();
+        double vol = request.getVolatility();
+        double rate = request.getRiskFreeRate();
+        double maturity = request.getTimeToMaturity();
+        double cash = request.getCoupon() * 100;
+
+        double price;
+        Map<String, Double> greeks;
+        switch (request.getProductType().toLowerCase()) {
+            case "digital_option" -> {
+                price = digitalCall(spot, strike, vol, rate, maturity, cash);
+                greeks = digitalGreeks(spot, strike, vol, rate, maturity, cash);
+            }
+            case "barrier_option" -> {
+                Double barrier = request.getBarrier();
+                price = barrier != null
+                    ? barrierDigitalCall(spot, strike, barrier, vol, rate, maturity, cash)
+                    : digitalCall(spot, strike, vol, rate, maturity, cash);
+                greeks = barrier != null
+                    ? barrierGreeks(spot, strike, barrier, vol, rate, maturity, cash)
+                    : digitalGreeks(spot, strike, vol, rate, maturity, cash);
+            }
+            // Same default as PricingService.payoffFunction: a vanilla call
+            default -> {
+                price = call(spot, strike, vol, rate, maturity);
+                greeks = callGreeks(spot, strike, vol, rate, maturity);
+            }
+        }
+
+        PricingResult result = new PricingResult(price, greeks, 0.0, 0);
+        result.setPricingMethod("analytic");
+        return result;
+    }
+
+    /**
+     * European call
+     */
+    public double call(double spot, double strike, double vol, double rate, double maturity) {
+        double d1 = d1(spot, strike, vol, rate, maturity);
+        double d2 = d1 - vol * Math.sqrt(maturity);
+        return spot * normal.cumulativeProbability(d1)
+            - strike * Math.exp(-rate * maturity) * normal.cumulativeProbability(d2);
+    }
+
+    /**
+     * Cash-or-nothing call paying cash when the terminal price ends above strike
+     */
+    public double digitalCall(double spot, double strike, double vol, double rate, double maturity, double cash) {
+        double d2 = d1(spot, strike, vol, rate, maturity) - vol * Math.sqrt(maturity);
+        return cash * Math.exp(-rate * maturity) * normal.cumulativeProbability(d2);
+    }
+
+    /**
+     * Continuously monitored cash-or-nothing barrier call (Reiner-Rubinstein).
+     * A barrier above spot is up-and-in, a barrier at or below spot is down-and-out.
+     */
+    public double barrierDigitalCall(double spot, double strike, double barrier, double vol, double rate,
+                                     double maturity, double cash) {
+        double discountedCash = cash * Math.exp(-rate * maturity);
+        double nu = rate - 0.5 * vol * vol;
+        double volSqrtT = vol * Math.sqrt(maturity);
+        double reflection = Math.pow(barrier / spot, 2 * nu / (vol * vol));
+
+        if (barrier > spot) {
+            // Up-and-in: ending above a strike beyond the barrier implies a touch
+            if (strike >= barrier) {
+                return digitalCall(spot, strike, vol, rate, maturity, cash);
+            }
+            double aboveBarrier = normal.cumulativeProbability(d(spot / barrier, nu, volSqrtT, maturity));
+            double reflectedBand = normal.cumulativeProbability(d(barrier * barrier / (spot * strike), nu, volSqrtT, maturity))
+                - normal.cumulativeProbability(d(barrier / spot, nu, volSqrtT, maturity));
+            return discountedCash * (aboveBarrier + reflection * reflectedBand);
+        }
+
+        // Down-and-out
+        if (spot <= barrier) {
+            return 0;
+        }
+        double level = Math.max(strike, barrier);
+        double survive = normal.cumulativeProbability(d(spot / level, nu, volSqrtT, maturity))
+            - reflection * normal.cumulativeProbability(d(barrier * barrier / (spot * level), nu, volSqrtT, maturity));
+        return discountedCash * Math.max(survive, 0);
+    }
+
+    private Map<String, Double> callGreeks(double spot, double strike, double vol, double rate, double maturity) {
+        double sqrtT = Math.sqrt(maturity);
+        double d1 = d1(spot, strike, vol, rate, maturity);
+        double d2 = d1 - vol * sqrtT;
+        double density = normal.density(d1);
+        double discountedStrike = strike * Math.exp(-rate * maturity);
+
+        double delta = normal.cumulativeProbability(d1);
+        double gamma = density / (spot * vol * sqrtT);
+        double vega = spot * density * sqrtT;
+        double theta = -spot * density * vol / (2 * sqrtT) - rate * discountedStrike * normal.cumulativeProbability(d2);
+        return greeks(delta, gamma, vega * VOL_POINT, theta * DAY);
+    }
+
+    private Map<String, Double> digitalGreeks(double spot, double strike, double vol, double rate, double maturity,
+                                              double cash) {
+        double sqrtT = Math.sqrt(maturity);
+        double d1 = d1(spot, strike, vol, rate, maturity);
+        double d2 = d1 - vol * sqrtT;
+        double discountedCash = cash * Math.exp(-rate * maturity);
+        double density = normal.density(d2);
+
+        double delta = discountedCash * density / (spot * vol * sqrtT);
+        double gamma = -discountedCash * density * d1 / (spot * spot * vol * vol * maturity);
+        double vega = -discountedCash * density * d1 / vol;
+        // dV/dt = -dV/dT, with dd2/dT = (r - vol^2/2) / (vol sqrtT) - d2 / (2T)
+        double dd2dT = (rate - 0.5 * vol * vol) / (vol * sqrtT) - d2 / (2 * maturity);
+        double theta = rate * discountedCash * normal.cumulativeProbability(d2) - discountedCash * density * dd2dT;
+        return greeks(delta, gamma, vega * VOL_POINT, theta * DAY);
+    }
+
+    /**
+     * Barrier Greeks by central differences on the closed form, which is exact up to rounding
+     */
+    private Map<String, Double> barrierGreeks(double spot, double strike, double barrier, double vol, double rate,
+                                              double maturity, double cash) {
+        double h = spot * 1e-4;
+        double base = barrierDigitalCall(spot, strike, barrier, vol, rate, maturity, cash);
+        double up = barrierDigitalCall(spot + h, strike, barrier, vol, rate, maturity, cash);
+        double down = barrierDigitalCall(spot - h, strike, barrier, vol, rate, maturity, cash);
+        double dv = 1e-4;
+        double volUp = barrierDigitalCall(spot, strike, barrier, vol + dv, rate, maturity, cash);
+        double volDown = barrierDigitalCall(spot, strike, barrier, vol - dv, rate, maturity, cash);
+        double dt = Math.min(1e-4, maturity / 2);
+        double longer = barrierDigitalCall(spot, strike, barrier, vol, rate, maturity + dt, cash);
+        double shorter = barrierDigitalCall(spot, strike, barrier, vol, rate, maturity - dt, cash);
+
+        double delta = (up - down) / (2 * h);
+        double gamma = (up - 2 * base + down) / (h * h);
+        double vega = (volUp - volDown) / (2 * dv);
+        double theta = -(longer - shorter) / (2 * dt);
+        return greeks(delta, gamma, vega * VOL_POINT, theta * DAY);
+    }
+
+    private Map<String, Double> greeks(double delta, double gamma, double vega, double theta) {
+        Map<String, Double> greeks = new HashMap<>();
+        greeks.put("delta", Math.round(delta * 10000.0) / 10000.0);
+        greeks.put("gamma", Math.round(gamma * 10000.0) / 10000.0);
+        greeks.put("vega", Math.round(vega * 10000.0) / 10000.0);
+        greeks.put("theta", Math.round(theta * 10000.0) / 10000.0);
+        return greeks;
+    }
+
+    private double d1(double spot, double strike, double vol, double rate, double maturity) {
+        return (Math.log(spot / strike) + (rate + 0.5 * vol * vol) * maturity) / (vol * Math.sqrt(maturity));
+    }
+
+    /**
+     * (ln ratio + nu T) / (vol sqrtT); for ratio = S/X, N(d) is the risk-neutral P(S_T > X)
+     */
+    private double d(double ratio, double nu, double volSqrtT, double maturity) {
+        return (Math.log(ratio) + nu * maturity) / volSqrtT;
+    }
+}
@@ -0,0 +1,103 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.BacktestRequest;
+import com.quantcrux.dto.BacktestResult;
+import com.quantcrux.model.BacktestCheckpoint;
+import com.quantcrux.repository.BacktestCheckpointRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Incremental backtests: each run stores a checkpoint of its final state, and the
+ * next run of the same strategy, symbol, start date and capital continues from it
+ * over the new bars only. A checkpoint from another strategy version, one in an
+ * older format, or one whose last bar the market data has revised falls
+ * back to a full run, which replaces it.
+ */
+@Service
+public class BacktestCheckpointService {
+
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(BacktestCheckpointService.class);
+
+    @Autowired
+    private BacktestService backtestService;
+
+    @Autowired
+    private StrategyCompiler strategyCompiler;
+
+    @Autowired
+    private BacktestCheckpointRepository checkpointRepository;
+
+    /**
+     * Backtest the current strategy version, continuing from the stored checkpoint
+     * when it can. A continued run's equity curve covers the new bars only.
+     */
+    public BacktestResult runIncremental(BacktestRequest request) {
+        CompiledStrategy strategy = strategyCompiler.getCompiledStrategy(request.getStrategyId());
+        BacktestCheckpoint stored = checkpointRepository.findByStrategyIdAndSymbolAndStartDateAndInitialCapital(
+                request.getStrategyId(), request.getSymbol(), request.getStartDate(), request.getInitialCapital())
+                .orElse(null);
+
+        BacktestService.Resumable run = null;
+        if (stored != null && Objects.equals(stored.getStrategyVersion(), strategy.getVersionNumber())) {
+            BacktestService.Checkpoint checkpoint = read(stored.getState(), strategy);
+            if (checkpoint != null) {
+                run = backtestService.resume(request, strategy, checkpoint);
+            }
+        }
+        if (run == null) {
+            run = backtestService.runResumable(request, strategy);
+        }
+
+        if (stored == null) {
+            stored = new BacktestCheckpoint();
+            stored.setStrategyId(request.getStrategyId());
+            stored.setSymbol(request.getSymbol());
+            stored.setStartDate(request.getStartDate());
+            stored.setInitialCapital(request.getInitialCapital());
+        }
+        stored.setStrategyVersion(strategy.getVersionNumber());
+        stored.setLastBarDate(run.getCheckpoint().getLastBarDate());
+        stored.setState(run.getCheckpoint().toBytes());
+        checkpointRepository.save(stored);
+        return run.getResult();
+    }
+
+    /**
+     * Bring every stored checkpoint up to today's bar, returning how many were refreshed
+     */
+    public int refreshAll() {
+        int refreshed = 0;
+        String today = LocalDate.now().toString();
+        for (BacktestCheckpoint stored : checkpointRepository.findAll()) {
+            BacktestRequest request = new BacktestRequest();
+            request.setStrategyId(stored.getStrategyId());
+            request.setSymbol(stored.getSymbol());
+            request.setStartDate(stored.getStartDate());
+            request.setEndDate(today);
+            request.setInitialCapital(stored.getInitialCapital());
+            try {
+                runIncremental(request);
+                refreshed++;
+            } catch (RuntimeException e) {
+                logger.error("Failed to refresh backtest checkpoint {}", stored.getId(), e);
+            }
+        }
+        return refreshed;
+    }
+
+    /**
+     * The stored checkpoint, or null if it was written in another format
+     */
+    private static BacktestService.Checkpoint read(byte[] state, CompiledStrategy strategy) {
+        try {
+            return BacktestService.Checkpoint.fromBytes(state, strategy);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.quantcrux.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quantcrux.dto.BacktestResult;
+import com.quantcrux.model.BacktestJob;
+import com.quantcrux.repository.BacktestJobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+
+/**
+ * Executes queued backtest jobs on the backtest job executor
+ */
+@Component
+public class BacktestJobRunner {
+
+    @Autowired
+    private BacktestService backtestService;
+
+    @Autowired
+    private BacktestJobRepository jobRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Async("backtestJobExecutor")
+    public void run(BacktestJobService.ActiveJob job) {
+        try {
+            if (!job.start()) {
+                // Cancelled while it was queued
+                return;
+            }
+            update(job, stored -> {
+                stored.setStatus(BacktestJob.JobStatus.RUNNING);
+                stored.setStartedAt(LocalDateTime.now());
+            });
+
+            BacktestResult result = backtestService.runBacktest(job.getRequest(), job.getStrategy(), fraction -> {
+                if (job.isCancelRequested()) {
+                    throw new CancellationException();
+                }
+                job.setProgress(fraction);
+            });
+            String resultJson = objectMapper.writeValueAsString(result.downsample(job.getRequest().getCurvePoints()));
+            finish(job, BacktestJob.JobStatus.COMPLETED, stored -> {
+                stored.setProgress(1.0);
+                stored.setResultJson(resultJson);
+            });
+        } catch (CancellationException e) {
+            finish(job, BacktestJob.JobStatus.CANCELLED, stored -> { });
+        } catch (Exception e) {
+            String message = "Backtest failed: " + e.getMessage();
+            // error_message is a plain VARCHAR(255)
+            String errorMessage = message.length() > 255 ? message.substring(0, 255) : message;
+            finish(job, BacktestJob.JobStatus.FAILED, stored -> stored.setErrorMessage(errorMessage));
+        } finally {
+            job.release();
+        }
+    }
+
+    private void finish(BacktestJobService.ActiveJob job, BacktestJob.JobStatus status, Consumer<BacktestJob> changes) {
+        job.setStatus(status);
+        update(job, stored -> {
+            stored.setStatus(status);
+            stored.setCompletedAt(LocalDateTime.now());
+            changes.accept(stored);
+        });
+    }
+
+    private void update(BacktestJobService.ActiveJob job, Consumer<BacktestJob> changes) {
+        jobRepository.findById(job.getId()).ifPresent(stored -> {
+            changes.accept(stored);
+            jobRepository.save(stored);
+        });
+    }
+}
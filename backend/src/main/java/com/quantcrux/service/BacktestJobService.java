@@ -0,0 +1,234 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.BacktestJobDTO;
+import com.quantcrux.dto.BacktestRequest;
+import com.quantcrux.model.BacktestJob;
+import com.quantcrux.model.User;
+import com.quantcrux.repository.BacktestJobRepository;
+import com.quantcrux.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Queues backtests to run in the background.
+ *
+ * Jobs are stored in backtest_jobs; queued and running ones are also tracked in
+ * memory, which is where live progress and cancellation requests live. Each user
+ * may have a limited number of jobs queued or running at once. A completed
+ * result is stored with its job and served from there, so viewing a job again
+ * never reruns it; every submission runs afresh, as the market data may have
+ * changed since.
+ */
+@Service
+public class BacktestJobService {
+
+    @Autowired
+    private BacktestJobRepository jobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StrategyCompiler strategyCompiler;
+
+    @Autowired
+    private BacktestJobRunner jobRunner;
+
+    @Value("${backtest.jobs.max-active-per-user:3}")
+    private int maxActivePerUser;
+
+    private final Map<Long, ActiveJob> activeJobs = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicInteger> activeByUser = new ConcurrentHashMap<>();
+
+    /**
+     * A queued or running job
+     */
+    public static class ActiveJob {
+        private final Long id;
+        private final BacktestRequest request;
+        private final CompiledStrategy strategy;
+        private final Runnable onRelease;
+        private final AtomicReference<BacktestJob.JobStatus> status =
+                new AtomicReference<>(BacktestJob.JobStatus.QUEUED);
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile double progress;
+        private volatile boolean cancelRequested;
+
+        ActiveJob(Long id, BacktestRequest request, CompiledStrategy strategy, Runnable onRelease) {
+            this.id = id;
+            this.request = request;
+            this.strategy = strategy;
+            this.onRelease = onRelease;
+        }
+
+        public Long getId() { return id; }
+
+        public BacktestRequest getRequest() { return request; }
+
+        public CompiledStrategy getStrategy() { return strategy; }
+
+        public BacktestJob.JobStatus getStatus() { return status.get(); }
+
+        public void setStatus(BacktestJob.JobStatus status) { this.status.set(status); }
+
+        public double getProgress() { return progress; }
+
+        public void setProgress(double progress) { this.progress = progress; }
+
+        public boolean isCancelRequested() { return cancelRequested; }
+
+        /**
+         * Move from QUEUED to RUNNING; false if the job was cancelled first
+         */
+        public boolean start() {
+            return status.compareAndSet(BacktestJob.JobStatus.QUEUED, BacktestJob.JobStatus.RUNNING);
+        }
+
+        /**
+         * Free the job's slot; only the first call counts
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                onRelease.run();
+            }
+        }
+    }
+
+    public BacktestJobDTO submit(BacktestRequest request, String username) {
+        User user = getUserByUsername(username);
+        CompiledStrategy strategy = strategyCompiler.getCompiledStrategy(request.getStrategyId());
+
+        AtomicInteger active = activeByUser.computeIfAbsent(user.getId(), id -> new AtomicInteger());
+        if (active.incrementAndGet() > maxActivePerUser) {
+            active.decrementAndGet();
+            throw new RuntimeException("At most " + maxActivePerUser + " backtest jobs may be queued or running per user");
+        }
+
+        BacktestJob job = new BacktestJob();
+        try {
+            job.setUser(user);
+            job.setStrategyId(request.getStrategyId());
+            job.setStrategyVersion(strategy.getVersionNumber());
+            job.setSymbol(request.getSymbol());
+            job.setStartDate(request.getStartDate());
+            job.setEndDate(request.getEndDate());
+            job.setInitialCapital(request.getInitialCapital());
+            job = jobRepository.save(job);
+        } catch (RuntimeException e) {
+            active.decrementAndGet();
+            throw e;
+        }
+
+        Long jobId = job.getId();
+        ActiveJob activeJob = new ActiveJob(jobId, request, strategy, () -> {
+            activeJobs.remove(jobId);
+            active.decrementAndGet();
+        });
+        activeJobs.put(jobId, activeJob);
+        try {
+            jobRunner.run(activeJob);
+        } catch (TaskRejectedException e) {
+            activeJob.release();
+            job.setStatus(BacktestJob.JobStatus.FAILED);
+            job.setErrorMessage("Backtest queue is full");
+            job.setCompletedAt(LocalDateTime.now());
+            jobRepository.save(job);
+            throw new RuntimeException("Backtest queue is full, try again later");
+        }
+        return toDTO(job);
+    }
+
+    public BacktestJobDTO getJob(Long jobId, String username) {
+        return toDTO(getOwnedJob(jobId, username));
+    }
+
+    public List<BacktestJobDTO> getJobs(String username) {
+        User user = getUserByUsername(username);
+        return jobRepository.findByUserOrderByCreatedAtDesc(user).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The stored BacktestResult JSON of a completed job
+     */
+    public String getResultJson(Long jobId, String username) {
+        BacktestJob job = getOwnedJob(jobId, username);
+        if (job.getStatus() != BacktestJob.JobStatus.COMPLETED) {
+            throw new RuntimeException("Backtest job is " + job.getStatus().name().toLowerCase());
+        }
+        return job.getResultJson();
+    }
+
+    /**
+     * A queued job is cancelled at once; a running one stops at its next progress
+     * check, so a run that is about to finish may still complete.
+     */
+    public BacktestJobDTO cancel(Long jobId, String username) {
+        BacktestJob job = getOwnedJob(jobId, username);
+        ActiveJob activeJob = activeJobs.get(jobId);
+        if (activeJob == null) {
+            throw new RuntimeException("Backtest job has already finished");
+        }
+
+        if (activeJob.status.compareAndSet(BacktestJob.JobStatus.QUEUED, BacktestJob.JobStatus.CANCELLED)) {
+            activeJob.release();
+            job.setStatus(BacktestJob.JobStatus.CANCELLED);
+            job.setCompletedAt(LocalDateTime.now());
+            jobRepository.save(job);
+        } else {
+            activeJob.cancelRequested = true;
+        }
+        return toDTO(job);
+    }
+
+    /**
+     * Jobs that were queued or running when the server stopped will never finish
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        List<BacktestJob> interrupted = jobRepository.findByStatusIn(
+                List.of(BacktestJob.JobStatus.QUEUED, BacktestJob.JobStatus.RUNNING));
+        for (BacktestJob job : interrupted) {
+            job.setStatus(BacktestJob.JobStatus.FAILED);
+            job.setErrorMessage("Interrupted by a server restart");
+            job.setCompletedAt(LocalDateTime.now());
+        }
+        jobRepository.saveAll(interrupted);
+    }
+
+    private BacktestJobDTO toDTO(BacktestJob job) {
+        BacktestJobDTO dto = new BacktestJobDTO(job);
+        ActiveJob activeJob = activeJobs.get(job.getId());
+        if (activeJob != null) {
+            // Live state is ahead of what has been written to the database
+            dto.setStatus(activeJob.getStatus().name());
+            dto.setProgress(activeJob.getProgress());
+        }
+        return dto;
+    }
+
+    private BacktestJob getOwnedJob(Long jobId, String username) {
+        User user = getUserByUsername(username);
+        return jobRepository.findByIdAndUser(jobId, user)
+                .orElseThrow(() -> new RuntimeException("Backtest job not found"));
+    }
+
+    private User getUserByUsername(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
@@ -2,115 +2,457 @@ package com.quantcrux.service;
 
 import com.quantcrux.dto.BacktestRequest;
 import com.quantcrux.dto.BacktestResult;
-import com.quantcrux.dto.MarketDataPoint;
+import com.quantcrux.dto.EquityCurve;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 @Service
 public class BacktestService {
 
+    private static final int PROGRESS_INTERVAL = 256;
+
     @Autowired
     private MarketDataService marketDataService;
 
+    @Autowired
+    private StrategyCompiler strategyCompiler;
+
+    /**
+     * Backtest the current version of the request's strategy
+     */
     public BacktestResult runBacktest(BacktestRequest request) {
-        // Get market data for the specified period
+        CompiledStrategy strategy = strategyCompiler.getCompiledStrategy(request.getStrategyId());
+        return runBacktest(request, strategy);
+    }
+
+    public BacktestResult runBacktest(BacktestRequest request, CompiledStrategy strategy) {
+        return runBacktest(request, strategy, null);
+    }
+
+    /**
+     * Backtest with progress reported to the listener every PROGRESS_INTERVAL bars.
+     * The listener may throw to abandon the run.
+     */
+    public BacktestResult runBacktest(BacktestRequest request, CompiledStrategy strategy, ProgressListener progress) {
+        BarSeries bars = loadMarketData(request);
+        TechnicalIndicators.Series indicators = strategy.computeIndicators(bars.close());
+        return run(bars.timestamps(), bars.close(), indicators, strategy, new EngineState(request.getInitialCapital()),
+                progress);
+    }
+
+    /**
+     * Backtest from the first bar and checkpoint the state after the last one
+     */
+    public Resumable runResumable(BacktestRequest request, CompiledStrategy strategy) {
+        BarSeries bars = loadMarketData(request);
+        long[] timestamps = bars.timestamps();
+        double[] closes = bars.close();
+        TechnicalIndicators.Series indicators = strategy.computeIndicators(closes);
+        EngineState engine = new EngineState(request.getInitialCapital());
+        BacktestResult result = run(timestamps, closes, indicators, strategy, engine, null);
+        int last = closes.length - 1;
+        return new Resumable(result, new Checkpoint(engine, indicators.getCalculator(),
+                BarSeries.epochDay(timestamps[last]), closes[last]));
+    }
+
+    /**
+     * Continue a checkpointed run over only the bars after its last one, advancing
+     * the checkpoint's state in place. The results cover the whole history and the
+     * equity curve the new bars. Returns null if the market data no longer holds
+     * the checkpoint's last bar at the same close, as the history must then be rerun.
+     */
+    public Resumable resume(BacktestRequest request, CompiledStrategy strategy, Checkpoint checkpoint) {
+        BarSeries bars = loadMarketData(request);
+        long[] timestamps = bars.timestamps();
+        int last = timestamps.length - 1;
+        while (last >= 0 && BarSeries.epochDay(timestamps[last]) > checkpoint.lastBarDay) {
+            last--;
+        }
+        if (last < 0 || BarSeries.epochDay(timestamps[last]) != checkpoint.lastBarDay
+                || bars.close()[last] != checkpoint.lastClose) {
+            return null;
+        }
+
+        // Bar 0 is the checkpoint's last bar, which the indicators and engine have already seen
+        long[] newTimestamps = Arrays.copyOfRange(timestamps, last, timestamps.length);
+        double[] closes = Arrays.copyOfRange(bars.close(), last, timestamps.length);
+        TechnicalIndicators.Series indicators = new TechnicalIndicators.Series(closes, checkpoint.indicators);
+        BacktestResult result = run(newTimestamps, closes, indicators, strategy, checkpoint.engine, null);
+        result.getResults().put("resumed_from", LocalDate.ofEpochDay(checkpoint.lastBarDay).toString());
+        int newLast = closes.length - 1;
+        return new Resumable(result, new Checkpoint(checkpoint.engine, indicators.getCalculator(),
+                BarSeries.epochDay(newTimestamps[newLast]), closes[newLast]));
+    }
+
+    private BacktestResult run(long[] timestamps, double[] closes, TechnicalIndicators.Series indicators,
+                               CompiledStrategy strategy, EngineState engine, ProgressListener progress) {
+        // The listener is called for bars 1..n-1, in order
+        int[] dates = new int[closes.length - 1];
+        double[] values = new double[closes.length - 1];
+        Metrics metrics = simulate(closes, indicators, strategy, engine, 1, closes.length, (bar, value) -> {
+            dates[bar - 1] = BarSeries.epochDay(timestamps[bar]);
+            values[bar - 1] = value;
+            if (progress != null && bar % PROGRESS_INTERVAL == 0) {
+                progress.onProgress((double) bar / closes.length);
+            }
+        });
+
+        Map<String, Object> results = metrics.toMap();
+        results.put("strategy_id", strategy.getStrategyId());
+        results.put("strategy_version", strategy.getVersionNumber());
+        return new BacktestResult(results, new EquityCurve(dates, values));
+    }
+
+    /**
+     * Market data for the request's symbol and date range
+     */
+    public BarSeries loadMarketData(BacktestRequest request) {
         LocalDate startDate = LocalDate.parse(request.getStartDate());
         LocalDate endDate = LocalDate.parse(request.getEndDate());
-        long daysBetween = java.time.temporal.ChronoUnit.DAYS.between(startDate, endDate);
-        
-        List<MarketDataPoint> marketData = marketDataService.getMarketData(request.getSymbol(), (int) daysBetween);
-        
-        // Simple momentum strategy simulation
-        double capital = request.getInitialCapital();
-        double position = 0;
-        double entryPrice = 0;
-        List<Double> returns = new ArrayList<>();
-        List<Map<String, Object>> equityCurve = new ArrayList<>();
-        
-        int totalTrades = 0;
-        int profitableTrades = 0;
-        double maxDrawdown = 0;
-        double peakValue = capital;
+
+        BarSeries marketData = marketDataService.getBars(request.getSymbol(), startDate, endDate);
+        if (marketData.barCount() == 0) {
+            throw new IllegalArgumentException("No market data for the requested period");
+        }
+        return marketData;
+    }
+
+    /**
+     * Receives the fraction of bars simulated so far
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(double fraction);
+    }
+
+    /**
+     * Receives the portfolio value of every simulated bar
+     */
+    @FunctionalInterface
+    public interface EquityListener {
+        void onBar(int bar, double value);
+    }
+
+    /**
+     * Run the strategy over a close series. Only summary statistics are kept;
+     * pass a listener to observe the equity curve, or null to skip it.
+     */
+    public Metrics simulate(double[] closes, TechnicalIndicators.Series indicators, CompiledStrategy strategy,
+                            double initialCapital, EquityListener listener) {
+        return simulate(closes, indicators, strategy, initialCapital, 1, closes.length, listener);
+    }
+
+    /**
+     * Run the strategy over bars [from, to) only, starting flat. Bars before from
+     * still warm up the indicators.
+     */
+    public Metrics simulate(double[] closes, TechnicalIndicators.Series indicators, CompiledStrategy strategy,
+                            double initialCapital, int from, int to, EquityListener listener) {
+        return simulate(closes, indicators, strategy, new EngineState(initialCapital), from, to, listener);
+    }
+
+    /**
+     * Advance the engine state over bars [from, to); the metrics cover every bar it has seen
+     */
+    Metrics simulate(double[] closes, TechnicalIndicators.Series indicators, CompiledStrategy strategy,
+                     EngineState engine, int from, int to, EquityListener listener) {
+        if (from < 1 || to > closes.length || from > to) {
+            throw new IllegalArgumentException("Invalid bar range " + from + " to " + to);
+        }
+        CompiledStrategy.BarRule entryRule = strategy.getEntryRule();
+        CompiledStrategy.BarRule exitRule = strategy.getExitRule();
+        double stopLoss = strategy.getStopLoss();
+        double takeProfit = strategy.getTakeProfit();
+        double positionSize = strategy.getPositionSize();
+
+        // Work on locals and store them back once the bars are done
+        double cash = engine.cash;
+        double units = engine.units;
+        double entryPrice = engine.entryPrice;
+        double costBasis = engine.costBasis;
+        int totalTrades = engine.totalTrades;
+        int profitableTrades = engine.profitableTrades;
+        PerformanceTracker performance = engine.performance;
         
-        for (int i = 1; i < marketData.size(); i++) {
-            MarketDataPoint current = marketData.get(i);
-            MarketDataPoint previous = marketData.get(i - 1);
-            
-            double currentPrice = current.getClose();
-            double previousPrice = previous.getClose();
-            double dailyReturn = (currentPrice - previousPrice) / previousPrice;
-            
-            // Simple momentum strategy: buy if price is above 20-day average
-            if (i >= 20) {
-                double sma20 = marketData.subList(i - 20, i).stream()
-                    .mapToDouble(MarketDataPoint::getClose)
-                    .average()
-                    .orElse(0);
-                
-                // Entry signal
-                if (position == 0 && currentPrice > sma20 * 1.02) {
-                    position = capital / currentPrice;
-                    entryPrice = currentPrice;
-                    totalTrades++;
-                }
-                // Exit signal
-                else if (position > 0 && currentPrice < sma20 * 0.98) {
-                    double exitValue = position * currentPrice;
-                    if (exitValue > capital) {
+        for (int i = from; i < to; i++) {
+            double currentPrice = closes[i];
+
+            // Orders fill at the close of the signal bar
+            if (units > 0) {
+                double move = currentPrice / entryPrice - 1;
+                boolean stopped = stopLoss > 0 && move <= -stopLoss;
+                boolean targetHit = takeProfit > 0 && move >= takeProfit;
+                if (stopped || targetHit || exitRule.test(indicators, i)) {
+                    double proceeds = units * currentPrice;
+                    if (proceeds > costBasis) {
                         profitableTrades++;
                     }
-                    capital = exitValue;
-                    position = 0;
+                    cash += proceeds;
+                    units = 0;
                 }
+            } else if (entryRule.test(indicators, i)) {
+                costBasis = cash * positionSize;
+                units = costBasis / currentPrice;
+                cash -= costBasis;
+                entryPrice = currentPrice;
+                totalTrades++;
             }
             
             // Calculate current portfolio value
-            double currentValue = position > 0 ? position * currentPrice : capital;
+            double currentValue = cash + units * currentPrice;
+            performance.update(currentValue);
             
+            if (listener != null) {
+                listener.onBar(i, currentValue);
+            }
+        }
+
+        engine.cash = cash;
+        engine.units = units;
+        engine.entryPrice = entryPrice;
+        engine.costBasis = costBasis;
+        engine.totalTrades = totalTrades;
+        engine.profitableTrades = profitableTrades;
+        
+        // Final portfolio value
+        double finalValue = cash + units * closes[to - 1];
+        return performance.metrics(engine.initialCapital, finalValue, totalTrades, profitableTrades);
+    }
+
+    /**
+     * Cash, open position and running statistics of a simulation between bars
+     */
+    static class EngineState {
+        private double initialCapital;
+        private double cash;
+        private double units;
+        private double entryPrice;
+        private double costBasis;
+        private int totalTrades;
+        private int profitableTrades;
+        private final PerformanceTracker performance;
+
+        EngineState(double initialCapital) {
+            this.initialCapital = initialCapital;
+            this.cash = initialCapital;
+            this.performance = new PerformanceTracker(initialCapital);
+        }
+
+        void writeState(DataOutput out) throws IOException {
+            out.writeDouble(initialCapital);
+            out.writeDouble(cash);
+            out.writeDouble(units);
+            out.writeDouble(entryPrice);
+            out.writeDouble(costBasis);
+            out.writeInt(totalTrades);
+            out.writeInt(profitableTrades);
+            performance.writeState(out);
+        }
+
+        void readState(DataInput in) throws IOException {
+            initialCapital = in.readDouble();
+            cash = in.readDouble();
+            units = in.readDouble();
+            entryPrice = in.readDouble();
+            costBasis = in.readDouble();
+            totalTrades = in.readInt();
+            profitableTrades = in.readInt();
+            performance.readState(in);
+        }
+    }
+
+    /**
+     * Everything needed to continue a run after its last bar: engine and indicator
+     * state, and that bar's date and close to check the continuation lines up.
+     * Stored as a few hundred bytes of plain binary; the indicator periods are not
+     * stored, so a checkpoint is read back with the strategy version it was made with.
+     */
+    public static class Checkpoint {
+        private static final int FORMAT_VERSION = 1;
+
+        private final EngineState engine;
+        private final TechnicalIndicators.Calculator indicators;
+        private final long lastBarDay;
+        private final double lastClose;
+
+        Checkpoint(EngineState engine, TechnicalIndicators.Calculator indicators, long lastBarDay, double lastClose) {
+            this.engine = engine;
+            this.indicators = indicators;
+            this.lastBarDay = lastBarDay;
+            this.lastClose = lastClose;
+        }
+
+        public LocalDate getLastBarDate() { return LocalDate.ofEpochDay(lastBarDay); }
+
+        public byte[] toBytes() {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(lastBarDay);
+                out.writeDouble(lastClose);
+                engine.writeState(out);
+                indicators.writeState(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return bytes.toByteArray();
+        }
+
+        /**
+         * Read a checkpoint written by toBytes for the same strategy version
+         */
+        public static Checkpoint fromBytes(byte[] state, CompiledStrategy strategy) throws IOException {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(state));
+            if (in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported checkpoint format");
+            }
+            long lastBarDay = in.readLong();
+            double lastClose = in.readDouble();
+            EngineState engine = new EngineState(0);
+            engine.readState(in);
+            TechnicalIndicators.Calculator indicators = new TechnicalIndicators.Calculator(strategy.getIndicators());
+            indicators.readState(in);
+            if (in.available() > 0) {
+                throw new IOException("Checkpoint does not match the strategy's indicators");
+            }
+            return new Checkpoint(engine, indicators, lastBarDay, lastClose);
+        }
+    }
+
+    /**
+     * A run's result together with the checkpoint to continue it from
+     */
+    public static class Resumable {
+        private final BacktestResult result;
+        private final Checkpoint checkpoint;
+
+        Resumable(BacktestResult result, Checkpoint checkpoint) {
+            this.result = result;
+            this.checkpoint = checkpoint;
+        }
+
+        public BacktestResult getResult() { return result; }
+
+        public Checkpoint getCheckpoint() { return checkpoint; }
+    }
+
+    /**
+     * Running drawdown and daily-return statistics of a portfolio value series
+     */
+    static class PerformanceTracker {
+        private double peakValue;
+        private double previousValue;
+        private double maxDrawdown;
+        // Running mean and variance of daily portfolio returns (Welford)
+        private int returnCount;
+        private double returnMean;
+        private double returnM2;
+
+        PerformanceTracker(double initialValue) {
+            this.peakValue = initialValue;
+            this.previousValue = initialValue;
+        }
+
+        void update(double value) {
             // Track drawdown
-            if (currentValue > peakValue) {
-                peakValue = currentValue;
+            if (value > peakValue) {
+                peakValue = value;
             } else {
-                double drawdown = (peakValue - currentValue) / peakValue;
+                double drawdown = (peakValue - value) / peakValue;
                 maxDrawdown = Math.max(maxDrawdown, drawdown);
             }
-            
-            // Add to equity curve
-            Map<String, Object> point = new HashMap<>();
-            point.put("date", current.getDate().toString());
-            point.put("value", currentValue);
-            equityCurve.add(point);
-            
-            returns.add(dailyReturn);
+
+            double dailyReturn = value / previousValue - 1;
+            previousValue = value;
+            returnCount++;
+            double delta = dailyReturn - returnMean;
+            returnMean += delta / returnCount;
+            returnM2 += delta * (dailyReturn - returnMean);
+        }
+
+        void writeState(DataOutput out) throws IOException {
+            out.writeDouble(peakValue);
+            out.writeDouble(previousValue);
+            out.writeDouble(maxDrawdown);
+            out.writeInt(returnCount);
+            out.writeDouble(returnMean);
+            out.writeDouble(returnM2);
+        }
+
+        void readState(DataInput in) throws IOException {
+            peakValue = in.readDouble();
+            previousValue = in.readDouble();
+            maxDrawdown = in.readDouble();
+            returnCount = in.readInt();
+            returnMean = in.readDouble();
+            returnM2 = in.readDouble();
+        }
+
+        Metrics metrics(double initialCapital, double finalValue, int totalTrades, int profitableTrades) {
+            // Calculate Sharpe ratio (simplified)
+            double stdDev = returnCount > 0 ? Math.sqrt(returnM2 / returnCount) : 0;
+            double sharpeRatio = stdDev > 0 ? (returnMean * 252) / (stdDev * Math.sqrt(252)) : 0;
+
+            Metrics metrics = new Metrics();
+            metrics.totalReturn = (finalValue - initialCapital) / initialCapital;
+            metrics.finalValue = finalValue;
+            metrics.totalTrades = totalTrades;
+            metrics.profitableTrades = profitableTrades;
+            metrics.maxDrawdown = maxDrawdown;
+            metrics.sharpeRatio = sharpeRatio;
+            return metrics;
+        }
+    }
+
+    /**
+     * Summary statistics of one backtest run
+     */
+    public static class Metrics {
+        private double totalReturn;
+        private double finalValue;
+        private int totalTrades;
+        private int profitableTrades;
+        private double maxDrawdown;
+        private double sharpeRatio;
+
+        public double getTotalReturn() { return totalReturn; }
+
+        public double getFinalValue() { return finalValue; }
+
+        public int getTotalTrades() { return totalTrades; }
+
+        public int getProfitableTrades() { return profitableTrades; }
+
+        public double getWinRate() { return totalTrades > 0 ? (double) profitableTrades / totalTrades : 0; }
+
+        public double getMaxDrawdown() { return maxDrawdown; }
+
+        public double getSharpeRatio() { return sharpeRatio; }
+
+        /**
+         * The backtest results map, in the API's key names
+         */
+        public Map<String, Object> toMap() {
+            Map<String, Object> results = new HashMap<>();
+            results.put("total_return", totalReturn);
+            results.put("final_value", finalValue);
+            results.put("total_trades", totalTrades);
+            results.put("profitable_trades", profitableTrades);
+            results.put("win_rate", getWinRate());
+            results.put("max_drawdown", maxDrawdown);
+            results.put("sharpe_ratio", Math.round(sharpeRatio * 100.0) / 100.0);
+            return results;
         }
-        
-        // Final portfolio value
-        double finalValue = position > 0 ? position * marketData.get(marketData.size() - 1).getClose() : capital;
-        
-        // Calculate metrics
-        double totalReturn = (finalValue - request.getInitialCapital()) / request.getInitialCapital();
-        double winRate = totalTrades > 0 ? (double) profitableTrades / totalTrades : 0;
-        
-        // Calculate Sharpe ratio (simplified)
-        double avgReturn = returns.stream().mapToDouble(Double::doubleValue).average().orElse(0);
-        double stdDev = Math.sqrt(returns.stream()
-            .mapToDouble(r -> Math.pow(r - avgReturn, 2))
-            .average().orElse(0));
-        double sharpeRatio = stdDev > 0 ? (avgReturn * 252) / (stdDev * Math.sqrt(252)) : 0;
-        
-        Map<String, Object> results = new HashMap<>();
-        results.put("total_return", totalReturn);
-        results.put("final_value", finalValue);
-        results.put("total_trades", totalTrades);
-        results.put("profitable_trades", profitableTrades);
-        results.put("win_rate", winRate);
-        results.put("max_drawdown", maxDrawdown);
-        results.put("sharpe_ratio", Math.round(sharpeRatio * 100.0) / 100.0);
-        
-        return new BacktestResult(results, equityCurve);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,473 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.BacktestSweepRequest;
+import com.quantcrux.dto.BacktestSweepUpdate;
+import com.quantcrux.model.Strategy;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Backtests one strategy over many parameter combinations.
+ *
+ * The price series is loaded once and shared by every run. Combinations are
+ * numbered and decoded on demand, so the set is never materialised; each run
+ * keeps only its summary metrics and the best topN are held in a bounded heap.
+ * Indicator parameters vary slowest in a grid, so consecutive combinations
+ * reuse the same indicator series and only the rules are re-run.
+ */
+@Service
+public class BacktestSweepService {
+
+    private static final Set<String> INDICATOR_PARAMETERS =
+            Set.of("emaShort", "emaLong", "rsiPeriod", "macdFast", "macdSlow", "macdSignal");
+    private static final Set<String> RULE_PARAMETERS =
+            Set.of("rsiOversold", "rsiOverbought", "stopLoss", "takeProfit", "positionSize");
+
+    @Autowired
+    private BacktestService backtestService;
+
+    @Autowired
+    private StrategyCompiler strategyCompiler;
+
+    private final ExecutorService executor;
+    private final int chunkSize;
+    private final long maxCombinations;
+    private final long progressIntervalMs;
+
+    public BacktestSweepService(@Value("${backtest.sweep.parallelism:0}") int parallelism,
+                                @Value("${backtest.sweep.chunk-size:64}") int chunkSize,
+                                @Value("${backtest.sweep.max-combinations:1000000}") long maxCombinations,
+                                @Value("${backtest.sweep.progress-interval-ms:1000}") long progressIntervalMs) {
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.executor = Executors.newFixedThreadPool(workers);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxCombinations = maxCombinations;
+        this.progressIntervalMs = progressIntervalMs;
+    }
+
+    /**
+     * Start the sweep. The request is checked and the market data loaded before this
+     * returns, so bad input fails here; the runs then proceed in the background.
+     *
+     * The sink receives a ranking snapshot with status "running" at most once per
+     * progress interval, then a final "complete" one. It may be called from several
+     * threads. Cancelling the returned future stops the remaining runs.
+     */
+    public CompletableFuture<Void> runSweep(BacktestSweepRequest request, Consumer<BacktestSweepUpdate> sink) {
+        CompiledStrategy base = strategyCompiler.getCompiledStrategy(request.getStrategyId());
+        Comparator<Outcome> ranking = ranking(request.getRankBy());
+        Plan plan = plan(request);
+        double[] closes = backtestService.loadMarketData(request).close();
+
+        Sweep sweep = new Sweep(request, base, plan, ranking, closes, sink);
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (long from = 0; from < plan.total; from += chunkSize) {
+            long start = from;
+            long end = Math.min(from + chunkSize, plan.total);
+            tasks.add(CompletableFuture.runAsync(() -> sweep.runChunk(start, end), executor));
+        }
+
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0]))
+            .whenComplete((ignored, error) -> {
+                if (sweep.done.isCancelled()) {
+                    return;
+                }
+                if (error != null) {
+                    sweep.done.completeExceptionally(error);
+                } else {
+                    sink.accept(sweep.update("complete"));
+                    sweep.done.complete(null);
+                }
+            });
+        return sweep.done;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    Comparator<Outcome> ranking(String rankBy) {
+        String key = rankBy != null ? rankBy.toLowerCase() : "sharpe_ratio";
+        Comparator<Outcome> order = switch (key) {
+            case "sharpe_ratio" -> Comparator.comparingDouble((Outcome o) -> o.metrics.getSharpeRatio()).reversed();
+            case "total_return" -> Comparator.comparingDouble((Outcome o) -> o.metrics.getTotalReturn()).reversed();
+            case "max_drawdown" -> Comparator.comparingDouble((Outcome o) -> o.metrics.getMaxDrawdown());
+            default -> throw new IllegalArgumentException("Unknown ranking: " + rankBy);
+        };
+        // Ties go to the lower combination number, so rankings do not depend on thread timing
+        return order.thenComparingLong(o -> o.combination);
+    }
+
+    Plan plan(BacktestSweepRequest request) {
+        String sampling = request.getSampling() != null ? request.getSampling().toLowerCase() : "grid";
+        if (!sampling.equals("grid") && !sampling.equals("random") && !sampling.equals("latin_hypercube")) {
+            throw new IllegalArgumentException("Unknown sampling: " + request.getSampling());
+        }
+        boolean grid = sampling.equals("grid");
+
+        List<Axis> axes = new ArrayList<>();
+        for (Map.Entry<String, BacktestSweepRequest.Range> entry : request.getParameters().entrySet()) {
+            axes.add(axis(entry.getKey(), entry.getValue(), grid));
+        }
+        // Indicator axes first: they vary slowest in a grid and prefix every combination
+        axes.sort(Comparator.comparing((Axis axis) -> !axis.indicator));
+        int indicatorAxes = (int) axes.stream().filter(axis -> axis.indicator).count();
+
+        long total;
+        if (grid) {
+            total = 1;
+            for (Axis axis : axes) {
+                if (total > maxCombinations / axis.values.length) {
+                    throw new IllegalArgumentException("Sweep exceeds " + maxCombinations + " combinations");
+                }
+                total *= axis.values.length;
+            }
+        } else {
+            total = request.getSamples() != null ? request.getSamples() : 1000;
+            if (total > maxCombinations) {
+                throw new IllegalArgumentException("Sweep exceeds " + maxCombinations + " combinations");
+            }
+        }
+
+        long seed = request.getSeed() != null ? request.getSeed() : ThreadLocalRandom.current().nextLong();
+        int[][] strata = null;
+        if (sampling.equals("latin_hypercube")) {
+            // One random permutation of the strata per axis: every stratum is hit exactly once
+            SplittableRandom random = new SplittableRandom(seed);
+            strata = new int[axes.size()][];
+            for (int a = 0; a < strata.length; a++) {
+                int[] permutation = new int[(int) total];
+                for (int i = 0; i < permutation.length; i++) {
+                    permutation[i] = i;
+                }
+                for (int i = permutation.length - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    int swap = permutation[i];
+                    permutation[i] = permutation[j];
+                    permutation[j] = swap;
+                }
+                strata[a] = permutation;
+            }
+        }
+        return new Plan(axes.toArray(new Axis[0]), indicatorAxes, total, grid, seed, strata);
+    }
+
+    /**
+     * The base strategy with one combination's parameter values applied
+     */
+    CompiledStrategy compile(CompiledStrategy base, Plan plan, double[] parameters) {
+        Strategy.Indicators source = base.getIndicators();
+        Strategy.Indicators indicators = new Strategy.Indicators();
+        indicators.setEmaShort(source.getEmaShort());
+        indicators.setEmaLong(source.getEmaLong());
+        indicators.setRsiPeriod(source.getRsiPeriod());
+        indicators.setMacdFast(source.getMacdFast());
+        indicators.setMacdSlow(source.getMacdSlow());
+        indicators.setMacdSignal(source.getMacdSignal());
+        double oversold = base.getOversold();
+        double overbought = base.getOverbought();
+        double stopLoss = base.getStopLoss() * 100;
+        double takeProfit = base.getTakeProfit() * 100;
+        double positionSize = base.getPositionSize();
+
+        for (int a = 0; a < plan.axes.length; a++) {
+            double value = parameters[a];
+            switch (plan.axes[a].name) {
+                case "emaShort" -> indicators.setEmaShort((int) value);
+                case "emaLong" -> indicators.setEmaLong((int) value);
+                case "rsiPeriod" -> indicators.setRsiPeriod((int) value);
+                case "macdFast" -> indicators.setMacdFast((int) value);
+                case "macdSlow" -> indicators.setMacdSlow((int) value);
+                case "macdSignal" -> indicators.setMacdSignal((int) value);
+                case "rsiOversold" -> oversold = value;
+                case "rsiOverbought" -> overbought = value;
+                case "stopLoss" -> stopLoss = value;
+                case "takeProfit" -> takeProfit = value;
+                case "positionSize" -> positionSize = value;
+                default -> throw new IllegalArgumentException("Unknown sweep parameter: " + plan.axes[a].name);
+            }
+        }
+        return strategyCompiler.compile(base.getStrategyId(), base.getVersionNumber(), indicators,
+                base.getEntryConditions(), base.getExitConditions(),
+                oversold, overbought, stopLoss, takeProfit, positionSize);
+    }
+
+    /**
+     * Parameter name to value for one combination, in axis order
+     */
+    static Map<String, Double> parameterMap(Plan plan, double[] parameters) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (int a = 0; a < plan.axes.length; a++) {
+            values.put(plan.axes[a].name, parameters[a]);
+        }
+        return values;
+    }
+
+    ExecutorService executor() {
+        return executor;
+    }
+
+    long maxCombinations() {
+        return maxCombinations;
+    }
+
+    private static Axis axis(String name, BacktestSweepRequest.Range range, boolean grid) {
+        boolean indicator = INDICATOR_PARAMETERS.contains(name);
+        if (!indicator && !RULE_PARAMETERS.contains(name)) {
+            throw new IllegalArgumentException("Unknown sweep parameter: " + name);
+        }
+        if (range == null) {
+            throw new IllegalArgumentException("Missing range for " + name);
+        }
+
+        double[] values = null;
+        double min;
+        double max;
+        if (range.getValues() != null && !range.getValues().isEmpty()) {
+            values = range.getValues().stream().mapToDouble(Double::doubleValue).toArray();
+            min = Arrays.stream(values).min().getAsDouble();
+            max = Arrays.stream(values).max().getAsDouble();
+        } else if (range.getMin() != null && range.getMax() != null && range.getMin() <= range.getMax()) {
+            min = range.getMin();
+            max = range.getMax();
+            if (grid) {
+                if (range.getStep() == null || range.getStep() <= 0) {
+                    throw new IllegalArgumentException("A grid needs a positive step for " + name);
+                }
+                // Small tolerance so max is included despite rounding in min + i * step
+                int count = (int) Math.floor((max - min) / range.getStep() + 1e-9) + 1;
+                values = new double[count];
+                for (int i = 0; i < count; i++) {
+                    values[i] = min + i * range.getStep();
+                }
+            }
+        } else {
+            throw new IllegalArgumentException("Range for " + name + " needs values or min <= max");
+        }
+
+        if (indicator && min < 1) {
+            throw new IllegalArgumentException(name + " must be at least 1");
+        }
+        if (name.equals("positionSize") && min <= 0) {
+            throw new IllegalArgumentException("positionSize must be positive");
+        }
+        return new Axis(name, indicator, values, min, max);
+    }
+
+    /**
+     * One swept parameter; indicator periods are rounded to whole bars
+     */
+    static class Axis {
+        final String name;
+        final boolean indicator;
+        final double[] values;
+        final double min;
+        final double max;
+
+        Axis(String name, boolean indicator, double[] values, double min, double max) {
+            this.name = name;
+            this.indicator = indicator;
+            this.values = values;
+            this.min = min;
+            this.max = max;
+        }
+
+        /**
+         * The value at position u in [0, 1) along this axis
+         */
+        double at(double u) {
+            double value = values != null
+                    ? values[Math.min((int) (u * values.length), values.length - 1)]
+                    : min + u * (max - min);
+            return indicator ? Math.round(value) : value;
+        }
+    }
+
+    /**
+     * The numbered set of combinations to run
+     */
+    static class Plan {
+        final Axis[] axes;
+        final int indicatorAxes;
+        final long total;
+        final boolean grid;
+        final long seed;
+        final int[][] strata;
+
+        Plan(Axis[] axes, int indicatorAxes, long total, boolean grid, long seed, int[][] strata) {
+            this.axes = axes;
+            this.indicatorAxes = indicatorAxes;
+            this.total = total;
+            this.grid = grid;
+            this.seed = seed;
+            this.strata = strata;
+        }
+
+        /**
+         * Parameter values of combination n, one per axis
+         */
+        void decode(long n, double[] out) {
+            if (grid) {
+                // Mixed radix with the last axis fastest
+                long rest = n;
+                for (int a = axes.length - 1; a >= 0; a--) {
+                    int length = axes[a].values.length;
+                    out[a] = axes[a].values[(int) (rest % length)];
+                    rest /= length;
+                }
+                return;
+            }
+            // Own stream per combination, so samples do not depend on which thread draws them
+            SplittableRandom random = new SplittableRandom(seed ^ (n * 0x9E3779B97F4A7C15L));
+            for (int a = 0; a < axes.length; a++) {
+                double u = strata != null
+                        ? (strata[a][(int) n] + random.nextDouble()) / total
+                        : random.nextDouble();
+                out[a] = axes[a].at(u);
+            }
+        }
+    }
+
+    /**
+     * Summary of one combination's run
+     */
+    static class Outcome {
+        final long combination;
+        final double[] parameters;
+        final BacktestService.Metrics metrics;
+
+        Outcome(long combination, double[] parameters, BacktestService.Metrics metrics) {
+            this.combination = combination;
+            this.parameters = parameters;
+            this.metrics = metrics;
+        }
+    }
+
+    /**
+     * State shared by the chunk tasks of one sweep
+     */
+    private class Sweep {
+        final BacktestSweepRequest request;
+        final CompiledStrategy base;
+        final Plan plan;
+        final Comparator<Outcome> ranking;
+        final double[] closes;
+        final Consumer<BacktestSweepUpdate> sink;
+        final int topN;
+        final String rankBy;
+
+        // Worst kept outcome at the head
+        final PriorityQueue<Outcome> best;
+        final AtomicLong completed = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong lastProgress = new AtomicLong(System.currentTimeMillis());
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Sweep(BacktestSweepRequest request, CompiledStrategy base, Plan plan, Comparator<Outcome> ranking,
+              double[] closes, Consumer<BacktestSweepUpdate> sink) {
+            this.request = request;
+            this.base = base;
+            this.plan = plan;
+            this.ranking = ranking;
+            this.closes = closes;
+            this.sink = sink;
+            this.topN = request.getTopN() != null ? request.getTopN() : 20;
+            this.rankBy = request.getRankBy() != null ? request.getRankBy().toLowerCase() : "sharpe_ratio";
+            this.best = new PriorityQueue<>(ranking.reversed());
+        }
+
+        void runChunk(long start, long end) {
+            if (done.isDone()) {
+                return;
+            }
+            PriorityQueue<Outcome> local = new PriorityQueue<>(ranking.reversed());
+            double[] previous = null;
+            TechnicalIndicators.Series series = null;
+            int failures = 0;
+
+            for (long n = start; n < end; n++) {
+                double[] parameters = new double[plan.axes.length];
+                plan.decode(n, parameters);
+                try {
+                    CompiledStrategy variant = compile(base, plan, parameters);
+                    if (series == null || !Arrays.equals(previous, 0, plan.indicatorAxes,
+                            parameters, 0, plan.indicatorAxes)) {
+                        series = variant.computeIndicators(closes);
+                        previous = parameters;
+                    }
+                    BacktestService.Metrics metrics = backtestService.simulate(
+                            closes, series, variant, request.getInitialCapital(), null);
+                    keep(local, new Outcome(n, parameters, metrics));
+                } catch (RuntimeException e) {
+                    failures++;
+                }
+            }
+
+            synchronized (best) {
+                for (Outcome outcome : local) {
+                    keep(best, outcome);
+                }
+            }
+            failed.addAndGet(failures);
+            completed.addAndGet(end - start);
+
+            long now = System.currentTimeMillis();
+            long last = lastProgress.get();
+            if (now - last >= progressIntervalMs && lastProgress.compareAndSet(last, now) && !done.isDone()) {
+                sink.accept(update("running"));
+            }
+        }
+
+        private void keep(PriorityQueue<Outcome> heap, Outcome outcome) {
+            if (heap.size() < topN) {
+                heap.add(outcome);
+            } else if (ranking.compare(outcome, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(outcome);
+            }
+        }
+
+        BacktestSweepUpdate update(String status) {
+            List<Outcome> ranked;
+            synchronized (best) {
+                ranked = new ArrayList<>(best);
+            }
+            ranked.sort(ranking);
+
+            List<BacktestSweepUpdate.Entry> entries = new ArrayList<>(ranked.size());
+            for (int i = 0; i < ranked.size(); i++) {
+                Outcome outcome = ranked.get(i);
+                entries.add(new BacktestSweepUpdate.Entry(i + 1, outcome.combination,
+                        parameterMap(plan, outcome.parameters), outcome.metrics.toMap()));
+            }
+
+            BacktestSweepUpdate update = new BacktestSweepUpdate();
+            update.setStatus(status);
+            update.setCompleted(completed.get());
+            update.setTotal(plan.total);
+            update.setFailed(failed.get());
+            update.setRankBy(rankBy);
+            update.setRanking(entries);
+            return update;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.quantcrux.service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Gorilla-style compression of a block of bars, column by column.
+ *
+ * Timestamps are stored as delta-of-delta in variable bit widths, so evenly spaced
+ * bars cost one bit each. Prices are XORed with the previous value of their column
+ * (opens with the previous close) and only the meaningful bits are kept, reusing
+ * the last leading/trailing zero window when it fits. Volumes are zigzag varints.
+ */
+public final class BarCodec {
+
+    private BarCodec() {
+    }
+
+    /**
+     * Encode bars [from, to) as one block
+     */
+    public static byte[] encode(BarSeries bars, int from, int to) {
+        int count = to - from;
+        if (count <= 0) {
+            throw new IllegalArgumentException("Cannot encode an empty block");
+        }
+        long[] timestamps = bars.timestamps();
+        double[] close = bars.close();
+        BitWriter out = new BitWriter(count * 24 + 16);
+        out.write(count, 32);
+        out.write(timestamps[from], 64);
+
+        long previousDelta = 0;
+        for (int i = from + 1; i < to; i++) {
+            long delta = timestamps[i] - timestamps[i - 1];
+            writeDeltaOfDelta(out, delta - previousDelta);
+            previousDelta = delta;
+        }
+
+        writeFloats(out, close, from, to, null);
+        // Bars tend to open at the previous close
+        writeFloats(out, bars.open(), from, to, close);
+        writeFloats(out, bars.high(), from, to, null);
+        writeFloats(out, bars.low(), from, to, null);
+
+        long[] volume = bars.volume();
+        for (int i = from; i < to; i++) {
+            long zigzag = (volume[i] << 1) ^ (volume[i] >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                out.write((zigzag & 0x7F) | 0x80, 8);
+                zigzag >>>= 7;
+            }
+            out.write(zigzag, 8);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode the block at the buffer's position into the columns from offset,
+     * returning the number of bars. The buffer's position is left unchanged.
+     */
+    public static int decode(ByteBuffer block, long[] timestamps, double[] open, double[] high, double[] low,
+                             double[] close, long[] volume, int offset) {
+        BitReader in = new BitReader(block);
+        int count = (int) in.read(32);
+        int end = offset + count;
+        timestamps[offset] = in.read(64);
+
+        long delta = 0;
+        for (int i = offset + 1; i < end; i++) {
+            delta += readDeltaOfDelta(in);
+            timestamps[i] = timestamps[i - 1] + delta;
+        }
+
+        readFloats(in, close, offset, end, null);
+        readFloats(in, open, offset, end, close);
+        readFloats(in, high, offset, end, null);
+        readFloats(in, low, offset, end, null);
+
+        for (int i = offset; i < end; i++) {
+            long zigzag = 0;
+            int shift = 0;
+            long group;
+            do {
+                group = in.read(8);
+                zigzag |= (group & 0x7F) << shift;
+                shift += 7;
+            } while ((group & 0x80) != 0);
+            volume[i] = (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+        return count;
+    }
+
+    private static void writeDeltaOfDelta(BitWriter out, long dod) {
+        if (dod == 0) {
+            out.write(0, 1);
+        } else if (dod >= -64 && dod < 64) {
+            out.write(0b10, 2);
+            out.write(dod, 7);
+        } else if (dod >= -256 && dod < 256) {
+            out.write(0b110, 3);
+            out.write(dod, 9);
+        } else if (dod >= -2048 && dod < 2048) {
+            out.write(0b1110, 4);
+            out.write(dod, 12);
+        } else if (dod >= Integer.MIN_VALUE && dod <= Integer.MAX_VALUE) {
+            // Millisecond timestamps: day and overnight gaps land here
+            out.write(0b11110, 5);
+            out.write(dod, 32);
+        } else {
+            out.write(0b11111, 5);
+            out.write(dod, 64);
+        }
+    }
+
+    private static long readDeltaOfDelta(BitReader in) {
+        int prefix = 0;
+        while (prefix < 5 && in.readBit()) {
+            prefix++;
+        }
+        return switch (prefix) {
+            case 0 -> 0;
+            case 1 -> signed(in.read(7), 7);
+            case 2 -> signed(in.read(9), 9);
+            case 3 -> signed(in.read(12), 12);
+            case 4 -> signed(in.read(32), 32);
+            default -> in.read(64);
+        };
+    }
+
+    private static long signed(long value, int bits) {
+        return value << (64 - bits) >> (64 - bits);
+    }
+
+    /**
+     * XOR each value with the predictor column's value one bar earlier, or with
+     * the previous value of its own column if there is no predictor
+     */
+    private static void writeFloats(BitWriter out, double[] values, int from, int to, double[] predictor) {
+        double[] previous = predictor != null ? predictor : values;
+        out.write(Double.doubleToRawLongBits(values[from]), 64);
+        XorState state = new XorState();
+        for (int i = from + 1; i < to; i++) {
+            state.write(out, Double.doubleToRawLongBits(previous[i - 1]), Double.doubleToRawLongBits(values[i]));
+        }
+    }
+
+    private static void readFloats(BitReader in, double[] values, int from, int to, double[] predictor) {
+        long bits = in.read(64);
+        values[from] = Double.longBitsToDouble(bits);
+        int leading = -1;
+        int trailing = 0;
+        for (int i = from + 1; i < to; i++) {
+            long previous = predictor == null ? bits : Double.doubleToRawLongBits(predictor[i - 1]);
+            if (!in.readBit()) {
+                bits = previous;
+            } else {
+                if (in.readBit()) {
+                    leading = (int) in.read(5);
+                    int significant = (int) in.read(6) + 1;
+                    trailing = 64 - leading - significant;
+                }
+                long xor = in.read(64 - leading - trailing) << trailing;
+                bits = previous ^ xor;
+            }
+            values[i] = Double.longBitsToDouble(bits);
+        }
+    }
+
+    /**
+     * The leading/trailing zero window of the last XOR written for one column
+     */
+    private static class XorState {
+        private int leading = -1;
+        private int trailing;
+
+        void write(BitWriter out, long previous, long value) {
+            long xor = previous ^ value;
+            if (xor == 0) {
+                out.write(0, 1);
+                return;
+            }
+            // Leading zeros are stored in 5 bits
+            int newLeading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int newTrailing = Long.numberOfTrailingZeros(xor);
+            if (leading >= 0 && newLeading >= leading && newTrailing >= trailing) {
+                out.write(0b10, 2);
+                out.write(xor >>> trailing, 64 - leading - trailing);
+            } else {
+                int significant = 64 - newLeading - newTrailing;
+                out.write(0b11, 2);
+                out.write(newLeading, 5);
+                out.write(significant - 1, 6);
+                out.write(xor >>> newTrailing, significant);
+                leading = newLeading;
+                trailing = newTrailing;
+            }
+        }
+    }
+
+    /**
+     * Packs bit fields most significant bit first
+     */
+    private static class BitWriter {
+        private byte[] bytes;
+        private int size;
+        private long word;
+        private int used;
+
+        BitWriter(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        /**
+         * Write the low bits of value, 1 to 64 of them
+         */
+        void write(long value, int bits) {
+            if (bits < 64) {
+                value &= (1L << bits) - 1;
+            }
+            int free = 64 - used;
+            if (bits < free) {
+                word |= value << (free - bits);
+                used += bits;
+            } else {
+                int rest = bits - free;
+                word |= value >>> rest;
+                flush();
+                word = rest == 0 ? 0 : value << (64 - rest);
+                used = rest;
+            }
+        }
+
+        private void flush() {
+            if (size + 8 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + 8));
+            }
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (word >>> shift);
+            }
+        }
+
+        byte[] toByteArray() {
+            int tail = (used + 7) / 8;
+            byte[] result = Arrays.copyOf(bytes, size + tail);
+            for (int b = 0; b < tail; b++) {
+                result[size + b] = (byte) (word >>> (56 - 8 * b));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Reads bit fields from a buffer a 64-bit word at a time
+     */
+    private static class BitReader {
+        private final ByteBuffer buffer;
+        private int position;
+        private long word;
+        private int available;
+
+        BitReader(ByteBuffer buffer) {
+            this.buffer = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+            this.position = buffer.position();
+        }
+
+        boolean readBit() {
+            if (available == 0) {
+                refill();
+            }
+            boolean bit = word < 0;
+            word <<= 1;
+            available--;
+            return bit;
+        }
+
+        /**
+         * Read 1 to 64 bits as an unsigned value
+         */
+        long read(int bits) {
+            if (bits <= available) {
+                long value = word >>> (64 - bits);
+                word = bits == 64 ? 0 : word << bits;
+                available -= bits;
+                return value;
+            }
+            int high = available;
+            long value = high == 0 ? 0 : word >>> (64 - high);
+            refill();
+            int low = bits - high;
+            if (low > available) {
+                throw new IllegalStateException("Truncated bar block");
+            }
+            value = (low == 64 ? 0 : value << low) | (word >>> (64 - low));
+            word = low == 64 ? 0 : word << low;
+            available -= low;
+            return value;
+        }
+
+        private void refill() {
+            if (position + 8 <= buffer.limit()) {
+                word = buffer.getLong(position);
+                position += 8;
+                available = 64;
+                return;
+            }
+            word = 0;
+            available = 0;
+            while (position < buffer.limit() && available < 64) {
+                word |= (buffer.get(position++) & 0xFFL) << (56 - available);
+                available += 8;
+            }
+            if (available == 0) {
+                throw new IllegalStateException("Truncated bar block");
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.quantcrux.service;
+
+import java.time.LocalDate;
+
+/**
+ * One symbol's bars at any frequency, stored column-wise and indexed by bar.
+ * Timestamps are epoch milliseconds (UTC) of the bar's start and strictly increase.
+ */
+public class BarSeries {
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private final String symbol;
+    private final long[] timestamps;
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final long[] volume;
+
+    public BarSeries(String symbol, long[] timestamps, double[] open, double[] high, double[] low,
+                     double[] close, long[] volume) {
+        int n = timestamps.length;
+        if (open.length != n || high.length != n || low.length != n || close.length != n || volume.length != n) {
+            throw new IllegalArgumentException("Bar columns for " + symbol + " differ in length");
+        }
+        for (int i = 1; i < n; i++) {
+            if (timestamps[i] <= timestamps[i - 1]) {
+                throw new IllegalArgumentException("Bars for " + symbol + " are not in time order");
+            }
+        }
+        this.symbol = symbol;
+        this.timestamps = timestamps;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+    }
+
+    /**
+     * UTC day of a timestamp, as days since the epoch
+     */
+    public static int epochDay(long timestamp) {
+        return (int) Math.floorDiv(timestamp, MILLIS_PER_DAY);
+    }
+
+    public String symbol() { return symbol; }
+
+    public int barCount() { return timestamps.length; }
+
+    public long[] timestamps() { return timestamps; }
+
+    public double[] open() { return open; }
+
+    public double[] high() { return high; }
+
+    public double[] low() { return low; }
+
+    public double[] close() { return close; }
+
+    public long[] volume() { return volume; }
+
+    /**
+     * UTC date of a bar
+     */
+    public LocalDate date(int bar) { return LocalDate.ofEpochDay(epochDay(timestamps[bar])); }
+}
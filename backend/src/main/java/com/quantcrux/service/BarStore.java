@@ -0,0 +1,771 @@
+package com.quantcrux.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only bar history on local disk, one directory per symbol.
+ *
+ * New bars go to a raw segment with one file per column: timestamps, open, high,
+ * low, close and volume as little-endian 8-byte values. Reads within the segment
+ * return slices of its memory mappings, so they copy nothing and build no per-bar
+ * objects. Once the segment holds block-bars bars it is compressed with BarCodec
+ * into blocks.dat and a new segment is started; blocks.idx keeps each block's time
+ * range, low and high, so range reads decode only the blocks they overlap. With
+ * block-bars 0 every bar stays in the one raw segment. Large appends that find the
+ * segment empty are compressed into whole blocks directly, as bulk imports are.
+ *
+ * Appends write every value column before the timestamp column; on opening a
+ * symbol the segment's bar count is that of its shortest column and the rest is
+ * cut off, so a crash mid-append loses at most the bars being appended. A block
+ * counts once its index entry is written, and only then is its segment removed.
+ *
+ * History generated in place of real data is written with appendSynthetic or
+ * replaceSynthetic and marked by a synthetic file in the symbol's directory. The
+ * first append of real bars discards such a history, and synthetic bars are never
+ * added to real ones.
+ */
+@Service
+public class BarStore {
+
+    private static final String[] COLUMNS = {"timestamp", "open", "high", "low", "close", "volume"};
+    private static final int TIMESTAMP = 0;
+    private static final int OPEN = 1;
+    private static final int HIGH = 2;
+    private static final int LOW = 3;
+    private static final int CLOSE = 4;
+    private static final int VOLUME = 5;
+    // first and last timestamp, low, high, offset, length and bar count
+    private static final int INDEX_ENTRY_BYTES = 48;
+    // A mapping holds at most Integer.MAX_VALUE bytes
+    private static final int MAX_SEGMENT_BARS = Integer.MAX_VALUE / Long.BYTES;
+    private static final String SYNTHETIC_MARKER = "synthetic";
+
+    @Value("${market-data.store.directory:data/bars}")
+    private String directory;
+
+    @Value("${market-data.store.block-bars:1024}")
+    private int blockBars;
+
+    @Value("${market-data.store.max-open-symbols:256}")
+    private int maxOpenSymbols;
+
+    private final ConcurrentHashMap<String, SymbolStore> symbols = new ConcurrentHashMap<>();
+
+    /**
+     * Append bars that all come after the symbol's last stored bar, first
+     * discarding the symbol's history if it is synthetic
+     */
+    public void append(BarSeries bars) {
+        while (!store(bars.symbol()).append(bars, false, true)) {
+            // Closed as idle after it was looked up, so append to a reopened one
+        }
+    }
+
+    /**
+     * Append generated bars to a symbol that is empty or already synthetic; if it
+     * holds real bars nothing is written
+     */
+    public void appendSynthetic(BarSeries bars) {
+        while (!store(bars.symbol()).append(bars, true, false)) {
+            // Closed as idle after it was looked up, so append to a reopened one
+        }
+    }
+
+    /**
+     * Replace the history of a symbol that is empty or synthetic with generated
+     * bars; if it holds real bars nothing is written
+     */
+    public void replaceSynthetic(BarSeries bars) {
+        while (!store(bars.symbol()).append(bars, true, true)) {
+            // Closed as idle after it was looked up, so write to a reopened one
+        }
+    }
+
+    /**
+     * Whether the symbol has a history on disk; unlike the other methods this
+     * never creates one
+     */
+    public boolean contains(String symbol) {
+        return symbols.containsKey(symbol) || Files.isDirectory(symbolDirectory(symbol));
+    }
+
+    public int size(String symbol) {
+        View view = store(symbol).view;
+        return view.compressedBars + view.segmentBars;
+    }
+
+    /**
+     * Timestamp of the symbol's first stored bar, or Long.MIN_VALUE if it has none
+     */
+    public long firstTimestamp(String symbol) {
+        return store(symbol).view.firstTimestamp;
+    }
+
+    /**
+     * Timestamp of the symbol's last stored bar, or Long.MIN_VALUE if it has none
+     */
+    public long lastTimestamp(String symbol) {
+        return store(symbol).view.lastTimestamp;
+    }
+
+    /**
+     * Timestamp of the symbol's last real bar, or Long.MIN_VALUE if it has none
+     * because its history is empty or synthetic
+     */
+    public long lastRealTimestamp(String symbol) {
+        View view = store(symbol).view;
+        return view.synthetic ? Long.MIN_VALUE : view.lastTimestamp;
+    }
+
+    /**
+     * Whether the symbol's history was generated by appendSynthetic
+     */
+    public boolean isSynthetic(String symbol) {
+        return store(symbol).view.synthetic;
+    }
+
+    /**
+     * Bars with timestamps in [from, to]. Within the raw segment these are views of
+     * its mapped columns; a range reaching into compressed blocks is decoded.
+     */
+    public StoredBars read(String symbol, long from, long to) {
+        View view = store(symbol).view;
+        int first = view.firstBlockEndingAtOrAfter(from);
+        if (first == view.blocks) {
+            return readSegment(symbol, view, from, to);
+        }
+        int end = view.firstBlockStartingAfter(to);
+
+        int capacity = view.segmentBars;
+        for (int b = first; b < end; b++) {
+            capacity += view.index.count[b];
+        }
+        long[] timestamps = new long[capacity];
+        double[] open = new double[capacity];
+        double[] high = new double[capacity];
+        double[] low = new double[capacity];
+        double[] close = new double[capacity];
+        long[] volume = new long[capacity];
+        int size = 0;
+        for (int b = first; b < end; b++) {
+            size += BarCodec.decode(view.block(b), timestamps, open, high, low, close, volume, size);
+        }
+        if (end == view.blocks) {
+            StoredBars segment = readSegment(symbol, view, Long.MIN_VALUE, to);
+            int n = segment.size();
+            for (int i = 0; i < n; i++) {
+                timestamps[size + i] = segment.timestamp(i);
+                open[size + i] = segment.open(i);
+                high[size + i] = segment.high(i);
+                low[size + i] = segment.low(i);
+                close[size + i] = segment.close(i);
+                volume[size + i] = segment.volume(i);
+            }
+            size += n;
+        }
+
+        int start = lowerBound(timestamps, 0, size, from);
+        int stop = to == Long.MAX_VALUE ? size : lowerBound(timestamps, start, size, to + 1);
+        int length = stop - start;
+        return new StoredBars(symbol,
+                LongBuffer.wrap(timestamps, start, length).slice(),
+                DoubleBuffer.wrap(open, start, length).slice(),
+                DoubleBuffer.wrap(high, start, length).slice(),
+                DoubleBuffer.wrap(low, start, length).slice(),
+                DoubleBuffer.wrap(close, start, length).slice(),
+                LongBuffer.wrap(volume, start, length).slice());
+    }
+
+    /**
+     * Lowest low and highest high of the bars in [from, to], or null if there are
+     * none. Blocks wholly inside the range are answered from the index alone.
+     */
+    public double[] priceRange(String symbol, long from, long to) {
+        View view = store(symbol).view;
+        double low = Double.POSITIVE_INFINITY;
+        double high = Double.NEGATIVE_INFINITY;
+        int first = view.firstBlockEndingAtOrAfter(from);
+        int end = view.firstBlockStartingAfter(to);
+        BlockIndex index = view.index;
+        for (int b = first; b < end; b++) {
+            if (index.first[b] >= from && index.last[b] <= to) {
+                low = Math.min(low, index.low[b]);
+                high = Math.max(high, index.high[b]);
+            } else {
+                StoredBars bars = read(symbol, Math.max(from, index.first[b]), Math.min(to, index.last[b]));
+                for (int i = 0; i < bars.size(); i++) {
+                    low = Math.min(low, bars.low(i));
+                    high = Math.max(high, bars.high(i));
+                }
+            }
+        }
+        if (end == view.blocks) {
+            StoredBars bars = readSegment(symbol, view, from, to);
+            for (int i = 0; i < bars.size(); i++) {
+                low = Math.min(low, bars.low(i));
+                high = Math.max(high, bars.high(i));
+            }
+        }
+        return low <= high ? new double[] {low, high} : null;
+    }
+
+    @PreDestroy
+    public void close() {
+        symbols.values().forEach(SymbolStore::close);
+        symbols.clear();
+    }
+
+    /**
+     * The symbol's open store, opening it if needed. Beyond max-open-symbols the
+     * least recently used store is closed; readers keep the views they hold, as
+     * mappings outlive their channels.
+     */
+    private SymbolStore store(String symbol) {
+        SymbolStore store = symbols.get(symbol);
+        while (store == null || store.closed) {
+            if (store != null) {
+                symbols.remove(symbol, store);
+            }
+            store = symbols.computeIfAbsent(symbol, s -> new SymbolStore(symbolDirectory(s), blockBars));
+            if (maxOpenSymbols > 0 && symbols.size() > maxOpenSymbols) {
+                closeLeastRecentlyUsed(store);
+            }
+        }
+        store.lastUsed = System.nanoTime();
+        return store;
+    }
+
+    private void closeLeastRecentlyUsed(SymbolStore keep) {
+        Map.Entry<String, SymbolStore> eldest = null;
+        for (Map.Entry<String, SymbolStore> entry : symbols.entrySet()) {
+            if (entry.getValue() != keep && (eldest == null || entry.getValue().lastUsed < eldest.getValue().lastUsed)) {
+                eldest = entry;
+            }
+        }
+        if (eldest != null) {
+            // Closed before it leaves the map, so no second store opens its files while it appends
+            eldest.getValue().close();
+            symbols.remove(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    private Path symbolDirectory(String symbol) {
+        // Encoded so symbols such as EUR/USD stay a single directory name
+        String name = URLEncoder.encode(symbol, StandardCharsets.UTF_8);
+        if (name.isEmpty() || name.equals(".") || name.equals("..")) {
+            throw new IllegalArgumentException("Invalid symbol: " + symbol);
+        }
+        return Paths.get(directory).resolve(name);
+    }
+
+    private static StoredBars readSegment(String symbol, View view, long from, long to) {
+        MappedByteBuffer[] maps = view.segment;
+        ByteBuffer timestamps = maps[TIMESTAMP];
+        int count = view.segmentBars;
+
+        int first = search(timestamps, count, from);
+        int end = to == Long.MAX_VALUE ? count : search(timestamps, count, to + 1);
+        int length = Math.max(end - first, 0);
+
+        return new StoredBars(symbol,
+                slice(maps[TIMESTAMP], first, length).asLongBuffer(),
+                slice(maps[OPEN], first, length).asDoubleBuffer(),
+                slice(maps[HIGH], first, length).asDoubleBuffer(),
+                slice(maps[LOW], first, length).asDoubleBuffer(),
+                slice(maps[CLOSE], first, length).asDoubleBuffer(),
+                slice(maps[VOLUME], first, length).asLongBuffer());
+    }
+
+    private static ByteBuffer slice(MappedByteBuffer map, int first, int length) {
+        return map.slice(first * Long.BYTES, length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * First bar with a timestamp at or after the given one
+     */
+    private static int search(ByteBuffer timestamps, int count, long timestamp) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps.getLong(mid * Long.BYTES) < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int lowerBound(long[] values, int from, int to, long value) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Block index columns. Entries below a view's block count never change, so
+     * views share the arrays until they grow.
+     */
+    private static class BlockIndex {
+        long[] first = new long[16];
+        long[] last = new long[16];
+        double[] low = new double[16];
+        double[] high = new double[16];
+        long[] offset = new long[16];
+        int[] length = new int[16];
+        int[] count = new int[16];
+
+        BlockIndex add(int block, long firstTimestamp, long lastTimestamp, double lowest, double highest,
+                       long blockOffset, int blockLength, int bars) {
+            BlockIndex index = this;
+            if (block == first.length) {
+                index = new BlockIndex();
+                int capacity = block * 2;
+                index.first = Arrays.copyOf(first, capacity);
+                index.last = Arrays.copyOf(last, capacity);
+                index.low = Arrays.copyOf(low, capacity);
+                index.high = Arrays.copyOf(high, capacity);
+                index.offset = Arrays.copyOf(offset, capacity);
+                index.length = Arrays.copyOf(length, capacity);
+                index.count = Arrays.copyOf(count, capacity);
+            }
+            index.first[block] = firstTimestamp;
+            index.last[block] = lastTimestamp;
+            index.low[block] = lowest;
+            index.high[block] = highest;
+            index.offset[block] = blockOffset;
+            index.length[block] = blockLength;
+            index.count[block] = bars;
+            return index;
+        }
+    }
+
+    /**
+     * What a reader sees of one symbol: its blocks and its raw segment, swapped
+     * whole on every append
+     */
+    private static class View {
+        final BlockIndex index;
+        final int blocks;
+        final int compressedBars;
+        final MappedByteBuffer blockData;
+        final MappedByteBuffer[] segment;
+        final int segmentBars;
+        final long firstTimestamp;
+        final long lastTimestamp;
+        final boolean synthetic;
+
+        View(BlockIndex index, int blocks, int compressedBars, MappedByteBuffer blockData, MappedByteBuffer[] segment,
+             int segmentBars, boolean synthetic) {
+            this.synthetic = synthetic;
+            this.index = index;
+            this.blocks = blocks;
+            this.compressedBars = compressedBars;
+            this.blockData = blockData;
+            this.segment = segment;
+            this.segmentBars = segmentBars;
+            if (blocks > 0) {
+                firstTimestamp = index.first[0];
+            } else {
+                firstTimestamp = segmentBars > 0 ? segment[TIMESTAMP].getLong(0) : Long.MIN_VALUE;
+            }
+            if (segmentBars > 0) {
+                lastTimestamp = segment[TIMESTAMP].getLong((segmentBars - 1) * Long.BYTES);
+            } else {
+                lastTimestamp = blocks > 0 ? index.last[blocks - 1] : Long.MIN_VALUE;
+            }
+        }
+
+        ByteBuffer block(int b) {
+            return blockData.slice((int) index.offset[b], index.length[b]);
+        }
+
+        int firstBlockEndingAtOrAfter(long timestamp) {
+            int low = 0;
+            int high = blocks;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (index.last[mid] < timestamp) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        int firstBlockStartingAfter(long timestamp) {
+            int low = 0;
+            int high = blocks;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (index.first[mid] <= timestamp) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * The open files of one symbol
+     */
+    private static class SymbolStore {
+        private final Path directory;
+        private final int blockBars;
+        private final FileChannel blockData;
+        private final FileChannel blockIndex;
+        private final FileChannel[] segment = new FileChannel[COLUMNS.length];
+        private BlockIndex index = new BlockIndex();
+        private int blocks;
+        private int compressedBars;
+        private int segmentBars;
+        private boolean synthetic;
+        private volatile View view;
+        private volatile boolean closed;
+        private volatile long lastUsed;
+
+        SymbolStore(Path directory, int blockBars) {
+            this.directory = directory;
+            this.blockBars = blockBars;
+            try {
+                Files.createDirectories(directory);
+                blockData = FileChannel.open(directory.resolve("blocks.dat"),
+                        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                blockIndex = FileChannel.open(directory.resolve("blocks.idx"),
+                        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                synthetic = Files.exists(directory.resolve(SYNTHETIC_MARKER));
+                readIndex();
+                removeSegmentsOtherThan(blocks);
+                openSegment();
+                view = mapView();
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException("Cannot open bar store at " + directory, e);
+            }
+        }
+
+        /**
+         * False, with nothing written, if the store has been closed. Generated bars
+         * are dropped if the store holds real ones; with replaceSynthetic a
+         * synthetic history is discarded first.
+         */
+        synchronized boolean append(BarSeries bars, boolean generated, boolean replaceSynthetic) {
+            if (closed) {
+                return false;
+            }
+            int n = bars.barCount();
+            if (n == 0) {
+                return true;
+            }
+            boolean empty = blocks == 0 && segmentBars == 0;
+            if (generated && !synthetic && !empty) {
+                return true;
+            }
+            boolean replacing = synthetic && replaceSynthetic;
+            if (!replacing && !empty && bars.timestamps()[0] <= view.lastTimestamp) {
+                throw new IllegalArgumentException("Bars for " + bars.symbol() + " must come after the last stored bar");
+            }
+            try {
+                if (replacing) {
+                    clear();
+                }
+                if (generated && !synthetic) {
+                    Files.write(directory.resolve(SYNTHETIC_MARKER), new byte[0]);
+                    synthetic = true;
+                }
+            } catch (IOException e) {
+                // Reopened from disk on next use, where a half-cleared history is still synthetic
+                close();
+                throw new UncheckedIOException("Cannot update the synthetic history of " + bars.symbol(), e);
+            }
+
+            try {
+                int done = 0;
+                while (done < n) {
+                    if (blockBars > 0 && segmentBars == 0 && n - done >= blockBars) {
+                        // Whole blocks are compressed straight from the input, skipping the raw segment
+                        int whole = (n - done) / blockBars * blockBars;
+                        writeBlocks(bars, done, done + whole);
+                        done += whole;
+                        continue;
+                    }
+                    int room = blockBars > 0 ? blockBars - segmentBars : MAX_SEGMENT_BARS - segmentBars;
+                    if (room == 0) {
+                        throw new IllegalArgumentException("Bar store for " + bars.symbol() + " is full");
+                    }
+                    int take = Math.min(n - done, room);
+                    writeSegment(bars, done, take);
+                    done += take;
+                    if (blockBars > 0 && segmentBars == blockBars) {
+                        seal(bars.symbol());
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot append bars for " + bars.symbol(), e);
+            } finally {
+                // Also after a failure, so readers see whatever was written
+                publish();
+            }
+            return true;
+        }
+
+        private void writeSegment(BarSeries bars, int from, int length) throws IOException {
+            long position = (long) segmentBars * Long.BYTES;
+            write(segment[OPEN], position, bars.open(), from, length);
+            write(segment[HIGH], position, bars.high(), from, length);
+            write(segment[LOW], position, bars.low(), from, length);
+            write(segment[CLOSE], position, bars.close(), from, length);
+            write(segment[VOLUME], position, bars.volume(), from, length);
+            write(segment[TIMESTAMP], position, bars.timestamps(), from, length);
+            for (FileChannel channel : segment) {
+                channel.force(false);
+            }
+            segmentBars += length;
+        }
+
+        /**
+         * Compress the full raw segment into a block and start an empty one
+         */
+        private void seal(String symbol) throws IOException {
+            BarSeries bars = readSegment(symbol, mapView(), Long.MIN_VALUE, Long.MAX_VALUE).toSeries();
+            writeBlocks(bars, 0, bars.barCount());
+        }
+
+        /**
+         * Compress bars [from, to) into blocks of blockBars, forcing the data once
+         * and then the index once, and start an empty segment after them
+         */
+        private void writeBlocks(BarSeries bars, int from, int to) throws IOException {
+            int count = (to - from + blockBars - 1) / blockBars;
+            byte[][] encoded = new byte[count][];
+            long start = blocks > 0 ? index.offset[blocks - 1] + index.length[blocks - 1] : 0;
+            long offset = start;
+            for (int b = 0; b < count; b++) {
+                int first = from + b * blockBars;
+                encoded[b] = BarCodec.encode(bars, first, Math.min(first + blockBars, to));
+                offset += encoded[b].length;
+            }
+            if (offset > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Bar store for " + bars.symbol() + " is full");
+            }
+            ByteBuffer data = ByteBuffer.allocate((int) (offset - start));
+            for (byte[] block : encoded) {
+                data.put(block);
+            }
+            writeFully(blockData, start, data.flip());
+            blockData.force(false);
+
+            long[] timestamps = bars.timestamps();
+            double[] low = bars.low();
+            double[] high = bars.high();
+            ByteBuffer entries = ByteBuffer.allocate(count * INDEX_ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            BlockIndex grown = index;
+            offset = start;
+            for (int b = 0; b < count; b++) {
+                int first = from + b * blockBars;
+                int end = Math.min(first + blockBars, to);
+                double lowest = Double.POSITIVE_INFINITY;
+                double highest = Double.NEGATIVE_INFINITY;
+                for (int i = first; i < end; i++) {
+                    lowest = Math.min(lowest, low[i]);
+                    highest = Math.max(highest, high[i]);
+                }
+                entries.putLong(timestamps[first]).putLong(timestamps[end - 1])
+                        .putDouble(lowest).putDouble(highest)
+                        .putLong(offset).putInt(encoded[b].length).putInt(end - first);
+                grown = grown.add(blocks + b, timestamps[first], timestamps[end - 1], lowest, highest,
+                        offset, encoded[b].length, end - first);
+                offset += encoded[b].length;
+            }
+            writeFully(blockIndex, (long) blocks * INDEX_ENTRY_BYTES, entries.flip());
+            blockIndex.force(false);
+
+            index = grown;
+            blocks += count;
+            compressedBars += to - from;
+            closeSegment();
+            removeSegmentsOtherThan(blocks);
+            openSegment();
+        }
+
+        /**
+         * Discard every bar; readers keep the current view until the next publish.
+         * The index is emptied first and the marker removed last, so after a crash
+         * midway the store is still synthetic and is cleared again by the next
+         * append of real bars.
+         */
+        private void clear() throws IOException {
+            blockIndex.truncate(0);
+            blockIndex.force(false);
+            closeSegment();
+            removeSegmentsOtherThan(-1);
+            blockData.truncate(0);
+            index = new BlockIndex();
+            blocks = 0;
+            compressedBars = 0;
+            openSegment();
+            Files.deleteIfExists(directory.resolve(SYNTHETIC_MARKER));
+            synthetic = false;
+        }
+
+        private void readIndex() throws IOException {
+            int entries = (int) (blockIndex.size() / INDEX_ENTRY_BYTES);
+            blockIndex.truncate((long) entries * INDEX_ENTRY_BYTES);
+            if (entries > 0) {
+                ByteBuffer bytes = ByteBuffer.allocate(entries * INDEX_ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                while (bytes.hasRemaining()) {
+                    if (blockIndex.read(bytes, bytes.position()) < 0) {
+                        throw new IOException("Block index ended early");
+                    }
+                }
+                bytes.flip();
+                for (int b = 0; b < entries; b++) {
+                    index = index.add(b, bytes.getLong(), bytes.getLong(), bytes.getDouble(), bytes.getDouble(),
+                            bytes.getLong(), bytes.getInt(), bytes.getInt());
+                    compressedBars += index.count[b];
+                }
+            }
+            blocks = entries;
+            // Drops a block written before a crash but never indexed
+            long end = blocks > 0 ? index.offset[blocks - 1] + index.length[blocks - 1] : 0;
+            if (blockData.size() < end) {
+                throw new IOException("Block data is shorter than its index");
+            }
+            blockData.truncate(end);
+        }
+
+        /**
+         * Open the raw segment following the last block, cutting its columns to
+         * the shortest one
+         */
+        private void openSegment() throws IOException {
+            long shortest = Long.MAX_VALUE;
+            for (int c = 0; c < COLUMNS.length; c++) {
+                segment[c] = FileChannel.open(segmentFile(blocks, c),
+                        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                shortest = Math.min(shortest, segment[c].size() / Long.BYTES);
+            }
+            for (FileChannel channel : segment) {
+                channel.truncate(shortest * Long.BYTES);
+            }
+            segmentBars = (int) shortest;
+        }
+
+        private Path segmentFile(int number, int column) {
+            return directory.resolve(COLUMNS[column] + "." + number + ".col");
+        }
+
+        /**
+         * Delete every segment but the given one: those before it are already
+         * compressed into blocks and any after it are left from a cleared history.
+         * Readers keep any mappings of them, which outlive the files.
+         */
+        private void removeSegmentsOtherThan(int number) throws IOException {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.col")) {
+                for (Path file : files) {
+                    String[] parts = file.getFileName().toString().split("\\.");
+                    if (parts.length == 3 && parts[1].chars().allMatch(Character::isDigit)
+                            && Integer.parseInt(parts[1]) != number) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+        }
+
+        private View mapView() throws IOException {
+            MappedByteBuffer[] maps = new MappedByteBuffer[COLUMNS.length];
+            for (int c = 0; c < COLUMNS.length; c++) {
+                maps[c] = segment[c].map(FileChannel.MapMode.READ_ONLY, 0, (long) segmentBars * Long.BYTES);
+                maps[c].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            MappedByteBuffer data = blockData.map(FileChannel.MapMode.READ_ONLY, 0, blockData.size());
+            return new View(index, blocks, compressedBars, data, maps, segmentBars, synthetic);
+        }
+
+        private void publish() {
+            try {
+                view = mapView();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot map bar store at " + directory, e);
+            }
+        }
+
+        private static void write(FileChannel channel, long position, double[] values, int from, int length)
+                throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.asDoubleBuffer().put(values, from, length);
+            writeFully(channel, position, buffer);
+        }
+
+        private static void write(FileChannel channel, long position, long[] values, int from, int length)
+                throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.asLongBuffer().put(values, from, length);
+            writeFully(channel, position, buffer);
+        }
+
+        private static void writeFully(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+
+        private void closeSegment() {
+            for (int c = 0; c < segment.length; c++) {
+                closeQuietly(segment[c]);
+                segment[c] = null;
+            }
+        }
+
+        synchronized void close() {
+            closed = true;
+            closeSegment();
+            closeQuietly(blockData);
+            closeQuietly(blockIndex);
+        }
+
+        private static void closeQuietly(FileChannel channel) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    // Nothing left to flush; appends force their writes
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.BatchPricingItem;
+import com.quantcrux.dto.BatchPricingRequest;
+import com.quantcrux.dto.PricingRequest;
+import com.quantcrux.model.Product;
+import com.quantcrux.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class BatchPricingService {
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private Validator validator;
+
+    private final ExecutorService executor;
+    private final int chunkSize;
+
+    public BatchPricingService(@Value("${pricing.batch.parallelism:0}") int parallelism,
+                               @Value("${pricing.batch.chunk-size:256}") int chunkSize) {
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.executor = Executors.newFixedThreadPool(workers);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Price every item of the batch, handing each result to the sink as soon as it is ready.
+     * Items are split into chunks that run in parallel; a failing item is reported in its
+     * own result and never stops the rest of the batch.
+     *
+     * The sink may be called from several threads at once. Cancelling the returned future
+     * stops the items not yet priced.
+     */
+    public CompletableFuture<Void> priceBatch(BatchPricingRequest batch, Consumer<BatchPricingItem> sink) {
+        List<BatchEntry> entries = new ArrayList<>();
+
+        List<PricingRequest> requests = batch.getRequests() != null ? batch.getRequests() : List.of();
+        for (PricingRequest request : requests) {
+            entries.add(new BatchEntry(entries.size(), null, request));
+        }
+
+        List<Long> productIds = batch.getProductIds() != null ? batch.getProductIds() : List.of();
+        if (!productIds.isEmpty()) {
+            Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+            for (Long productId : productIds) {
+                Product product = products.get(productId);
+                entries.add(new BatchEntry(entries.size(), productId,
+                        product != null ? toPricingRequest(product, batch) : null));
+            }
+        }
+
+        // Reject bad inputs up front, so only valid items are priced
+        List<BatchEntry> valid = new ArrayList<>();
+        for (BatchEntry entry : entries) {
+            String error = validate(entry);
+            if (error != null) {
+                sink.accept(BatchPricingItem.failure(entry.index, entry.productId, error));
+            } else {
+                valid.add(entry);
+            }
+        }
+
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (int from = 0; from < valid.size(); from += chunkSize) {
+            List<BatchEntry> chunk = valid.subList(from, Math.min(from + chunkSize, valid.size()));
+            tasks.add(CompletableFuture.runAsync(() -> priceChunk(chunk, sink, done), executor));
+        }
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0]))
+            .whenComplete((ignored, error) -> {
+                if (error != null) {
+                    done.completeExceptionally(error);
+                } else {
+                    done.complete(null);
+                }
+            });
+        return done;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void priceChunk(List<BatchEntry> chunk, Consumer<BatchPricingItem> sink, CompletableFuture<Void> done) {
+        for (BatchEntry entry : chunk) {
+            if (done.isDone()) {
+                return;
+            }
+            BatchPricingItem item;
+            try {
+                item = BatchPricingItem.success(entry.index, entry.productId, pricingService.calculatePrice(entry.request));
+            } catch (RuntimeException e) {
+                item = BatchPricingItem.failure(entry.index, entry.productId, "Pricing failed: " + e.getMessage());
+            }
+            sink.accept(item);
+        }
+    }
+
+    private String validate(BatchEntry entry) {
+        if (entry.request == null) {
+            return entry.productId != null ? "Product not found" : "Missing pricing request";
+        }
+        Set<ConstraintViolation<PricingRequest>> violations = validator.validate(entry.request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        return null;
+    }
+
+    private PricingRequest toPricingRequest(Product product, BatchPricingRequest batch) {
+        Double spot = batch.getSpotPrices() != null && product.getUnderlyingAsset() != null
+                ? batch.getSpotPrices().get(product.getUnderlyingAsset())
+                : null;
+
+        PricingRequest request = new PricingRequest();
+        request.setProductType(product.getType());
+        request.setUnderlyingAsset(product.getUnderlyingAsset());
+        request.setSpotPrice(spot != null ? spot : batch.getSpotPrice());
+        request.setStrike(product.getStrike());
+        request.setBarrier(product.getBarrier());
+        request.setCoupon(product.getCoupon());
+        request.setVolatility(batch.getVolatility());
+        request.setRiskFreeRate(batch.getRiskFreeRate());
+        request.setTimeToMaturity((product.getMaturityMonths() != null ? product.getMaturityMonths() : 12) / 12.0);
+        request.setNumSimulations(batch.getNumSimulations());
+        return request;
+    }
+
+    private static class BatchEntry {
+        final int index;
+        final Long productId;
+        final PricingRequest request;
+
+        BatchEntry(int index, Long productId, PricingRequest request) {
+            this.index = index;
+            this.productId = productId;
+            this.request = request;
+        }
+    }
+}
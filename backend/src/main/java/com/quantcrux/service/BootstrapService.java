@@ -0,0 +1,202 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.BacktestResult;
+import com.quantcrux.dto.BootstrapRequest;
+import com.quantcrux.dto.BootstrapResult;
+import com.quantcrux.dto.EquityCurve;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Robustness of a backtest: its daily returns are resampled with a circular block
+ * bootstrap, and each resampled path is replayed to get distributions of Sharpe
+ * ratio, max drawdown, total return and equity over time.
+ *
+ * Blocks keep runs of consecutive days together, so the serial structure of
+ * trades (days in and out of the market, streaks) survives the resampling.
+ * Resamples run in fixed-size chunks, each with its own generator split from the
+ * seed, so a seeded analysis gives the same bands on any number of cores.
+ */
+@Service
+public class BootstrapService {
+
+    private static final int CHUNK_SIZE = 256;
+    // Resampled equity values held for the bands: 80 MB of doubles
+    private static final long MAX_BAND_VALUES = 10_000_000L;
+
+    public BootstrapResult analyse(BacktestResult backtest, BootstrapRequest request) {
+        long started = System.currentTimeMillis();
+        EquityCurve curve = backtest.getEquityCurve();
+        int bars = curve.size();
+        if (bars < 2) {
+            throw new IllegalArgumentException("Bootstrap needs at least 2 bars of equity curve");
+        }
+
+        double initialCapital = request.getInitialCapital();
+        double[] returns = new double[bars];
+        double previous = initialCapital;
+        for (int t = 0; t < bars; t++) {
+            double value = curve.value(t);
+            returns[t] = value / previous - 1;
+            previous = value;
+        }
+
+        int resamples = request.getResamples() != null ? request.getResamples() : 10000;
+        int blockSize = Math.min(request.getBlockSize() != null ? request.getBlockSize() : 20, bars);
+        int bandPoints = Math.min(request.getBandPoints() != null ? request.getBandPoints() : 100, bars);
+        double[] percentiles = percentiles(request.getPercentiles());
+        if ((long) bandPoints * resamples > MAX_BAND_VALUES) {
+            throw new IllegalArgumentException("bandPoints x resamples may not exceed " + MAX_BAND_VALUES);
+        }
+
+        // Evenly spaced checkpoint bars, always ending on the last bar
+        int[] checkpoints = new int[bandPoints];
+        for (int c = 0; c < bandPoints; c++) {
+            checkpoints[c] = (int) Math.round((double) c * (bars - 1) / (bandPoints - 1));
+        }
+
+        // One column of resampled values per statistic and per checkpoint
+        double[] sharpe = new double[resamples];
+        double[] drawdown = new double[resamples];
+        double[] totalReturn = new double[resamples];
+        double[] equity = new double[bandPoints * resamples];
+
+        int chunks = (resamples + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        SplittableRandom root = new SplittableRandom(
+                request.getSeed() != null ? request.getSeed() : ThreadLocalRandom.current().nextLong());
+        SplittableRandom[] generators = new SplittableRandom[chunks];
+        for (int i = 0; i < chunks; i++) {
+            generators[i] = root.split();
+        }
+
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            SplittableRandom random = generators[chunk];
+            int end = Math.min((chunk + 1) * CHUNK_SIZE, resamples);
+            for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                resample(returns, blockSize, random, checkpoints, initialCapital, i, resamples,
+                        sharpe, drawdown, totalReturn, equity);
+            }
+        });
+
+        BootstrapResult result = new BootstrapResult();
+        result.setResamples(resamples);
+        result.setBlockSize(blockSize);
+        result.setObserved(backtest.getResults());
+        result.setSharpeRatio(percentileMap(sharpe, 0, resamples, percentiles));
+        result.setMaxDrawdown(percentileMap(drawdown, 0, resamples, percentiles));
+        result.setTotalReturn(percentileMap(totalReturn, 0, resamples, percentiles));
+
+        List<String> bandDates = new ArrayList<>(bandPoints);
+        Map<String, double[]> equityBands = new LinkedHashMap<>();
+        for (double p : percentiles) {
+            equityBands.put(label(p), new double[bandPoints]);
+        }
+        for (int c = 0; c < bandPoints; c++) {
+            bandDates.add(curve.date(checkpoints[c]).toString());
+            int from = c * resamples;
+            Arrays.sort(equity, from, from + resamples);
+            for (double p : percentiles) {
+                equityBands.get(label(p))[c] = percentile(equity, from, resamples, p);
+            }
+        }
+        result.setBandDates(bandDates);
+        result.setEquityBands(equityBands);
+        result.setElapsedMs(System.currentTimeMillis() - started);
+        return result;
+    }
+
+    /**
+     * Replay one resampled path and record its statistics at index i
+     */
+    private static void resample(double[] returns, int blockSize, SplittableRandom random, int[] checkpoints,
+                                 double initialCapital, int i, int resamples,
+                                 double[] sharpe, double[] drawdown, double[] totalReturn, double[] equity) {
+        int bars = returns.length;
+        double value = initialCapital;
+        double peak = value;
+        double maxDrawdown = 0;
+        // Daily returns are small, so plain sums lose nothing to cancellation here
+        double sum = 0;
+        double sumSquares = 0;
+        int next = 0;
+        int position = 0;
+        int remaining = 0;
+
+        for (int t = 0; t < bars; t++) {
+            if (remaining == 0) {
+                position = random.nextInt(bars);
+                remaining = blockSize;
+            }
+            double r = returns[position];
+            position = position + 1 == bars ? 0 : position + 1;
+            remaining--;
+
+            value *= 1 + r;
+            sum += r;
+            sumSquares += r * r;
+            if (value > peak) {
+                peak = value;
+            } else if (value < peak * (1 - maxDrawdown)) {
+                // Divide only on a new worst drawdown
+                maxDrawdown = 1 - value / peak;
+            }
+
+            if (t == checkpoints[next]) {
+                equity[next * resamples + i] = value;
+                if (next + 1 < checkpoints.length) {
+                    next++;
+                }
+            }
+        }
+
+        // Same annualisation as the backtest's own Sharpe ratio
+        double mean = sum / bars;
+        double stdDev = Math.sqrt(Math.max(sumSquares / bars - mean * mean, 0));
+        sharpe[i] = stdDev > 0 ? (mean * 252) / (stdDev * Math.sqrt(252)) : 0;
+        drawdown[i] = maxDrawdown;
+        totalReturn[i] = value / initialCapital - 1;
+    }
+
+    private static double[] percentiles(List<Double> requested) {
+        double[] percentiles = requested != null && !requested.isEmpty()
+                ? requested.stream().mapToDouble(Double::doubleValue).toArray()
+                : new double[] {5, 25, 50, 75, 95};
+        for (double p : percentiles) {
+            if (p < 0 || p > 100) {
+                throw new IllegalArgumentException("Percentiles must be between 0 and 100");
+            }
+        }
+        return percentiles;
+    }
+
+    private static Map<String, Double> percentileMap(double[] values, int from, int length, double[] percentiles) {
+        Arrays.sort(values, from, from + length);
+        Map<String, Double> map = new LinkedHashMap<>();
+        for (double p : percentiles) {
+            map.put(label(p), percentile(values, from, length, p));
+        }
+        return map;
+    }
+
+    /**
+     * Linear interpolation between closest ranks of a sorted range
+     */
+    private static double percentile(double[] sorted, int from, int length, double p) {
+        double rank = (length - 1) * p / 100;
+        int lower = (int) Math.floor(rank);
+        int upper = Math.min(lower + 1, length - 1);
+        return sorted[from + lower] + (rank - lower) * (sorted[from + upper] - sorted[from + lower]);
+    }
+
+    private static String label(double p) {
+        return p == Math.rint(p) ? "p" + (long) p : "p" + p;
+    }
+}
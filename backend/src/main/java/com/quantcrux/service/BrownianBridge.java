@@ -0,0 +1,85 @@
+package com.quantcrux.service;
+
+/**
+ * Brownian-bridge construction over an equally spaced time grid.
+ *
+ * The first normal fixes the terminal value, the next ones fill in midpoints,
+ * so the leading (best distributed) coordinates of a quasi-random point drive
+ * the coarse shape of the path. Output is the standardised increment of each step.
+ */
+public class BrownianBridge {
+
+    private final int steps;
+    private final int[] bridgeIndex;
+    private final int[] leftIndex;
+    private final int[] rightIndex;
+    private final double[] leftWeight;
+    private final double[] rightWeight;
+    private final double[] stdDev;
+
+    public BrownianBridge(int steps) {
+        this.steps = steps;
+        this.bridgeIndex = new int[steps];
+        this.leftIndex = new int[steps];
+        this.rightIndex = new int[steps];
+        this.leftWeight = new double[steps];
+        this.rightWeight = new double[steps];
+        this.stdDev = new double[steps];
+
+        // Times are 1..steps; map[i] != 0 once point i has been placed
+        int[] map = new int[steps];
+        map[steps - 1] = 1;
+        bridgeIndex[0] = steps - 1;
+        stdDev[0] = Math.sqrt(steps);
+
+        for (int i = 1, j = 0; i < steps; i++) {
+            while (map[j] != 0) {
+                j++;
+            }
+            int k = j;
+            while (map[k] == 0) {
+                k++;
+            }
+            int l = j + ((k - 1 - j) >> 1);
+            map[l] = i;
+            bridgeIndex[i] = l;
+            leftIndex[i] = j;
+            rightIndex[i] = k;
+
+            double tLeft = j;          // time of point j - 1, or 0
+            double tMid = l + 1;
+            double tRight = k + 1;
+            leftWeight[i] = (tRight - tMid) / (tRight - tLeft);
+            rightWeight[i] = (tMid - tLeft) / (tRight - tLeft);
+            stdDev[i] = Math.sqrt((tMid - tLeft) * (tRight - tMid) / (tRight - tLeft));
+
+            j = k + 1;
+            if (j >= steps) {
+                j = 0;
+            }
+        }
+    }
+
+    public int getSteps() {
+        return steps;
+    }
+
+    /**
+     * Turn steps independent normals into standardised Brownian increments.
+     * path is caller-owned scratch space of length steps, so the call does not allocate.
+     */
+    public void transform(double[] normals, double[] increments, double[] path) {
+        path[steps - 1] = stdDev[0] * normals[0];
+        for (int i = 1; i < steps; i++) {
+            int j = leftIndex[i];
+            int k = rightIndex[i];
+            int l = bridgeIndex[i];
+            double left = j != 0 ? leftWeight[i] * path[j - 1] : 0;
+            path[l] = left + rightWeight[i] * path[k] + stdDev[i] * normals[i];
+        }
+        increments[0] = path[0];
+        for (int i = 1; i < steps; i++) {
+            increments[i] = path[i] - path[i - 1];
+        }
+    }
+}
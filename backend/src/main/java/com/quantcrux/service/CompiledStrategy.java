@@ -0,0 +1,98 @@
+package com.quantcrux.service;
+
+import com.quantcrux.model.Strategy;
+
+import java.util.List;
+
+/**
+ * A strategy version reduced to what the backtest loop needs: indicator
+ * periods, entry and exit predicates over precomputed indicator arrays, and
+ * risk limits as plain doubles. Immutable, so one instance is shared by every
+ * backtest of that version.
+ */
+public class CompiledStrategy {
+
+    /**
+     * Signal on one bar, read straight from the indicator arrays
+     */
+    @FunctionalInterface
+    public interface BarRule {
+        boolean test(TechnicalIndicators.Series indicators, int bar);
+    }
+
+    private final Long strategyId;
+    private final Integer versionNumber;
+    private final Strategy.Indicators indicators;
+    private final BarRule entryRule;
+    private final BarRule exitRule;
+    private final List<StrategyCompiler.Condition> entryConditions;
+    private final List<StrategyCompiler.Condition> exitConditions;
+    private final double oversold;
+    private final double overbought;
+    private final double stopLoss;
+    private final double takeProfit;
+    private final double positionSize;
+
+    public CompiledStrategy(Long strategyId, Integer versionNumber, Strategy.Indicators indicators,
+                            BarRule entryRule, BarRule exitRule,
+                            List<StrategyCompiler.Condition> entryConditions,
+                            List<StrategyCompiler.Condition> exitConditions,
+                            double oversold, double overbought,
+                            double stopLoss, double takeProfit, double positionSize) {
+        this.strategyId = strategyId;
+        this.versionNumber = versionNumber;
+        this.indicators = indicators;
+        this.entryRule = entryRule;
+        this.exitRule = exitRule;
+        this.entryConditions = List.copyOf(entryConditions);
+        this.exitConditions = List.copyOf(exitConditions);
+        this.oversold = oversold;
+        this.overbought = overbought;
+        this.stopLoss = stopLoss;
+        this.takeProfit = takeProfit;
+        this.positionSize = positionSize;
+    }
+
+    public TechnicalIndicators.Series computeIndicators(double[] closes) {
+        return new TechnicalIndicators.Series(closes, indicators);
+    }
+
+    public Long getStrategyId() { return strategyId; }
+
+    public Integer getVersionNumber() { return versionNumber; }
+
+    public Strategy.Indicators getIndicators() { return indicators; }
+
+    public BarRule getEntryRule() { return entryRule; }
+
+    public BarRule getExitRule() { return exitRule; }
+
+    /**
+     * The conditions the rules were compiled from, for recompiling with other parameters
+     */
+    public List<StrategyCompiler.Condition> getEntryConditions() { return entryConditions; }
+
+    public List<StrategyCompiler.Condition> getExitConditions() { return exitConditions; }
+
+    /**
+     * RSI levels used by conditions that carry no threshold of their own
+     */
+    public double getOversold() { return oversold; }
+
+    public double getOverbought() { return overbought; }
+
+    /**
+     * Loss from entry, as a fraction, that closes the position; 0 disables it
+     */
+    public double getStopLoss() { return stopLoss; }
+
+    /**
+     * Gain from entry, as a fraction, that closes the position; 0 disables it
+     */
+    public double getTakeProfit() { return takeProfit; }
+
+    /**
+     * Fraction of available capital put into each new position
+     */
+    public double getPositionSize() { return positionSize; }
+}
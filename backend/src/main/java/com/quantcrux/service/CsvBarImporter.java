@@ -0,0 +1,644 @@
+package com.quantcrux.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+/**
+ * Streams a CSV file of bars into the BarStore.
+ *
+ * The file is read in chunks cut at line ends, each chunk is parsed into
+ * per-symbol columns on the parser pool, and the parsed chunks are written in
+ * file order. At most inFlight chunks are read ahead of the writer, so a slow
+ * store holds back reading instead of filling memory. Bars are committed to the
+ * store every commitBytes of input and the listener is told the offset up to
+ * which the file is then stored.
+ *
+ * Restarting from a committed offset is safe: a symbol's rows at or before its
+ * last stored bar are skipped, which also drops rows that are out of time order.
+ * A synthetic history has no bars to skip; the first bars stored replace it.
+ *
+ * The first line is a header naming the columns, in any order and case:
+ * symbol (or ticker), timestamp (or datetime, or date with an optional time),
+ * open, high, low, close and optionally volume. Without a symbol column every
+ * row belongs to the default symbol. The delimiter is whichever of , ; tab or |
+ * the header uses. Timestamps are UTC unless they carry an offset: yyyy-MM-dd,
+ * yyyy/MM/dd or yyyyMMdd dates, optionally followed by a T or space and
+ * HH:mm[:ss[.SSS]], or epoch seconds (up to 10 digits) or milliseconds.
+ */
+public class CsvBarImporter {
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final int MAX_HEADER_BYTES = 64 * 1024;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final BarStore barStore;
+    private final ExecutorService parsers;
+    private final int chunkBytes;
+    private final int inFlight;
+    private final long commitBytes;
+
+    public CsvBarImporter(BarStore barStore, ExecutorService parsers, int chunkBytes, int inFlight, long commitBytes) {
+        this.barStore = barStore;
+        this.parsers = parsers;
+        this.chunkBytes = chunkBytes;
+        this.inFlight = Math.max(1, inFlight);
+        this.commitBytes = commitBytes;
+    }
+
+    /**
+     * Told after each commit how far the file is stored and what the rows since
+     * the previous commit came to
+     */
+    @FunctionalInterface
+    public interface CommitListener {
+        void onCommit(long offset, long barsStored, long rowsSkipped, long rowsRejected);
+    }
+
+    /**
+     * Import the file from the given offset, or from its first row if that is 0
+     */
+    public void run(Path file, long offset, String defaultSymbol, CommitListener listener)
+            throws IOException, InterruptedException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Header header = readHeader(channel, defaultSymbol);
+            long position = Math.max(offset, header.length);
+            long size = channel.size();
+
+            BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(inFlight);
+            for (int i = 0; i < inFlight; i++) {
+                buffers.add(new byte[chunkBytes]);
+            }
+            ArrayDeque<Future<ParsedChunk>> parsing = new ArrayDeque<>();
+            Writer writer = new Writer(position, listener);
+            try {
+                while (position < size || !parsing.isEmpty()) {
+                    if (position < size && parsing.size() < inFlight) {
+                        byte[] buffer = buffers.take();
+                        int length = read(channel, buffer, position);
+                        if (position + length < size) {
+                            length = lastLineEnd(buffer, length);
+                            if (length == 0) {
+                                buffers.add(buffer);
+                                throw new IOException("Line at offset " + position + " is longer than "
+                                        + chunkBytes + " bytes");
+                            }
+                        }
+                        position += length;
+                        int chunkLength = length;
+                        long chunkEnd = position;
+                        parsing.add(parsers.submit(() -> {
+                            try {
+                                return parse(buffer, chunkLength, header, chunkEnd);
+                            } finally {
+                                buffers.add(buffer);
+                            }
+                        }));
+                    } else {
+                        writer.write(await(parsing.poll()));
+                    }
+                }
+                writer.commit();
+            } finally {
+                parsing.forEach(chunk -> chunk.cancel(false));
+            }
+        }
+    }
+
+    private static ParsedChunk await(Future<ParsedChunk> chunk) throws IOException, InterruptedException {
+        try {
+            return chunk.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static int read(FileChannel channel, byte[] buffer, long position) throws IOException {
+        ByteBuffer target = ByteBuffer.wrap(buffer);
+        while (target.hasRemaining()) {
+            int read = channel.read(target, position + target.position());
+            if (read < 0) {
+                break;
+            }
+        }
+        return target.position();
+    }
+
+    /**
+     * Length of the chunk up to and including its last newline, 0 if it has none
+     */
+    private static int lastLineEnd(byte[] buffer, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Bars waiting to be committed, gathered per symbol in file order
+     */
+    private class Writer {
+        private final Map<String, Columns> pending = new LinkedHashMap<>();
+        private final CommitListener listener;
+        private long committed;
+        private long written;
+        private long rejected;
+
+        Writer(long start, CommitListener listener) {
+            this.committed = start;
+            this.written = start;
+            this.listener = listener;
+        }
+
+        void write(ParsedChunk chunk) {
+            chunk.symbols.forEach((symbol, columns) ->
+                    pending.computeIfAbsent(symbol, s -> new Columns(columns.size)).addAll(columns));
+            rejected += chunk.rejected;
+            written = chunk.end;
+            if (written - committed >= commitBytes) {
+                commit();
+            }
+        }
+
+        void commit() {
+            long stored = 0;
+            long skipped = 0;
+            for (Map.Entry<String, Columns> entry : pending.entrySet()) {
+                Columns columns = entry.getValue();
+                int kept = columns.keepAfter(barStore.lastRealTimestamp(entry.getKey()));
+                skipped += columns.size - kept;
+                if (kept > 0) {
+                    barStore.append(columns.toSeries(entry.getKey(), kept));
+                    stored += kept;
+                }
+            }
+            pending.clear();
+            committed = written;
+            listener.onCommit(committed, stored, skipped, rejected);
+            rejected = 0;
+        }
+    }
+
+    /**
+     * Growable bar columns for one symbol
+     */
+    private static class Columns {
+        long[] timestamps;
+        double[] open;
+        double[] high;
+        double[] low;
+        double[] close;
+        long[] volume;
+        int size;
+
+        Columns(int capacity) {
+            capacity = Math.max(capacity, 16);
+            timestamps = new long[capacity];
+            open = new double[capacity];
+            high = new double[capacity];
+            low = new double[capacity];
+            close = new double[capacity];
+            volume = new long[capacity];
+        }
+
+        void add(long timestamp, double o, double h, double l, double c, long v) {
+            if (size == timestamps.length) {
+                grow(size * 2);
+            }
+            timestamps[size] = timestamp;
+            open[size] = o;
+            high[size] = h;
+            low[size] = l;
+            close[size] = c;
+            volume[size] = v;
+            size++;
+        }
+
+        void addAll(Columns other) {
+            if (size + other.size > timestamps.length) {
+                grow(Math.max(timestamps.length * 2, size + other.size));
+            }
+            System.arraycopy(other.timestamps, 0, timestamps, size, other.size);
+            System.arraycopy(other.open, 0, open, size, other.size);
+            System.arraycopy(other.high, 0, high, size, other.size);
+            System.arraycopy(other.low, 0, low, size, other.size);
+            System.arraycopy(other.close, 0, close, size, other.size);
+            System.arraycopy(other.volume, 0, volume, size, other.size);
+            size += other.size;
+        }
+
+        /**
+         * Keep, in place, only the rows that extend the series past the given
+         * timestamp in increasing time order; returns how many are left
+         */
+        int keepAfter(long last) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (timestamps[i] > last) {
+                    last = timestamps[i];
+                    timestamps[kept] = timestamps[i];
+                    open[kept] = open[i];
+                    high[kept] = high[i];
+                    low[kept] = low[i];
+                    close[kept] = close[i];
+                    volume[kept] = volume[i];
+                    kept++;
+                }
+            }
+            return kept;
+        }
+
+        BarSeries toSeries(String symbol, int length) {
+            return new BarSeries(symbol, Arrays.copyOf(timestamps, length), Arrays.copyOf(open, length),
+                    Arrays.copyOf(high, length), Arrays.copyOf(low, length), Arrays.copyOf(close, length),
+                    Arrays.copyOf(volume, length));
+        }
+
+        private void grow(int capacity) {
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            open = Arrays.copyOf(open, capacity);
+            high = Arrays.copyOf(high, capacity);
+            low = Arrays.copyOf(low, capacity);
+            close = Arrays.copyOf(close, capacity);
+            volume = Arrays.copyOf(volume, capacity);
+        }
+    }
+
+    private static class ParsedChunk {
+        final Map<String, Columns> symbols = new LinkedHashMap<>();
+        final long end;
+        long rejected;
+
+        ParsedChunk(long end) {
+            this.end = end;
+        }
+    }
+
+    /**
+     * Column positions from the header line; -1 for columns the file lacks
+     */
+    private static class Header {
+        byte delimiter;
+        int length;
+        int fields;
+        int symbol = -1;
+        int timestamp = -1;
+        int date = -1;
+        int time = -1;
+        int open = -1;
+        int high = -1;
+        int low = -1;
+        int close = -1;
+        int volume = -1;
+        String defaultSymbol;
+    }
+
+    private static Header readHeader(FileChannel channel, String defaultSymbol) throws IOException {
+        byte[] bytes = new byte[(int) Math.min(MAX_HEADER_BYTES, channel.size())];
+        int read = read(channel, bytes, 0);
+        int end = 0;
+        while (end < read && bytes[end] != '\n') {
+            end++;
+        }
+        if (end == read && read == MAX_HEADER_BYTES) {
+            throw new IllegalArgumentException("CSV header is longer than " + MAX_HEADER_BYTES + " bytes");
+        }
+        String line = new String(bytes, 0, end, StandardCharsets.UTF_8).replace("\r", "").replace("\uFEFF", "");
+
+        Header header = new Header();
+        header.length = Math.min(end + 1, read);
+        header.delimiter = ',';
+        for (char candidate : new char[] {',', ';', '\t', '|'}) {
+            if (line.indexOf(candidate) >= 0) {
+                header.delimiter = (byte) candidate;
+                break;
+            }
+        }
+        String[] names = line.split(Pattern.quote(String.valueOf((char) header.delimiter)), -1);
+        header.fields = names.length;
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i].trim().replace("\"", "").toLowerCase();
+            switch (name) {
+                case "symbol", "ticker" -> header.symbol = i;
+                case "timestamp", "datetime" -> header.timestamp = i;
+                case "date" -> header.date = i;
+                case "time" -> header.time = i;
+                case "open" -> header.open = i;
+                case "high" -> header.high = i;
+                case "low" -> header.low = i;
+                case "close" -> header.close = i;
+                case "volume" -> header.volume = i;
+                default -> { }
+            }
+        }
+        if (header.timestamp < 0) {
+            header.timestamp = header.date;
+        } else {
+            header.time = -1;
+        }
+        if (header.timestamp < 0 || header.open < 0 || header.high < 0 || header.low < 0 || header.close < 0) {
+            throw new IllegalArgumentException("CSV header needs timestamp (or date), open, high, low and close columns");
+        }
+        if (header.symbol < 0 && (defaultSymbol == null || defaultSymbol.isBlank())) {
+            throw new IllegalArgumentException("CSV has no symbol column, so a symbol must be given");
+        }
+        header.defaultSymbol = defaultSymbol;
+        return header;
+    }
+
+    private static ParsedChunk parse(byte[] bytes, int length, Header header, long end) {
+        ParsedChunk chunk = new ParsedChunk(end);
+        int[] starts = new int[header.fields];
+        int[] ends = new int[header.fields];
+        Columns target = header.symbol < 0
+                ? chunk.symbols.computeIfAbsent(header.defaultSymbol, s -> new Columns(length / 48)) : null;
+        int symbolStart = 0;
+        int symbolLength = -1;
+
+        int line = 0;
+        while (line < length) {
+            int lineEnd = line;
+            while (lineEnd < length && bytes[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int next = lineEnd + 1;
+            if (lineEnd > line && bytes[lineEnd - 1] == '\r') {
+                lineEnd--;
+            }
+            if (lineEnd == line) {
+                line = next;
+                continue;
+            }
+
+            try {
+                if (split(bytes, line, lineEnd, header.delimiter, starts, ends) < header.fields) {
+                    throw new NumberFormatException("Missing fields");
+                }
+                long timestamp = parseTimestamp(bytes, starts[header.timestamp], ends[header.timestamp]);
+                if (header.time >= 0 && ends[header.time] > starts[header.time]) {
+                    timestamp += parseTimeOfDay(bytes, starts[header.time], ends[header.time]);
+                }
+                double open = parseDouble(bytes, starts[header.open], ends[header.open]);
+                double high = parseDouble(bytes, starts[header.high], ends[header.high]);
+                double low = parseDouble(bytes, starts[header.low], ends[header.low]);
+                double close = parseDouble(bytes, starts[header.close], ends[header.close]);
+                long volume = header.volume >= 0 ? parseVolume(bytes, starts[header.volume], ends[header.volume]) : 0;
+
+                if (header.symbol >= 0) {
+                    int start = starts[header.symbol];
+                    int size = ends[header.symbol] - start;
+                    if (size == 0) {
+                        throw new NumberFormatException("Missing symbol");
+                    }
+                    // Rows usually repeat the previous symbol, so only a change costs a lookup
+                    if (size != symbolLength || !Arrays.equals(bytes, start, start + size,
+                            bytes, symbolStart, symbolStart + symbolLength)) {
+                        String symbol = new String(bytes, start, size, StandardCharsets.UTF_8);
+                        target = chunk.symbols.computeIfAbsent(symbol, s -> new Columns(64));
+                        symbolStart = start;
+                        symbolLength = size;
+                    }
+                }
+                target.add(timestamp, open, high, low, close, volume);
+            } catch (NumberFormatException e) {
+                chunk.rejected++;
+            }
+            line = next;
+        }
+        return chunk;
+    }
+
+    /**
+     * Record each field's bounds, without surrounding spaces and quotes; returns
+     * the number of fields found, up to starts.length
+     */
+    private static int split(byte[] bytes, int from, int to, byte delimiter, int[] starts, int[] ends) {
+        int field = 0;
+        int start = from;
+        for (int i = from; i <= to && field < starts.length; i++) {
+            if (i == to || bytes[i] == delimiter) {
+                int s = start;
+                int e = i;
+                while (s < e && bytes[s] == ' ') {
+                    s++;
+                }
+                while (e > s && bytes[e - 1] == ' ') {
+                    e--;
+                }
+                if (e - s >= 2 && bytes[s] == '"' && bytes[e - 1] == '"') {
+                    s++;
+                    e--;
+                }
+                starts[field] = s;
+                ends[field] = e;
+                field++;
+                start = i + 1;
+            }
+        }
+        return field;
+    }
+
+    /**
+     * Plain decimals of up to 15 significant digits are exact as a long over a
+     * power of ten, and one division rounds them correctly; anything else goes
+     * through Double.parseDouble
+     */
+    static double parseDouble(byte[] bytes, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (bytes[i] == '-' || bytes[i] == '+')) {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int significant = 0;
+        int scale = 0;
+        boolean point = false;
+        boolean digits = false;
+        for (; i < to; i++) {
+            byte b = bytes[i];
+            if (b >= '0' && b <= '9') {
+                digits = true;
+                mantissa = mantissa * 10 + (b - '0');
+                if (mantissa != 0 && ++significant > 15) {
+                    return slowParseDouble(bytes, from, to);
+                }
+                if (point && ++scale > 22) {
+                    return slowParseDouble(bytes, from, to);
+                }
+            } else if (b == '.' && !point) {
+                point = true;
+            } else {
+                return slowParseDouble(bytes, from, to);
+            }
+        }
+        if (!digits) {
+            throw new NumberFormatException("Not a number");
+        }
+        double value = scale == 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    private static double slowParseDouble(byte[] bytes, int from, int to) {
+        return Double.parseDouble(new String(bytes, from, to - from, StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Whole volumes; fractional ones are rounded and an empty field is 0
+     */
+    private static long parseVolume(byte[] bytes, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            byte b = bytes[i];
+            if (b < '0' || b > '9' || i - from >= 18) {
+                return Math.round(parseDouble(bytes, from, to));
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    static long parseTimestamp(byte[] bytes, int from, int to) {
+        int length = to - from;
+        if (length > 0 && length != 8 && allDigits(bytes, from, to)) {
+            long value = parseDigits(bytes, from, to);
+            // Up to 10 digits is seconds, which reach the year 2286
+            return length <= 10 ? value * 1000 : value;
+        }
+
+        int year;
+        int month;
+        int day;
+        int i;
+        if (length >= 8 && allDigits(bytes, from, from + 8)) {
+            year = (int) parseDigits(bytes, from, from + 4);
+            month = (int) parseDigits(bytes, from + 4, from + 6);
+            day = (int) parseDigits(bytes, from + 6, from + 8);
+            i = from + 8;
+        } else if (length >= 10 && (bytes[from + 4] == '-' || bytes[from + 4] == '/')
+                && bytes[from + 7] == bytes[from + 4]
+                && allDigits(bytes, from, from + 4) && allDigits(bytes, from + 5, from + 7)
+                && allDigits(bytes, from + 8, from + 10)) {
+            year = (int) parseDigits(bytes, from, from + 4);
+            month = (int) parseDigits(bytes, from + 5, from + 7);
+            day = (int) parseDigits(bytes, from + 8, from + 10);
+            i = from + 10;
+        } else {
+            throw new NumberFormatException("Unrecognised timestamp");
+        }
+        if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+            throw new NumberFormatException("Invalid date");
+        }
+
+        long timestamp = epochDay(year, month, day) * MILLIS_PER_DAY;
+        if (i < to) {
+            if (bytes[i] != 'T' && bytes[i] != ' ') {
+                throw new NumberFormatException("Unrecognised timestamp");
+            }
+            timestamp += parseTimeOfDay(bytes, i + 1, to);
+        }
+        return timestamp;
+    }
+
+    /**
+     * HH:mm[:ss[.SSS]] with an optional Z or +HH:mm / -HH:mm offset, in milliseconds
+     * from the start of the UTC day
+     */
+    private static long parseTimeOfDay(byte[] bytes, int from, int to) {
+        if (to - from < 5 || bytes[from + 2] != ':' || !allDigits(bytes, from, from + 2)
+                || !allDigits(bytes, from + 3, from + 5)) {
+            throw new NumberFormatException("Unrecognised time");
+        }
+        long millis = parseDigits(bytes, from, from + 2) * 3_600_000 + parseDigits(bytes, from + 3, from + 5) * 60_000;
+        int i = from + 5;
+        if (i + 3 <= to && bytes[i] == ':' && allDigits(bytes, i + 1, i + 3)) {
+            millis += parseDigits(bytes, i + 1, i + 3) * 1000;
+            i += 3;
+            if (i < to && bytes[i] == '.') {
+                int start = ++i;
+                while (i < to && bytes[i] >= '0' && bytes[i] <= '9') {
+                    i++;
+                }
+                int digits = Math.min(i - start, 3);
+                if (digits == 0) {
+                    throw new NumberFormatException("Unrecognised time");
+                }
+                long fraction = parseDigits(bytes, start, start + digits);
+                for (int d = digits; d < 3; d++) {
+                    fraction *= 10;
+                }
+                millis += fraction;
+            }
+        }
+        if (i < to) {
+            if (bytes[i] == 'Z' && i + 1 == to) {
+                return millis;
+            }
+            if ((bytes[i] == '+' || bytes[i] == '-') && to - i == 6 && bytes[i + 3] == ':'
+                    && allDigits(bytes, i + 1, i + 3) && allDigits(bytes, i + 4, i + 6)) {
+                long offset = parseDigits(bytes, i + 1, i + 3) * 3_600_000 + parseDigits(bytes, i + 4, i + 6) * 60_000;
+                return bytes[i] == '+' ? millis - offset : millis + offset;
+            }
+            throw new NumberFormatException("Unrecognised time");
+        }
+        return millis;
+    }
+
+    private static boolean allDigits(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] < '0' || bytes[i] > '9') {
+                return false;
+            }
+        }
+        return from < to;
+    }
+
+    private static long parseDigits(byte[] bytes, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            value = value * 10 + (bytes[i] - '0');
+        }
+        return value;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    /**
+     * Days since 1970-01-01 of a proleptic Gregorian date
+     */
+    private static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+}
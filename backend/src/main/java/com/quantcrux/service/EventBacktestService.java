@@ -0,0 +1,142 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.BacktestResult;
+import com.quantcrux.dto.EventBacktestRequest;
+import com.quantcrux.model.Strategy;
+import com.quantcrux.repository.StrategyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs a strategy's rules through the event-driven engine, with orders and costs.
+ *
+ * A rule signal on a bar's close becomes a market order for the next bar. Each
+ * entry gets positionSize of equity split over the symbols, and once it fills
+ * the stop loss and take profit rest as a one-cancels-other stop and limit pair.
+ */
+@Service
+public class EventBacktestService {
+
+    @Autowired
+    private MarketDataService marketDataService;
+
+    @Autowired
+    private StrategyRepository strategyRepository;
+
+    @Autowired
+    private StrategyCompiler strategyCompiler;
+
+    public BacktestResult runBacktest(EventBacktestRequest request) {
+        List<String> symbols = request.getSymbols();
+        if (symbols == null || symbols.isEmpty()) {
+            Strategy strategy = strategyRepository.findById(request.getStrategyId())
+                    .orElseThrow(() -> new RuntimeException("Strategy not found"));
+            symbols = strategy.getAssetList();
+        }
+        if (symbols == null || symbols.isEmpty()) {
+            throw new IllegalArgumentException("No assets to backtest");
+        }
+
+        CompiledStrategy strategy = strategyCompiler.getCompiledStrategy(request.getStrategyId());
+        LocalDate from = LocalDate.parse(request.getStartDate());
+        LocalDate to = LocalDate.parse(request.getEndDate());
+        List<BarSeries> series = new ArrayList<>();
+        for (String symbol : new LinkedHashSet<>(symbols)) {
+            series.add(marketDataService.getBars(symbol, from, to));
+        }
+        return runBacktest(request, strategy, series);
+    }
+
+    public BacktestResult runBacktest(EventBacktestRequest request, CompiledStrategy strategy, List<BarSeries> series) {
+        EventDrivenEngine.Costs costs = new EventDrivenEngine.Costs(
+                valueOr(request.getSlippageBps()), valueOr(request.getCommissionPerShare()),
+                valueOr(request.getCommissionRate()));
+        EventDrivenEngine engine = new EventDrivenEngine(series, request.getInitialCapital(), costs);
+        engine.run(new RuleHandler(strategy, series));
+        if (engine.getEventCount() == 0) {
+            throw new IllegalArgumentException("No market data for the requested period");
+        }
+
+        Map<String, Object> results = engine.getMetrics().toMap();
+        results.put("strategy_id", strategy.getStrategyId());
+        results.put("strategy_version", strategy.getVersionNumber());
+        results.put("mode", "event_driven");
+        results.put("events", engine.getEventCount());
+        results.put("orders", engine.getOrdersSubmitted());
+        results.put("fills", engine.getFillCount());
+        results.put("commission", engine.getCommissionPaid());
+        results.put("slippage", engine.getSlippageCost());
+        return new BacktestResult(results, engine.getEquityCurve());
+    }
+
+    private static double valueOr(Double value) {
+        return value != null ? value : 0;
+    }
+
+    /**
+     * The compiled entry and exit rules, evaluated on each symbol's own indicators
+     */
+    private static class RuleHandler implements EventDrivenEngine.EventHandler {
+        private final CompiledStrategy strategy;
+        private final TechnicalIndicators.Series[] indicators;
+        private final boolean[] entryPending;
+        private final boolean[] exitPending;
+
+        RuleHandler(CompiledStrategy strategy, List<BarSeries> series) {
+            this.strategy = strategy;
+            indicators = new TechnicalIndicators.Series[series.size()];
+            for (int s = 0; s < indicators.length; s++) {
+                indicators[s] = strategy.computeIndicators(series.get(s).close());
+            }
+            entryPending = new boolean[indicators.length];
+            exitPending = new boolean[indicators.length];
+        }
+
+        @Override
+        public void onBar(EventDrivenEngine.BarEvent bar, EventDrivenEngine engine) {
+            int s = bar.symbol();
+            double position = engine.position(s);
+            if (position == 0) {
+                if (!entryPending[s] && strategy.getEntryRule().test(indicators[s], bar.bar())) {
+                    // Sized at the signal close; the fill comes at the next open
+                    double budget = Math.min(engine.equity() * strategy.getPositionSize() / indicators.length,
+                            engine.cash());
+                    if (budget > 0) {
+                        engine.submitMarket(s, EventDrivenEngine.Side.BUY, budget / bar.close());
+                        entryPending[s] = true;
+                    }
+                }
+            } else if (!exitPending[s] && strategy.getExitRule().test(indicators[s], bar.bar())) {
+                engine.cancelAll(s);
+                engine.submitMarket(s, EventDrivenEngine.Side.SELL, position);
+                exitPending[s] = true;
+            }
+        }
+
+        @Override
+        public void onFill(EventDrivenEngine.Fill fill, EventDrivenEngine engine) {
+            int s = fill.symbol();
+            if (fill.side() == EventDrivenEngine.Side.BUY) {
+                entryPending[s] = false;
+                long group = engine.newGroup();
+                if (strategy.getStopLoss() > 0) {
+                    engine.submit(s, EventDrivenEngine.Side.SELL, EventDrivenEngine.OrderType.STOP,
+                            fill.quantity(), fill.price() * (1 - strategy.getStopLoss()), group);
+                }
+                if (strategy.getTakeProfit() > 0) {
+                    engine.submit(s, EventDrivenEngine.Side.SELL, EventDrivenEngine.OrderType.LIMIT,
+                            fill.quantity(), fill.price() * (1 + strategy.getTakeProfit()), group);
+                }
+            } else if (engine.position(s) == 0) {
+                exitPending[s] = false;
+                engine.cancelAll(s);
+            }
+        }
+    }
+}
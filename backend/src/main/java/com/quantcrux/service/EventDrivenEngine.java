@@ -0,0 +1,561 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.EquityCurve;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Event-driven backtest over the bars of any number of symbols, at any frequency.
+ *
+ * The symbols' bar series are merged into one time-ordered stream through a binary
+ * heap of series cursors (ties go to the earlier series). For each bar the engine
+ * first fills that symbol's resting orders against the bar, then hands the bar to
+ * the handler, which may submit market, limit and stop orders. An order is only
+ * eligible for bars that start after the bar it was submitted on, so a decision
+ * made on a close never trades on that bar.
+ *
+ * Fills: market orders at the bar's open; limit orders at the open if it is
+ * already through the limit, else at the limit if the bar reaches it; stop orders
+ * likewise at the open or the stop. Market and stop fills pay slippage, and every
+ * fill pays commission. Orders fill in full and cash may go negative; sizing is
+ * left to the handler.
+ *
+ * The core is single-threaded and allocation-free once running: bar events are
+ * one reused object per symbol, fills one reused object, and orders come from a
+ * free list that only grows to the most orders ever resting at once.
+ */
+public class EventDrivenEngine {
+
+    public enum Side { BUY, SELL }
+
+    public enum OrderType { MARKET, LIMIT, STOP }
+
+    /**
+     * Strategy callbacks, called on the engine's thread. The event objects are
+     * reused, so read them during the call rather than keeping them.
+     */
+    public interface EventHandler {
+        void onBar(BarEvent bar, EventDrivenEngine engine);
+
+        default void onFill(Fill fill, EventDrivenEngine engine) {
+        }
+    }
+
+    /**
+     * Slippage in basis points of the fill price, and commission per share plus a fraction of notional
+     */
+    public static class Costs {
+        public static final Costs NONE = new Costs(0, 0, 0);
+
+        private final double slippage;
+        private final double commissionPerShare;
+        private final double commissionRate;
+
+        public Costs(double slippageBps, double commissionPerShare, double commissionRate) {
+            if (slippageBps < 0 || commissionPerShare < 0 || commissionRate < 0) {
+                throw new IllegalArgumentException("Slippage and commission may not be negative");
+            }
+            this.slippage = slippageBps / 10_000;
+            this.commissionPerShare = commissionPerShare;
+            this.commissionRate = commissionRate;
+        }
+    }
+
+    /**
+     * One bar of one symbol
+     */
+    public static final class BarEvent {
+        private int symbol;
+        private int bar;
+        private long timestamp;
+        private double open;
+        private double high;
+        private double low;
+        private double close;
+        private long volume;
+
+        /**
+         * Index of the symbol's series in the engine
+         */
+        public int symbol() { return symbol; }
+
+        /**
+         * Index of the bar within its series
+         */
+        public int bar() { return bar; }
+
+        public long timestamp() { return timestamp; }
+
+        public double open() { return open; }
+
+        public double high() { return high; }
+
+        public double low() { return low; }
+
+        public double close() { return close; }
+
+        public long volume() { return volume; }
+    }
+
+    /**
+     * An executed order
+     */
+    public static final class Fill {
+        private int orderId;
+        private int symbol;
+        private Side side;
+        private OrderType type;
+        private double quantity;
+        private double price;
+        private double commission;
+        private long timestamp;
+
+        public int orderId() { return orderId; }
+
+        public int symbol() { return symbol; }
+
+        public Side side() { return side; }
+
+        public OrderType type() { return type; }
+
+        public double quantity() { return quantity; }
+
+        /**
+         * Price including slippage
+         */
+        public double price() { return price; }
+
+        public double commission() { return commission; }
+
+        public long timestamp() { return timestamp; }
+    }
+
+    private static final class Order {
+        int id;
+        Side side;
+        OrderType type;
+        double quantity;
+        double price;
+        long group;
+        // Timestamp of the bar it was submitted on
+        long after;
+        boolean active;
+        Order next;
+    }
+
+    private final BarSeries[] series;
+    private final double initialCapital;
+    private final Costs costs;
+
+    // Merge heap of series indices, keyed by the timestamp at each series' cursor
+    private final int[] heap;
+    private int heapSize;
+    private final int[] cursor;
+    private final BarEvent[] events;
+    private final Fill fill = new Fill();
+
+    // Resting orders per symbol in submission order; cancelled ones are unlinked on the symbol's next bar
+    private final Order[] pendingHead;
+    private final Order[] pendingTail;
+    private Order freeOrders;
+    private int nextOrderId;
+    private long nextGroup;
+
+    private double cash;
+    private final double[] position;
+    private final double[] averageCost;
+    private final double[] lastPrice;
+    private final double[] tradePnl;
+    private long now = Long.MIN_VALUE;
+
+    private final BacktestService.PerformanceTracker performance;
+    private final int[] curveDates;
+    private final double[] curveValues;
+    private int curveSize;
+
+    private long eventCount;
+    private int ordersSubmitted;
+    private int fillCount;
+    private int totalTrades;
+    private int profitableTrades;
+    private double commissionPaid;
+    private double slippageCost;
+    private boolean ran;
+
+    public EventDrivenEngine(List<BarSeries> series, double initialCapital, Costs costs) {
+        if (series.isEmpty()) {
+            throw new IllegalArgumentException("No bar series to backtest");
+        }
+        this.series = series.toArray(new BarSeries[0]);
+        this.initialCapital = initialCapital;
+        this.costs = costs;
+        int symbols = this.series.length;
+
+        heap = new int[symbols];
+        cursor = new int[symbols];
+        events = new BarEvent[symbols];
+        pendingHead = new Order[symbols];
+        pendingTail = new Order[symbols];
+        position = new double[symbols];
+        averageCost = new double[symbols];
+        lastPrice = new double[symbols];
+        tradePnl = new double[symbols];
+        Arrays.fill(lastPrice, Double.NaN);
+
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (int s = 0; s < symbols; s++) {
+            events[s] = new BarEvent();
+            events[s].symbol = s;
+            long[] timestamps = this.series[s].timestamps();
+            if (timestamps.length > 0) {
+                first = Math.min(first, timestamps[0]);
+                last = Math.max(last, timestamps[timestamps.length - 1]);
+            }
+        }
+
+        // One equity point per day, sized up front so the run never grows it
+        int days = first <= last ? BarSeries.epochDay(last) - BarSeries.epochDay(first) + 1 : 0;
+        curveDates = new int[days];
+        curveValues = new double[days];
+        cash = initialCapital;
+        performance = new BacktestService.PerformanceTracker(initialCapital);
+    }
+
+    /**
+     * Replay every bar through the handler. An engine runs once.
+     */
+    public void run(EventHandler handler) {
+        if (ran) {
+            throw new IllegalStateException("The engine has already run");
+        }
+        ran = true;
+
+        for (int s = 0; s < series.length; s++) {
+            if (series[s].barCount() > 0) {
+                heap[heapSize++] = s;
+            }
+        }
+        for (int i = heapSize / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+
+        int day = Integer.MIN_VALUE;
+        while (heapSize > 0) {
+            int s = heap[0];
+            int i = cursor[s];
+            BarSeries bars = series[s];
+            long timestamp = bars.timestamps()[i];
+
+            int barDay = BarSeries.epochDay(timestamp);
+            if (barDay != day) {
+                if (day != Integer.MIN_VALUE) {
+                    recordDay(day);
+                }
+                day = barDay;
+            }
+
+            BarEvent event = events[s];
+            event.bar = i;
+            event.timestamp = timestamp;
+            event.open = bars.open()[i];
+            event.high = bars.high()[i];
+            event.low = bars.low()[i];
+            event.close = bars.close()[i];
+            event.volume = bars.volume()[i];
+
+            now = timestamp;
+            if (pendingHead[s] != null) {
+                fillOrders(s, event, handler);
+            }
+            lastPrice[s] = event.close;
+            handler.onBar(event, this);
+            eventCount++;
+
+            if (++cursor[s] == bars.barCount()) {
+                heap[0] = heap[--heapSize];
+            }
+            siftDown(0);
+        }
+        if (day != Integer.MIN_VALUE) {
+            recordDay(day);
+        }
+    }
+
+    /**
+     * Queue an order for the symbol; price is the limit or stop price and is
+     * ignored for market orders. Orders sharing a non-zero group are
+     * one-cancels-other: the first to fill cancels the rest. Returns the order id.
+     */
+    public int submit(int symbol, Side side, OrderType type, double quantity, double price, long group) {
+        if (!(quantity > 0) || Double.isInfinite(quantity)) {
+            throw new IllegalArgumentException("Order quantity must be positive, got " + quantity);
+        }
+        if (type != OrderType.MARKET && !(price > 0)) {
+            throw new IllegalArgumentException(type + " orders need a positive price, got " + price);
+        }
+
+        Order order = freeOrders;
+        if (order != null) {
+            freeOrders = order.next;
+        } else {
+            order = new Order();
+        }
+        order.id = ++nextOrderId;
+        order.side = side;
+        order.type = type;
+        order.quantity = quantity;
+        order.price = price;
+        order.group = group;
+        order.after = now;
+        order.active = true;
+        order.next = null;
+
+        if (pendingTail[symbol] == null) {
+            pendingHead[symbol] = order;
+        } else {
+            pendingTail[symbol].next = order;
+        }
+        pendingTail[symbol] = order;
+        ordersSubmitted++;
+        return order.id;
+    }
+
+    public int submitMarket(int symbol, Side side, double quantity) {
+        return submit(symbol, side, OrderType.MARKET, quantity, Double.NaN, 0);
+    }
+
+    /**
+     * A fresh one-cancels-other group id
+     */
+    public long newGroup() {
+        return ++nextGroup;
+    }
+
+    /**
+     * Cancel every resting order for the symbol
+     */
+    public void cancelAll(int symbol) {
+        for (Order order = pendingHead[symbol]; order != null; order = order.next) {
+            order.active = false;
+        }
+    }
+
+    public double position(int symbol) { return position[symbol]; }
+
+    /**
+     * Average price paid for the current position, including slippage
+     */
+    public double averageCost(int symbol) { return averageCost[symbol]; }
+
+    /**
+     * Latest close of the symbol, NaN before its first bar
+     */
+    public double lastPrice(int symbol) { return lastPrice[symbol]; }
+
+    public double cash() { return cash; }
+
+    /**
+     * Cash plus every position at its latest close
+     */
+    public double equity() {
+        double equity = cash;
+        for (int s = 0; s < position.length; s++) {
+            if (position[s] != 0) {
+                equity += position[s] * lastPrice[s];
+            }
+        }
+        return equity;
+    }
+
+    public int symbolCount() { return series.length; }
+
+    public String symbol(int symbol) { return series[symbol].symbol(); }
+
+    public long getEventCount() { return eventCount; }
+
+    public int getOrdersSubmitted() { return ordersSubmitted; }
+
+    public int getFillCount() { return fillCount; }
+
+    public double getCommissionPaid() { return commissionPaid; }
+
+    /**
+     * What slippage cost over filling at the trigger prices
+     */
+    public double getSlippageCost() { return slippageCost; }
+
+    /**
+     * Statistics of the run so far; a trade runs from flat back to flat and is
+     * profitable if it made money after costs
+     */
+    public BacktestService.Metrics getMetrics() {
+        return performance.metrics(initialCapital, equity(), totalTrades, profitableTrades);
+    }
+
+    /**
+     * Equity at the end of each day with bars
+     */
+    public EquityCurve getEquityCurve() {
+        return new EquityCurve(Arrays.copyOf(curveDates, curveSize), Arrays.copyOf(curveValues, curveSize));
+    }
+
+    private void fillOrders(int symbol, BarEvent bar, EventHandler handler) {
+        Order previous = null;
+        Order order = pendingHead[symbol];
+        while (order != null) {
+            if (order.active && bar.timestamp > order.after) {
+                double trigger = triggerPrice(order, bar);
+                if (!Double.isNaN(trigger)) {
+                    order.active = false;
+                    execute(symbol, order, trigger, handler);
+                }
+            }
+            // Read after execute: the handler may have queued more orders behind this one
+            Order next = order.next;
+            if (order.active) {
+                previous = order;
+            } else {
+                if (previous == null) {
+                    pendingHead[symbol] = next;
+                } else {
+                    previous.next = next;
+                }
+                if (pendingTail[symbol] == order) {
+                    pendingTail[symbol] = previous;
+                }
+                order.next = freeOrders;
+                freeOrders = order;
+            }
+            order = next;
+        }
+    }
+
+    /**
+     * Price the order fills at on this bar before slippage, or NaN if it does not fill
+     */
+    private static double triggerPrice(Order order, BarEvent bar) {
+        boolean buy = order.side == Side.BUY;
+        double price = order.price;
+        switch (order.type) {
+            case MARKET:
+                return bar.open;
+            case LIMIT:
+                if (buy) {
+                    return bar.open <= price ? bar.open : bar.low <= price ? price : Double.NaN;
+                }
+                return bar.open >= price ? bar.open : bar.high >= price ? price : Double.NaN;
+            default:
+                if (buy) {
+                    return bar.open >= price ? bar.open : bar.high >= price ? price : Double.NaN;
+                }
+                return bar.open <= price ? bar.open : bar.low <= price ? price : Double.NaN;
+        }
+    }
+
+    private void execute(int symbol, Order order, double trigger, EventHandler handler) {
+        boolean buy = order.side == Side.BUY;
+        double quantity = order.quantity;
+        double price = trigger;
+        if (order.type != OrderType.LIMIT && costs.slippage > 0) {
+            // Market and stop orders cross the spread; limits fill at their price or better
+            price = buy ? trigger * (1 + costs.slippage) : trigger * (1 - costs.slippage);
+            slippageCost += Math.abs(price - trigger) * quantity;
+        }
+        double commission = quantity * (costs.commissionPerShare + price * costs.commissionRate);
+        double signed = buy ? quantity : -quantity;
+        cash -= signed * price + commission;
+        commissionPaid += commission;
+        fillCount++;
+
+        // Split the fill into the part that closes the current trade and the part that opens one
+        double held = position[symbol];
+        double closing = held != 0 && (held > 0) != buy ? Math.min(quantity, Math.abs(held)) : 0;
+        if (closing > 0 && quantity - closing <= 1e-9 * quantity) {
+            closing = quantity;
+        }
+        double opening = quantity - closing;
+        if (closing > 0) {
+            tradePnl[symbol] += (price - averageCost[symbol]) * (held > 0 ? closing : -closing)
+                    - commission * closing / quantity;
+            held += buy ? closing : -closing;
+            if (Math.abs(held) <= 1e-9 * quantity) {
+                held = 0;
+                if (tradePnl[symbol] > 0) {
+                    profitableTrades++;
+                }
+            }
+        }
+        if (opening > 0) {
+            if (held == 0) {
+                totalTrades++;
+                tradePnl[symbol] = 0;
+                averageCost[symbol] = price;
+            } else {
+                double size = Math.abs(held);
+                averageCost[symbol] = (averageCost[symbol] * size + price * opening) / (size + opening);
+            }
+            tradePnl[symbol] -= commission * opening / quantity;
+            held += buy ? opening : -opening;
+        }
+        position[symbol] = held;
+
+        if (order.group != 0) {
+            for (Order other = pendingHead[symbol]; other != null; other = other.next) {
+                if (other.group == order.group) {
+                    other.active = false;
+                }
+            }
+        }
+
+        fill.orderId = order.id;
+        fill.symbol = symbol;
+        fill.side = order.side;
+        fill.type = order.type;
+        fill.quantity = quantity;
+        fill.price = price;
+        fill.commission = commission;
+        fill.timestamp = now;
+        handler.onFill(fill, this);
+    }
+
+    private void recordDay(int day) {
+        double equity = equity();
+        performance.update(equity);
+        curveDates[curveSize] = day;
+        curveValues[curveSize] = equity;
+        curveSize++;
+    }
+
+    private void siftDown(int index) {
+        if (heapSize == 0) {
+            return;
+        }
+        int s = heap[index];
+        long key = series[s].timestamps()[cursor[s]];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            int c = heap[child];
+            long childKey = series[c].timestamps()[cursor[c]];
+            if (key < childKey || (key == childKey && s < c)) {
+                break;
+            }
+            heap[index] = c;
+            index = child;
+        }
+        heap[index] = s;
+    }
+
+    private boolean before(int a, int b) {
+        long keyA = series[a].timestamps()[cursor[a]];
+        long keyB = series[b].timestamps()[cursor[b]];
+        return keyA < keyB || (keyA == keyB && a < b);
+    }
+}
@@ -0,0 +1,73 @@
+package com.quantcrux.service;
+
+import java.util.SplittableRandom;
+
+/**
+ * Halton sequence with a Cranley-Patterson random shift per point set.
+ * Coordinates degrade in high dimensions, so prefer Sobol for long time grids.
+ */
+public class HaltonSampler implements ShockSampler {
+
+    public static final HaltonSampler INSTANCE = new HaltonSampler();
+
+    @Override
+    public PointSet create(int dimension, long seed) {
+        int[] bases = firstPrimes(dimension);
+        SplittableRandom rng = new SplittableRandom(seed);
+        double[] shifts = new double[dimension];
+        for (int j = 0; j < dimension; j++) {
+            shifts[j] = rng.nextDouble();
+        }
+
+        return (from, streamSeed) -> new Cursor() {
+            // Point 0 is the origin, so the sequence starts at 1
+            private long index = from + 1;
+
+            @Override
+            public void next(double[] normals) {
+                for (int j = 0; j < dimension; j++) {
+                    double u = radicalInverse(index, bases[j]) + shifts[j];
+                    if (u >= 1) {
+                        u -= 1;
+                    }
+                    normals[j] = ShockSampler.inverseNormal(Math.max(u, Double.MIN_NORMAL));
+                }
+                index++;
+            }
+        };
+    }
+
+    @Override
+    public boolean isQuasiRandom() {
+        return true;
+    }
+
+    private static double radicalInverse(long index, int base) {
+        double result = 0;
+        double factor = 1.0 / base;
+        while (index > 0) {
+            result += (index % base) * factor;
+            index /= base;
+            factor /= base;
+        }
+        return result;
+    }
+
+    private static int[] firstPrimes(int count) {
+        int[] primes = new int[count];
+        int found = 0;
+        for (int candidate = 2; found < count; candidate++) {
+            boolean prime = true;
+            for (int i = 0; i < found && primes[i] * primes[i] <= candidate; i++) {
+                if (candidate % primes[i] == 0) {
+                    prime = false;
+                    break;
+                }
+            }
+            if (prime) {
+                primes[found++] = candidate;
+            }
+        }
+        return primes;
+    }
+}
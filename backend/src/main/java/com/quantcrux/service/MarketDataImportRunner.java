@@ -0,0 +1,110 @@
+package com.quantcrux.service;
+
+import com.quantcrux.model.MarketDataImport;
+import com.quantcrux.repository.MarketDataImportRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Executes market data imports on the import executor, parsing on a pool of its own
+ */
+@Component
+public class MarketDataImportRunner {
+
+    @Autowired
+    private MarketDataImportRepository importRepository;
+
+    @Autowired
+    private BarStore barStore;
+
+    private final ExecutorService parsers;
+    private final int parseThreads;
+    private final int chunkBytes;
+    private final long commitBytes;
+
+    public MarketDataImportRunner(@Value("${market-data.import.parse-threads:0}") int parseThreads,
+                                  @Value("${market-data.import.chunk-bytes:4194304}") int chunkBytes,
+                                  @Value("${market-data.import.commit-bytes:67108864}") long commitBytes) {
+        this.parseThreads = parseThreads > 0 ? parseThreads : Runtime.getRuntime().availableProcessors();
+        this.parsers = Executors.newFixedThreadPool(this.parseThreads);
+        this.chunkBytes = chunkBytes;
+        this.commitBytes = commitBytes;
+    }
+
+    @Async("marketDataImportExecutor")
+    public void run(Long importId) {
+        MarketDataImport job = importRepository.findById(importId).orElse(null);
+        if (job == null) {
+            return;
+        }
+        try {
+            Path file = Paths.get(job.getPath());
+            if (Files.size(file) != job.getFileSize()) {
+                throw new IllegalStateException("File has changed since the import was submitted");
+            }
+            update(importId, stored -> {
+                stored.setStatus(MarketDataImport.ImportStatus.RUNNING);
+                if (stored.getStartedAt() == null) {
+                    stored.setStartedAt(LocalDateTime.now());
+                }
+            });
+
+            // Two chunks per parser keeps every parser busy while the writer catches up
+            CsvBarImporter importer = new CsvBarImporter(barStore, parsers, chunkBytes, parseThreads * 2, commitBytes);
+            importer.run(file, job.getCommittedOffset(), job.getSymbol(), (offset, bars, skipped, rejected) ->
+                    update(importId, stored -> {
+                        stored.setCommittedOffset(offset);
+                        stored.setBarsImported(stored.getBarsImported() + bars);
+                        stored.setRowsSkipped(stored.getRowsSkipped() + skipped);
+                        stored.setRowsRejected(stored.getRowsRejected() + rejected);
+                    }));
+            MarketDataImport imported = importRepository.findById(importId).orElseThrow();
+            if (imported.getBarsImported() == 0 && imported.getRowsSkipped() > 0) {
+                throw new IllegalStateException("No bars imported: all " + imported.getRowsSkipped()
+                        + " rows are at or before the last stored bar of their symbol");
+            }
+            update(importId, stored -> {
+                stored.setStatus(MarketDataImport.ImportStatus.COMPLETED);
+                stored.setCompletedAt(LocalDateTime.now());
+            });
+        } catch (Exception e) {
+            if (e instanceof InterruptedException || Thread.currentThread().isInterrupted()) {
+                // Shutting down; the import stays RUNNING and resumes at the next start
+                Thread.currentThread().interrupt();
+                return;
+            }
+            String message = "Import failed: " + e.getMessage();
+            // error_message is a plain VARCHAR(255)
+            String errorMessage = message.length() > 255 ? message.substring(0, 255) : message;
+            update(importId, stored -> {
+                stored.setStatus(MarketDataImport.ImportStatus.FAILED);
+                stored.setErrorMessage(errorMessage);
+                stored.setCompletedAt(LocalDateTime.now());
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        parsers.shutdownNow();
+    }
+
+    private void update(Long importId, Consumer<MarketDataImport> changes) {
+        importRepository.findById(importId).ifPresent(stored -> {
+            changes.accept(stored);
+            importRepository.save(stored);
+        });
+    }
+}
@@ -0,0 +1,134 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.MarketDataImportDTO;
+import com.quantcrux.dto.MarketDataImportRequest;
+import com.quantcrux.model.MarketDataImport;
+import com.quantcrux.model.User;
+import com.quantcrux.repository.MarketDataImportRepository;
+import com.quantcrux.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk loads of vendor CSV files from the import directory into the bar store.
+ *
+ * Each import is stored in market_data_imports with the offset up to which its
+ * file has been committed. Imports interrupted by a restart carry on from there
+ * once the server is up again, and failed ones can be resumed the same way.
+ */
+@Service
+public class MarketDataImportService {
+
+    @Autowired
+    private MarketDataImportRepository importRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MarketDataImportRunner importRunner;
+
+    @Value("${market-data.import.directory:data/imports}")
+    private String importDirectory;
+
+    public MarketDataImportDTO submit(MarketDataImportRequest request, String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        Path directory = Paths.get(importDirectory).toAbsolutePath().normalize();
+        Path file = directory.resolve(request.getFileName()).normalize();
+        if (!file.startsWith(directory)) {
+            throw new IllegalArgumentException("Import files must be inside the import directory");
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Import file not found: " + request.getFileName());
+        }
+
+        MarketDataImport job = new MarketDataImport();
+        job.setUser(user);
+        job.setFileName(request.getFileName());
+        job.setPath(file.toString());
+        job.setSymbol(request.getSymbol() != null && !request.getSymbol().isBlank() ? request.getSymbol().trim() : null);
+        try {
+            job.setFileSize(Files.size(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        job = importRepository.save(job);
+        start(job);
+        return new MarketDataImportDTO(job);
+    }
+
+    public List<MarketDataImportDTO> getImports() {
+        return importRepository.findAllByOrderByCreatedAtDesc().stream()
+                .map(MarketDataImportDTO::new)
+                .collect(Collectors.toList());
+    }
+
+    public MarketDataImportDTO getImport(Long importId) {
+        return new MarketDataImportDTO(getStoredImport(importId));
+    }
+
+    /**
+     * Queue a failed import again, to carry on from its committed offset
+     */
+    public MarketDataImportDTO resume(Long importId) {
+        MarketDataImport job = getStoredImport(importId);
+        if (job.getStatus() != MarketDataImport.ImportStatus.FAILED) {
+            throw new RuntimeException("Only failed imports can be resumed");
+        }
+        job.setStatus(MarketDataImport.ImportStatus.QUEUED);
+        job.setErrorMessage(null);
+        job.setCompletedAt(null);
+        job = importRepository.save(job);
+        start(job);
+        return new MarketDataImportDTO(job);
+    }
+
+    /**
+     * Imports that were queued or running when the server stopped pick up where
+     * they last committed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedImports() {
+        List<MarketDataImport> interrupted = importRepository.findByStatusIn(
+                List.of(MarketDataImport.ImportStatus.QUEUED, MarketDataImport.ImportStatus.RUNNING));
+        for (MarketDataImport job : interrupted) {
+            try {
+                start(job);
+            } catch (RuntimeException e) {
+                // Already marked failed; it can be resumed by hand
+            }
+        }
+    }
+
+    private void start(MarketDataImport job) {
+        try {
+            importRunner.run(job.getId());
+        } catch (TaskRejectedException e) {
+            job.setStatus(MarketDataImport.ImportStatus.FAILED);
+            job.setErrorMessage("Import queue is full");
+            job.setCompletedAt(LocalDateTime.now());
+            importRepository.save(job);
+            throw new RuntimeException("Import queue is full, try again later");
+        }
+    }
+
+    private MarketDataImport getStoredImport(Long importId) {
+        return importRepository.findById(importId)
+                .orElseThrow(() -> new RuntimeException("Import not found"));
+    }
+}
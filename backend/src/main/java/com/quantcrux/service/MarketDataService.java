@@ -1,46 +1,139 @@
 package com.quantcrux.service;
 
-import com.quantcrux.dto.MarketDataPoint;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
+/**
+ * Daily bars served from the BarStore. With no live feed, a symbol's history is
+ * seeded synthetically the first time it is asked for and extended up to today
+ * on later requests. Seeding covers at least seed-days, and a request reaching
+ * back before the synthetic history regenerates it from further back. Imported bars replace a synthetic history, and a
+ * symbol with imported bars is served as imported, without synthetic bars.
+ *
+ * Only the configured symbols, and symbols that already have a history in the
+ * store, can be read, and a request reaches at most max-days back from today.
+ */
 @Service
 public class MarketDataService {
 
-    public List<MarketDataPoint> getMarketData(String symbol, int days) {
-        List<MarketDataPoint> data = new ArrayList<>();
-        Random random = new Random(42); // Fixed seed for consistent data
-        
-        double basePrice = getBasePrice(symbol);
-        double currentPrice = basePrice;
-        
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    @Autowired
+    private BarStore barStore;
+
+    @Value("${market-data.store.seed-days:3650}")
+    private int seedDays;
+
+    @Value("${market-data.store.max-days:36500}")
+    private int maxDays;
+
+    @Value("${market-data.symbols:SPY,QQQ,AAPL,MSFT,GOOGL,TSLA,EUR/USD,GBP/USD,USD/JPY,NIFTY,SENSEX,BTC,ETH}")
+    private List<String> knownSymbols;
+
+    /**
+     * The last days of bars up to today, as views of the stored columns
+     */
+    public StoredBars getStoredBars(String symbol, int days) {
+        if (days < 1 || days > maxDays) {
+            throw new IllegalArgumentException("Days must be between 1 and " + maxDays);
+        }
+        LocalDate today = LocalDate.now();
+        return getStoredBars(symbol, today.minusDays(days - 1), today);
+    }
+
+    /**
+     * The bars dated from through to, as views of the stored columns. The start
+     * may lie at most max-days back from today.
+     */
+    public StoredBars getStoredBars(String symbol, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        LocalDate today = LocalDate.now();
+        long days = today.toEpochDay() - from.toEpochDay() + 1;
+        if (days > maxDays) {
+            throw new IllegalArgumentException("Start date must be within " + maxDays + " days of today");
+        }
+        if (symbol == null || !knownSymbols.contains(symbol) && !barStore.contains(symbol)) {
+            throw new IllegalArgumentException("Unknown symbol: " + symbol);
+        }
+        // Back to the start date, so a synthetic history covers the range
+        ensureHistory(symbol, today, (int) Math.max(1, days));
+        return barStore.read(symbol, from.toEpochDay() * MILLIS_PER_DAY, (to.toEpochDay() + 1) * MILLIS_PER_DAY - 1);
+    }
+
+    /**
+     * The bars dated from through to, copied into arrays
+     */
+    public BarSeries getBars(String symbol, LocalDate from, LocalDate to) {
+        return getStoredBars(symbol, from, to).toSeries();
+    }
+
+    private void ensureHistory(String symbol, LocalDate today, int days) {
+        long todayDay = today.toEpochDay();
+        long from = (todayDay - days + 1) * MILLIS_PER_DAY;
+        long stored = barStore.lastTimestamp(symbol);
+        if (stored != Long.MIN_VALUE && !barStore.isSynthetic(symbol)
+                || stored >= todayDay * MILLIS_PER_DAY && barStore.firstTimestamp(symbol) <= from) {
+            return;
+        }
+        synchronized (this) {
+            long last = barStore.lastTimestamp(symbol);
+            if (last == Long.MIN_VALUE || barStore.firstTimestamp(symbol) > from) {
+                // Generated anew, reaching back further, as a synthetic history cannot be prepended to
+                int length = Math.max(days, seedDays);
+                barStore.replaceSynthetic(generate(symbol, todayDay - length + 1, length, getBasePrice(symbol),
+                        new Random(42)));
+            } else if (BarSeries.epochDay(last) < todayDay && barStore.isSynthetic(symbol)) {
+                long firstDay = BarSeries.epochDay(last) + 1;
+                StoredBars lastBar = barStore.read(symbol, last, last);
+                if (lastBar.size() == 0) {
+                    // Replaced by imported bars meanwhile
+                    return;
+                }
+                // Seeded by symbol and day so every instance extends a symbol the same way
+                Random random = new Random(symbol.hashCode() * 31L + firstDay);
+                barStore.appendSynthetic(generate(symbol, firstDay, (int) (todayDay - firstDay + 1),
+                        lastBar.close(0), random));
+            }
+        }
+    }
+
+    private BarSeries generate(String symbol, long firstDay, int days, double startPrice, Random random) {
+        long[] timestamps = new long[days];
+        double[] opens = new double[days];
+        double[] highs = new double[days];
+        double[] lows = new double[days];
+        double[] closes = new double[days];
+        long[] volumes = new long[days];
+        double currentPrice = startPrice;
+
         for (int i = 0; i < days; i++) {
-            LocalDate date = LocalDate.now().minusDays(days - i - 1);
-            
             // Generate realistic price movements
             double dailyReturn = (random.nextGaussian() * 0.02) + 0.0002; // 2% daily volatility, slight upward drift
             double open = currentPrice;
             double high = open * (1 + Math.abs(random.nextGaussian() * 0.01));
             double low = open * (1 - Math.abs(random.nextGaussian() * 0.01));
             double close = open * (1 + dailyReturn);
-            
+
+            timestamps[i] = (firstDay + i) * MILLIS_PER_DAY;
+            opens[i] = open;
             // Ensure high >= max(open, close) and low <= min(open, close)
-            high = Math.max(high, Math.max(open, close));
-            low = Math.min(low, Math.min(open, close));
-            
-            long volume = (long) (1000000 + random.nextInt(5000000));
-            
-            data.add(new MarketDataPoint(date, open, high, low, close, volume));
+            highs[i] = Math.max(high, Math.max(open, close));
+            lows[i] = Math.min(low, Math.min(open, close));
+            closes[i] = close;
+            volumes[i] = (long) (1000000 + random.nextInt(5000000));
             currentPrice = close;
         }
-        
-        return data;
+
+        return new BarSeries(symbol, timestamps, opens, highs, lows, closes, volumes);
     }
-    
+
     private double getBasePrice(String symbol) {
         return switch (symbol.toUpperCase()) {
             case "SPY" -> 400.0;
@@ -54,4 +147,4 @@ public class MarketDataService {
             default -> 100.0;
         };
     }
-}
\ No newline at end of file
+}
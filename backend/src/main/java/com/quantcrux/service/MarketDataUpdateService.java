@@ -3,44 +3,159 @@ package com.quantcrux.service;
 import com.quantcrux.dto.MarketSnapshotResponse;
 import com.quantcrux.model.MarketData;
 import com.quantcrux.repository.MarketDataRepository;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Latest quotes of the active markets, held in memory.
+ *
+ * Snapshot reads return a list rebuilt whenever prices move, so they take no lock
+ * and never touch the database. Moved quotes are marked dirty and written back to
+ * market_data in one transaction per flush; a symbol that moves several times
+ * between flushes is written once, with its latest quote. Every move is also
+ * pushed to the quote stream's subscribers.
+ */
 @Service
-@Transactional
 public class MarketDataUpdateService {
 
+    private static final List<String> SNAPSHOT_SYMBOLS = List.of("NIFTY", "SENSEX", "BTC", "ETH", "SPY", "QQQ");
+
     @Autowired
     private MarketDataRepository marketDataRepository;
 
+    @Autowired
+    private PricingCache pricingCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MarketQuoteStream quoteStream;
+
     private final Random random = new Random();
+    private final Map<String, Quote> quotes = new ConcurrentHashMap<>();
+    private final Map<String, Quote> dirty = new ConcurrentHashMap<>();
+    private volatile List<MarketSnapshotResponse> snapshot;
 
     public List<MarketSnapshotResponse> getMarketSnapshot() {
-        List<String> symbols = Arrays.asList("NIFTY", "SENSEX", "BTC", "ETH", "SPY", "QQQ");
-        
-        List<MarketData> marketDataList = marketDataRepository.findBySymbolsAndIsActiveTrue(symbols);
-        
-        // If no data exists, create initial data
-        if (marketDataList.isEmpty()) {
-            initializeMarketData();
-            marketDataList = marketDataRepository.findBySymbolsAndIsActiveTrue(symbols);
-        } else {
-            // Update existing data with new prices
-            updateMarketPrices(marketDataList);
+        List<MarketSnapshotResponse> current = snapshot;
+        if (current == null) {
+            loadQuotes();
+            current = snapshot;
         }
+        return current;
+    }
 
-        return marketDataList.stream()
-                .map(MarketSnapshotResponse::new)
-                .collect(Collectors.toList());
+    /**
+     * Fill the cache from market_data, creating the initial rows if there are none
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void loadQuotes() {
+        if (snapshot != null) {
+            return;
+        }
+        List<MarketData> rows = transactionTemplate.execute(status -> {
+            if (marketDataRepository.findBySymbolsAndIsActiveTrue(SNAPSHOT_SYMBOLS).isEmpty()) {
+                initializeMarketData();
+            }
+            return marketDataRepository.findByIsActiveTrueOrderBySymbol();
+        });
+        for (MarketData row : rows) {
+            quotes.put(row.getSymbol(), new Quote(row));
+        }
+        publishSnapshot();
+    }
+
+    /**
+     * Move every cached price; the moves reach the database on the next flush
+     */
+    public synchronized void simulateMarketUpdate() {
+        if (snapshot == null) {
+            loadQuotes();
+        }
+        List<MarketSnapshotResponse> changes = new ArrayList<>(quotes.size());
+        for (Quote quote : quotes.values()) {
+            Quote moved = move(quote);
+            quotes.put(moved.symbol, moved);
+            dirty.put(moved.symbol, moved);
+            pricingCache.onMarketMove(moved.symbol, moved.price.doubleValue());
+            changes.add(moved.toResponse());
+        }
+        publishSnapshot();
+        quoteStream.publish(changes);
+    }
+
+    /**
+     * Stream the symbols' quotes, all active ones if symbols is empty: their
+     * current quotes first, then each change
+     */
+    public synchronized MarketQuoteStream.Subscription subscribe(Set<String> symbols, MarketQuoteStream.Sink sink) {
+        if (snapshot == null) {
+            loadQuotes();
+        }
+        // Holding the lock keeps a move from landing between the current quotes and the subscription
+        List<MarketSnapshotResponse> current = new ArrayList<>(quotes.size());
+        for (Quote quote : quotes.values()) {
+            current.add(quote.toResponse());
+        }
+        return quoteStream.subscribe(symbols, sink, current);
+    }
+
+    /**
+     * Write the quotes moved since the last flush, returning how many were written
+     */
+    public int flushQuotes() {
+        if (dirty.isEmpty()) {
+            return 0;
+        }
+        Map<String, Quote> batch = new HashMap<>(dirty);
+        transactionTemplate.executeWithoutResult(status -> {
+            List<MarketData> rows = marketDataRepository.findBySymbolsAndIsActiveTrue(new ArrayList<>(batch.keySet()));
+            for (MarketData row : rows) {
+                batch.get(row.getSymbol()).applyTo(row);
+            }
+            marketDataRepository.saveAll(rows);
+        });
+        // Quotes that moved again meanwhile stay dirty for the next flush
+        batch.forEach(dirty::remove);
+        return batch.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            flushQuotes();
+        } catch (RuntimeException e) {
+            System.err.println("Error flushing market quotes: " + e.getMessage());
+        }
+    }
+
+    private void publishSnapshot() {
+        List<MarketSnapshotResponse> responses = new ArrayList<>();
+        for (String symbol : SNAPSHOT_SYMBOLS) {
+            Quote quote = quotes.get(symbol);
+            if (quote != null) {
+                responses.add(quote.toResponse());
+            }
+        }
+        responses.sort(Comparator.comparing(MarketSnapshotResponse::getSymbol));
+        snapshot = List.copyOf(responses);
     }
 
     private void initializeMarketData() {
@@ -52,7 +167,7 @@ public class MarketDataUpdateService {
         createMarketData("QQQ", "Invesco QQQ Trust", new BigDecimal("380.00"), "USD", "NASDAQ", "ETF");
     }
 
-    private void createMarketData(String symbol, String name, BigDecimal basePrice, 
+    private void createMarketData(String symbol, String name, BigDecimal basePrice,
                                  String currency, String exchange, String sector) {
         MarketData marketData = new MarketData();
         marketData.setSymbol(symbol);
@@ -66,43 +181,80 @@ public class MarketDataUpdateService {
         marketData.setExchange(exchange);
         marketData.setSector(sector);
         marketData.setUpdatedAt(LocalDateTime.now());
-        
+
         marketDataRepository.save(marketData);
     }
 
-    private void updateMarketPrices(List<MarketData> marketDataList) {
-        for (MarketData marketData : marketDataList) {
-            // Generate realistic price movement (±2% max change)
-            double changePercent = (random.nextGaussian() * 0.5); // Normal distribution, ±1.5% typical
-            changePercent = Math.max(-2.0, Math.min(2.0, changePercent)); // Cap at ±2%
-            
-            BigDecimal currentPrice = marketData.getPrice();
-            BigDecimal changeAmount = currentPrice.multiply(BigDecimal.valueOf(changePercent / 100.0));
-            BigDecimal newPrice = currentPrice.add(changeAmount);
-            
-            // Ensure price doesn't go negative
-            if (newPrice.compareTo(BigDecimal.ZERO) <= 0) {
-                newPrice = currentPrice.multiply(BigDecimal.valueOf(0.99));
-                changeAmount = newPrice.subtract(currentPrice);
-                changePercent = changeAmount.divide(currentPrice, 4, RoundingMode.HALF_UP)
-                              .multiply(BigDecimal.valueOf(100)).doubleValue();
-            }
+    private Quote move(Quote quote) {
+        // Generate realistic price movement (±2% max change)
+        double changePercent = (random.nextGaussian() * 0.5); // Normal distribution, ±1.5% typical
+        changePercent = Math.max(-2.0, Math.min(2.0, changePercent)); // Cap at ±2%
+
+        BigDecimal currentPrice = quote.price;
+        BigDecimal changeAmount = currentPrice.multiply(BigDecimal.valueOf(changePercent / 100.0));
+        BigDecimal newPrice = currentPrice.add(changeAmount);
 
-            marketData.setPreviousClose(currentPrice);
-            marketData.setPrice(newPrice.setScale(2, RoundingMode.HALF_UP));
-            marketData.setChangeAmount(changeAmount.setScale(2, RoundingMode.HALF_UP));
-            marketData.setChangePercent(BigDecimal.valueOf(changePercent).setScale(2, RoundingMode.HALF_UP));
-            marketData.setVolume(1000000L + random.nextInt(5000000));
-            marketData.setUpdatedAt(LocalDateTime.now());
-            
-            marketDataRepository.save(marketData);
+        // Ensure price doesn't go negative
+        if (newPrice.compareTo(BigDecimal.ZERO) <= 0) {
+            newPrice = currentPrice.multiply(BigDecimal.valueOf(0.99));
+            changeAmount = newPrice.subtract(currentPrice);
+            changePercent = changeAmount.divide(currentPrice, 4, RoundingMode.HALF_UP)
+                          .multiply(BigDecimal.valueOf(100)).doubleValue();
         }
+
+        return new Quote(quote.symbol, quote.name, newPrice.setScale(2, RoundingMode.HALF_UP), currentPrice,
+                changeAmount.setScale(2, RoundingMode.HALF_UP),
+                BigDecimal.valueOf(changePercent).setScale(2, RoundingMode.HALF_UP),
+                1000000L + random.nextInt(5000000), quote.currency, quote.exchange, LocalDateTime.now());
     }
 
-    public void simulateMarketUpdate() {
-        List<MarketData> allMarketData = marketDataRepository.findByIsActiveTrueOrderBySymbol();
-        if (!allMarketData.isEmpty()) {
-            updateMarketPrices(allMarketData);
+    /**
+     * An immutable copy of the quote fields of a market_data row
+     */
+    private static final class Quote {
+        final String symbol;
+        final String name;
+        final BigDecimal price;
+        final BigDecimal previousClose;
+        final BigDecimal changeAmount;
+        final BigDecimal changePercent;
+        final Long volume;
+        final String currency;
+        final String exchange;
+        final LocalDateTime updatedAt;
+
+        Quote(String symbol, String name, BigDecimal price, BigDecimal previousClose, BigDecimal changeAmount,
+              BigDecimal changePercent, Long volume, String currency, String exchange, LocalDateTime updatedAt) {
+            this.symbol = symbol;
+            this.name = name;
+            this.price = price;
+            this.previousClose = previousClose;
+            this.changeAmount = changeAmount;
+            this.changePercent = changePercent;
+            this.volume = volume;
+            this.currency = currency;
+            this.exchange = exchange;
+            this.updatedAt = updatedAt;
+        }
+
+        Quote(MarketData row) {
+            this(row.getSymbol(), row.getName(), row.getPrice(), row.getPreviousClose(), row.getChangeAmount(),
+                    row.getChangePercent(), row.getVolume(), row.getCurrency(), row.getExchange(),
+                    row.getUpdatedAt());
+        }
+
+        void applyTo(MarketData row) {
+            row.setPrice(price);
+            row.setPreviousClose(previousClose);
+            row.setChangeAmount(changeAmount);
+            row.setChangePercent(changePercent);
+            row.setVolume(volume);
+            row.setUpdatedAt(updatedAt);
+        }
+
+        MarketSnapshotResponse toResponse() {
+            return new MarketSnapshotResponse(symbol, name, price, changeAmount, changePercent, volume,
+                    currency, exchange, updatedAt);
         }
     }
-}
\ No newline at end of file
+}
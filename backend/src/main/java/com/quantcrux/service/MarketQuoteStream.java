@@ -0,0 +1,221 @@
+package com.quantcrux.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quantcrux.dto.MarketSnapshotResponse;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans changed market quotes out to subscribers.
+ *
+ * A quote is serialised once per change however many subscribers want it. Each
+ * subscription holds at most one unsent quote per symbol, and a newer quote
+ * replaces it, so a slow consumer receives the latest quotes late instead of
+ * building a backlog. Sends run on a small pool with at most one in progress
+ * per subscription; everything a subscription has pending goes out as one
+ * JSON array.
+ *
+ * Sends block until the client takes the data. On each publish a subscription
+ * whose send has been in progress longer than send-timeout-ms is dropped, and
+ * the pool gets an extra thread for as long as that send stays stuck, so
+ * stalled clients never hold up the others. Its sink is closed once the send
+ * returns.
+ */
+@Service
+public class MarketQuoteStream {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Marks a send that has been given up on
+    private static final long STALLED = Long.MIN_VALUE;
+
+    private final ThreadPoolExecutor senders;
+    private final int sendThreads;
+    private final long sendTimeoutNanos;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private int stalledSends;
+
+    public MarketQuoteStream(@Value("${market-data.stream.send-threads:4}") int sendThreads,
+                             @Value("${market-data.stream.send-timeout-ms:5000}") long sendTimeoutMs) {
+        this.sendThreads = Math.max(1, sendThreads);
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        // Grows beyond sendThreads only while sends are stalled
+        this.senders = new ThreadPoolExecutor(this.sendThreads, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>());
+    }
+
+    /**
+     * Writes one JSON array of quotes to a subscriber; failing ends the subscription
+     */
+    @FunctionalInterface
+    public interface Sink {
+        void send(String quotes) throws IOException;
+
+        /**
+         * End the stream of a subscription dropped for a stalled send
+         */
+        default void close() {
+        }
+    }
+
+    /**
+     * Subscribe to the given symbols, or to all of them if symbols is empty, and
+     * queue the initial quotes for the subscriber
+     */
+    public Subscription subscribe(Set<String> symbols, Sink sink, List<MarketSnapshotResponse> initial) {
+        Subscription subscription = new Subscription(symbols.isEmpty() ? null : Set.copyOf(symbols), sink);
+        subscriptions.add(subscription);
+        subscription.offer(serialise(initial));
+        return subscription;
+    }
+
+    public void publish(List<MarketSnapshotResponse> quotes) {
+        if (subscriptions.isEmpty() || quotes.isEmpty()) {
+            return;
+        }
+        Map<String, String> serialised = serialise(quotes);
+        long now = System.nanoTime();
+        for (Subscription subscription : subscriptions) {
+            subscription.dropIfStalled(now);
+            subscription.offer(serialised);
+        }
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdown();
+    }
+
+    /**
+     * Keep sendThreads threads free of the stalled sends
+     */
+    private synchronized void stalledSendsChanged(int change) {
+        stalledSends += change;
+        senders.setCorePoolSize(sendThreads + stalledSends);
+    }
+
+    private Map<String, String> serialise(List<MarketSnapshotResponse> quotes) {
+        Map<String, String> serialised = new HashMap<>();
+        try {
+            for (MarketSnapshotResponse quote : quotes) {
+                serialised.put(quote.getSymbol(), objectMapper.writeValueAsString(quote));
+            }
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        return serialised;
+    }
+
+    public class Subscription {
+        private final Set<String> symbols;
+        private final Sink sink;
+        private final Map<String, String> pending = new ConcurrentHashMap<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        // When the send in progress started, 0 if there is none
+        private final AtomicLong sendStarted = new AtomicLong();
+        private volatile boolean cancelled;
+
+        Subscription(Set<String> symbols, Sink sink) {
+            this.symbols = symbols;
+            this.sink = sink;
+        }
+
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+
+        void dropIfStalled(long now) {
+            long started = sendStarted.get();
+            if (started != 0 && started != STALLED && now - started > sendTimeoutNanos
+                    && sendStarted.compareAndSet(started, STALLED)) {
+                cancel();
+                stalledSendsChanged(1);
+            }
+        }
+
+        void offer(Map<String, String> quotes) {
+            boolean wanted = false;
+            for (Map.Entry<String, String> quote : quotes.entrySet()) {
+                if (symbols == null || symbols.contains(quote.getKey())) {
+                    pending.put(quote.getKey(), quote.getValue());
+                    wanted = true;
+                }
+            }
+            if (wanted) {
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            if (cancelled || !sending.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                cancel();
+            }
+        }
+
+        private void drain() {
+            StringBuilder quotes = new StringBuilder("[");
+            for (String symbol : pending.keySet()) {
+                String quote = pending.remove(symbol);
+                if (quote != null) {
+                    quotes.append(quotes.length() > 1 ? "," : "").append(quote);
+                }
+            }
+            if (quotes.length() > 1 && !cancelled) {
+                sendStarted.set(System.nanoTime());
+                boolean sent;
+                try {
+                    sink.send(quotes.append(']').toString());
+                    sent = true;
+                } catch (IOException | RuntimeException e) {
+                    // The client went away
+                    sent = false;
+                }
+                boolean stalled = sendStarted.getAndSet(0) == STALLED;
+                if (stalled) {
+                    stalledSendsChanged(-1);
+                }
+                if (!sent || stalled) {
+                    // Sending stays set so nothing more is scheduled
+                    cancel();
+                    if (sent) {
+                        sink.close();
+                    }
+                    return;
+                }
+            }
+            sending.set(false);
+            // Quotes offered while this send was in progress
+            if (!pending.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
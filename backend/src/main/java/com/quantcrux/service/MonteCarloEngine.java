@@ -0,0 +1,463 @@
+package com.quantcrux.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel Monte Carlo driver shared by the pricing services.
+ *
+ * Paths are cut into fixed-size chunks and every chunk reads its own cursor
+ * of a sampler point set, seeded from a root generator in chunk order. The
+ * chunk layout depends only on the path count and seed, so a fixed seed gives
+ * the same price whatever the pool size.
+ */
+@Component
+public class MonteCarloEngine {
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public MonteCarloEngine(@Value("${pricing.monte-carlo.parallelism:0}") int parallelism,
+                            @Value("${pricing.monte-carlo.chunk-size:8192}") int chunkSize) {
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(workers);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Simulate numPaths standard normal shocks and summarise the evaluated payoffs
+     */
+    public Estimate simulate(int numPaths, long seed, PathEvaluator evaluator) {
+        return simulate(numPaths, seed, 1, (shock, out) -> out[0] = evaluator.evaluate(shock))[0];
+    }
+
+    /**
+     * Simulate numPaths shocks, evaluating several outputs per shock so that
+     * every output sees the same random numbers (common random numbers)
+     */
+    public Estimate[] simulate(int numPaths, long seed, int width, VectorPathEvaluator evaluator) {
+        return simulate(numPaths, new Options(seed), width, evaluator).getEstimates();
+    }
+
+    /**
+     * Simulate numPaths single-step shocks with the sampling settings in options
+     */
+    public Result simulate(int numPaths, Options options, int width, VectorPathEvaluator evaluator) {
+        return simulatePaths(numPaths, options, width, (shocks, out) -> evaluator.evaluate(shocks[0], out));
+    }
+
+    /**
+     * Simulate numPaths paths of options.dimension shocks each
+     */
+    public Result simulatePaths(int numPaths, Options options, int width, MultiStepEvaluator evaluator) {
+        return simulatePaths(numPaths, options, width, evaluator, null);
+    }
+
+    /**
+     * Simulate up to maxPaths paths in rounds of chunks, stopping early once the
+     * condition accepts the running result. Each round adds the same number of
+     * chunks to every replicate, and a run that never stops early returns exactly
+     * what simulatePaths gives for maxPaths.
+     */
+    public Result simulatePaths(int maxPaths, Options options, int width, MultiStepEvaluator evaluator,
+                                StopCondition stopCondition) {
+        if (maxPaths <= 0) {
+            throw new IllegalArgumentException("Number of simulations must be positive");
+        }
+
+        // With antithetic variates each sample is a (z, -z) pair costing two paths
+        int numSamples = options.antithetic ? (maxPaths + 1) / 2 : maxPaths;
+        int replicates = Math.max(1, Math.min(options.replicates, numSamples));
+        int samplesPerReplicate = numSamples / replicates;
+        int chunksPerReplicate = (samplesPerReplicate + chunkSize - 1) / chunkSize;
+        int numChunks = replicates * chunksPerReplicate;
+
+        SplittableRandom root = new SplittableRandom(options.seed);
+        ShockSampler.PointSet[] pointSets = new ShockSampler.PointSet[replicates];
+        for (int r = 0; r < replicates; r++) {
+            pointSets[r] = options.sampler.create(options.dimension, root.nextLong());
+        }
+        long[] streamSeeds = new long[numChunks];
+        for (int c = 0; c < numChunks; c++) {
+            streamSeeds[c] = root.nextLong();
+        }
+
+        Run run = new Run(options, width, evaluator, pointSets, streamSeeds, samplesPerReplicate, chunksPerReplicate);
+        Result[] partials = new Result[numChunks];
+        boolean trackCovariance = options.controlOutput >= 0;
+        Result[] replicateResults = new Result[replicates];
+        for (int r = 0; r < replicates; r++) {
+            replicateResults[r] = new Result(width, trackCovariance);
+        }
+
+        // Without a stop condition everything runs as one round
+        int chunksPerRound = stopCondition == null
+            ? chunksPerReplicate
+            : Math.max(1, pool.getParallelism() / replicates);
+        Result total;
+        int chunksDone = 0;
+        do {
+            int roundEnd = Math.min(chunksDone + chunksPerRound, chunksPerReplicate);
+            int[] chunks = new int[replicates * (roundEnd - chunksDone)];
+            int n = 0;
+            for (int r = 0; r < replicates; r++) {
+                for (int c = chunksDone; c < roundEnd; c++) {
+                    chunks[n++] = r * chunksPerReplicate + c;
+                }
+            }
+            pool.invoke(new ChunkTask(run, partials, chunks, 0, chunks.length));
+
+            // Merge in chunk order so the floating-point result is independent of scheduling
+            for (int r = 0; r < replicates; r++) {
+                for (int c = chunksDone; c < roundEnd; c++) {
+                    int chunk = r * chunksPerReplicate + c;
+                    replicateResults[r].merge(partials[chunk]);
+                    partials[chunk] = null;
+                }
+            }
+            chunksDone = roundEnd;
+
+            total = new Result(width, trackCovariance);
+            for (Result replicate : replicateResults) {
+                total.merge(replicate);
+            }
+            total.replicates = replicateResults;
+            total.numPaths = total.estimates[0].getCount() * (options.antithetic ? 2 : 1);
+        } while (chunksDone < chunksPerReplicate && !stopCondition.shouldStop(total));
+        return total;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @FunctionalInterface
+    public interface PathEvaluator {
+        double evaluate(double shock);
+    }
+
+    @FunctionalInterface
+    public interface VectorPathEvaluator {
+        void evaluate(double shock, double[] out);
+    }
+
+    @FunctionalInterface
+    public interface MultiStepEvaluator {
+        void evaluate(double[] shocks, double[] out);
+    }
+
+    /**
+     * Checked after every round of an adaptive run with the results so far
+     */
+    @FunctionalInterface
+    public interface StopCondition {
+        boolean shouldStop(Result runningResult);
+    }
+
+    /**
+     * Sampling settings for one simulation run
+     */
+    public static class Options {
+        private final long seed;
+        private ShockSampler sampler = PseudoRandomSampler.INSTANCE;
+        private int dimension = 1;
+        private int replicates = 1;
+        private boolean brownianBridge;
+        private boolean antithetic;
+        private boolean momentMatching;
+        private int controlOutput = -1;
+
+        public Options(long seed) {
+            this.seed = seed;
+        }
+
+        public long getSeed() { return seed; }
+
+        public ShockSampler getSampler() { return sampler; }
+        public void setSampler(ShockSampler sampler) { this.sampler = sampler; }
+
+        /**
+         * Shocks per path, i.e. the number of time steps
+         */
+        public int getDimension() { return dimension; }
+        public void setDimension(int dimension) { this.dimension = dimension; }
+
+        /**
+         * Independently randomised point sets, for randomised-QMC error estimates
+         */
+        public int getReplicates() { return replicates; }
+        public void setReplicates(int replicates) { this.replicates = replicates; }
+
+        public boolean isBrownianBridge() { return brownianBridge; }
+        public void setBrownianBridge(boolean brownianBridge) { this.brownianBridge = brownianBridge; }
+
+        public boolean isAntithetic() { return antithetic; }
+        public void setAntithetic(boolean antithetic) { this.antithetic = antithetic; }
+
+        public boolean isMomentMatching() { return momentMatching; }
+        public void setMomentMatching(boolean momentMatching) { this.momentMatching = momentMatching; }
+
+        /**
+         * Output whose covariance with output 0 is tracked, for control variates
+         */
+        public int getControlOutput() { return controlOutput; }
+        public void setControlOutput(int controlOutput) { this.controlOutput = controlOutput; }
+    }
+
+    /**
+     * Immutable description of one simulate() call, shared by its chunk tasks
+     */
+    private class Run {
+        final Options options;
+        final int width;
+        final MultiStepEvaluator evaluator;
+        final ShockSampler.PointSet[] pointSets;
+        final long[] streamSeeds;
+        final int samplesPerReplicate;
+        final int chunksPerReplicate;
+        final BrownianBridge bridge;
+
+        Run(Options options, int width, MultiStepEvaluator evaluator, ShockSampler.PointSet[] pointSets,
+            long[] streamSeeds, int samplesPerReplicate, int chunksPerReplicate) {
+            this.options = options;
+            this.width = width;
+            this.evaluator = evaluator;
+            this.pointSets = pointSets;
+            this.streamSeeds = streamSeeds;
+            this.samplesPerReplicate = samplesPerReplicate;
+            this.chunksPerReplicate = chunksPerReplicate;
+            this.bridge = options.brownianBridge && options.dimension > 1 ? new BrownianBridge(options.dimension) : null;
+        }
+
+        Result runChunk(int chunk) {
+            int dimension = options.dimension;
+            ShockSampler.PointSet pointSet = pointSets[chunk / chunksPerReplicate];
+            long from = (long) (chunk % chunksPerReplicate) * chunkSize;
+            int length = (int) Math.min(chunkSize, samplesPerReplicate - from);
+
+            double[] normals = new double[dimension];
+            double[] shocks = bridge != null ? new double[dimension] : normals;
+            double[] path = bridge != null ? new double[dimension] : null;
+            double[] mirroredShocks = options.antithetic ? new double[dimension] : null;
+            double[] out = new double[width];
+            double[] mirrored = options.antithetic ? new double[width] : null;
+
+            double[] mean = null;
+            double[] scale = null;
+            if (options.momentMatching) {
+                mean = new double[dimension];
+                scale = new double[dimension];
+                matchMoments(pointSet.cursor(from, streamSeeds[chunk]), length, mean, scale);
+            }
+
+            ShockSampler.Cursor cursor = pointSet.cursor(from, streamSeeds[chunk]);
+            Result result = new Result(width, options.controlOutput >= 0);
+            for (int i = 0; i < length; i++) {
+                cursor.next(normals);
+                if (mean != null) {
+                    for (int j = 0; j < dimension; j++) {
+                        normals[j] = (normals[j] - mean[j]) * scale[j];
+                    }
+                }
+                if (bridge != null) {
+                    bridge.transform(normals, shocks, path);
+                }
+
+                evaluator.evaluate(shocks, out);
+                if (mirrored != null) {
+                    for (int j = 0; j < dimension; j++) {
+                        mirroredShocks[j] = -shocks[j];
+                    }
+                    evaluator.evaluate(mirroredShocks, mirrored);
+                    for (int k = 0; k < width; k++) {
+                        out[k] = 0.5 * (out[k] + mirrored[k]);
+                    }
+                }
+                result.add(out, options.controlOutput);
+            }
+            return result;
+        }
+
+        /**
+         * First pass over a chunk's normals: per-coordinate shift and scale to exactly
+         * zero mean and unit variance. Antithetic pairs are symmetric already, so only
+         * the variance needs matching there.
+         */
+        private void matchMoments(ShockSampler.Cursor cursor, int length, double[] mean, double[] scale) {
+            int dimension = mean.length;
+            double[] normals = new double[dimension];
+            double[] sumSq = new double[dimension];
+            for (int i = 0; i < length; i++) {
+                cursor.next(normals);
+                for (int j = 0; j < dimension; j++) {
+                    mean[j] += normals[j];
+                    sumSq[j] += normals[j] * normals[j];
+                }
+            }
+            for (int j = 0; j < dimension; j++) {
+                mean[j] = options.antithetic ? 0 : mean[j] / length;
+                double variance = sumSq[j] / length - mean[j] * mean[j];
+                scale[j] = variance > 0 ? 1 / Math.sqrt(variance) : 1;
+            }
+        }
+    }
+
+    private class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Run run;
+        private final Result[] partials;
+        private final int[] chunks;
+        private final int from;
+        private final int to;
+
+        ChunkTask(Run run, Result[] partials, int[] chunks, int from, int to) {
+            this.run = run;
+            this.partials = partials;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                partials[chunks[from]] = run.runChunk(chunks[from]);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChunkTask(run, partials, chunks, from, mid),
+                      new ChunkTask(run, partials, chunks, mid, to));
+        }
+    }
+
+    /**
+     * Per-output estimates of a run, plus the output 0 / control covariance when requested
+     */
+    public static class Result {
+        private final Estimate[] estimates;
+        private final Covariance covariance;
+        private Result[] replicates;
+        private long numPaths;
+
+        Result(int width, boolean trackCovariance) {
+            estimates = new Estimate[width];
+            for (int k = 0; k < width; k++) {
+                estimates[k] = new Estimate();
+            }
+            covariance = trackCovariance ? new Covariance() : null;
+        }
+
+        void add(double[] values, int controlOutput) {
+            for (int k = 0; k < estimates.length; k++) {
+                estimates[k].add(values[k]);
+            }
+            if (covariance != null) {
+                covariance.add(values[0], values[controlOutput]);
+            }
+        }
+
+        void merge(Result other) {
+            for (int k = 0; k < estimates.length; k++) {
+                estimates[k].merge(other.estimates[k]);
+            }
+            if (covariance != null) {
+                covariance.merge(other.covariance);
+            }
+        }
+
+        public Estimate[] getEstimates() { return estimates; }
+
+        public Estimate getEstimate(int output) { return estimates[output]; }
+
+        public Covariance getCovariance() { return covariance; }
+
+        /**
+         * Results of each independently randomised point set, in seed order
+         */
+        public Result[] getReplicates() { return replicates; }
+
+        /**
+         * Paths actually simulated, counting both legs of antithetic pairs
+         */
+        public long getNumPaths() { return numPaths; }
+    }
+
+    /**
+     * Running mean/variance (Welford) that can be merged across chunks
+     */
+    public static class Estimate {
+        private long count;
+        private double mean;
+        private double m2;
+
+        public void add(double value) {
+            count++;
+            double delta = value - mean;
+            mean += delta / count;
+            m2 += delta * (value - mean);
+        }
+
+        public void merge(Estimate other) {
+            if (other.count == 0) {
+                return;
+            }
+            long combined = count + other.count;
+            double delta = other.mean - mean;
+            mean += delta * other.count / combined;
+            m2 += other.m2 + delta * delta * count * other.count / combined;
+            count = combined;
+        }
+
+        public long getCount() { return count; }
+
+        public double getMean() { return mean; }
+
+        public double getVariance() { return count > 0 ? m2 / count : 0; }
+
+        public double getStandardError() { return count > 0 ? Math.sqrt(getVariance() / count) : 0; }
+    }
+
+    /**
+     * Running co-moment of two series, mergeable like Estimate
+     */
+    public static class Covariance {
+        private long count;
+        private double meanX;
+        private double meanY;
+        private double c2;
+
+        public void add(double x, double y) {
+            count++;
+            double dx = x - meanX;
+            meanX += dx / count;
+            meanY += (y - meanY) / count;
+            c2 += dx * (y - meanY);
+        }
+
+        public void merge(Covariance other) {
+            if (other.count == 0) {
+                return;
+            }
+            long combined = count + other.count;
+            double dx = other.meanX - meanX;
+            double dy = other.meanY - meanY;
+            meanX += dx * other.count / combined;
+            meanY += dy * other.count / combined;
+            c2 += other.c2 + dx * dy * count * other.count / combined;
+            count = combined;
+        }
+
+        public double getCovariance() { return count > 0 ? c2 / count : 0; }
+    }
+}
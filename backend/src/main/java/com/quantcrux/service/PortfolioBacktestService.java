@@ -0,0 +1,220 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.BacktestResult;
+import com.quantcrux.dto.EquityCurve;
+import com.quantcrux.dto.PortfolioBacktestRequest;
+import com.quantcrux.model.Strategy;
+import com.quantcrux.repository.StrategyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Backtests a strategy over several assets at once, sharing one pool of capital.
+ *
+ * Each asset is held or flat according to the strategy's rules on its own
+ * indicators. Whenever a position opens or closes, and every rebalanceFrequency
+ * bars, holdings are reset to their target weights: positionSize split over the
+ * assets held (equal_weight) or over the whole universe (fixed_weight), with
+ * the rest in cash.
+ */
+@Service
+public class PortfolioBacktestService {
+
+    private static final byte ENTRY = 1;
+    private static final byte EXIT = 2;
+
+    @Autowired
+    private MarketDataService marketDataService;
+
+    @Autowired
+    private StrategyRepository strategyRepository;
+
+    @Autowired
+    private StrategyCompiler strategyCompiler;
+
+    public BacktestResult runBacktest(PortfolioBacktestRequest request) {
+        List<String> symbols = request.getSymbols();
+        if (symbols == null || symbols.isEmpty()) {
+            Strategy strategy = strategyRepository.findById(request.getStrategyId())
+                    .orElseThrow(() -> new RuntimeException("Strategy not found"));
+            symbols = strategy.getAssetList();
+        }
+        if (symbols == null || symbols.isEmpty()) {
+            throw new IllegalArgumentException("No assets to backtest");
+        }
+
+        CompiledStrategy strategy = strategyCompiler.getCompiledStrategy(request.getStrategyId());
+        PricePanel panel = loadPanel(new ArrayList<>(new LinkedHashSet<>(symbols)),
+                request.getStartDate(), request.getEndDate());
+        return runBacktest(request, strategy, panel);
+    }
+
+    /**
+     * Market data for every symbol over the date range, aligned on one calendar
+     */
+    public PricePanel loadPanel(List<String> symbols, String startDate, String endDate) {
+        LocalDate from = LocalDate.parse(startDate);
+        LocalDate to = LocalDate.parse(endDate);
+        PricePanel.Builder builder = new PricePanel.Builder();
+        for (String symbol : symbols) {
+            builder.add(marketDataService.getBars(symbol, from, to));
+        }
+        PricePanel panel = builder.build();
+        if (panel.barCount() == 0) {
+            throw new IllegalArgumentException("No market data for the requested period");
+        }
+        return panel;
+    }
+
+    public BacktestResult runBacktest(PortfolioBacktestRequest request, CompiledStrategy strategy, PricePanel panel) {
+        String allocation = request.getAllocation() != null ? request.getAllocation().toLowerCase() : "equal_weight";
+        boolean fixedWeight = switch (allocation) {
+            case "equal_weight" -> false;
+            case "fixed_weight" -> true;
+            default -> throw new IllegalArgumentException("Unknown allocation: " + request.getAllocation());
+        };
+        int rebalanceFrequency = request.getRebalanceFrequency() != null ? request.getRebalanceFrequency() : 0;
+
+        int assets = panel.assetCount();
+        int bars = panel.barCount();
+
+        // Rules only read an asset's own indicators, so each asset's signals are worked
+        // out up front in parallel and only one byte per bar is kept
+        byte[][] signals = new byte[assets][];
+        IntStream.range(0, assets).parallel().forEach(a -> signals[a] = signals(panel, a, strategy));
+
+        double stopLoss = strategy.getStopLoss();
+        double takeProfit = strategy.getTakeProfit();
+        double positionSize = strategy.getPositionSize();
+
+        double cash = request.getInitialCapital();
+        double[] units = new double[assets];
+        double[] entryPrice = new double[assets];
+        boolean[] held = new boolean[assets];
+        int heldCount = 0;
+        int[] trades = new int[assets];
+        int[] profitableTrades = new int[assets];
+        int rebalances = 0;
+
+        BacktestService.PerformanceTracker performance = new BacktestService.PerformanceTracker(cash);
+        int[] dates = new int[Math.max(bars - 1, 0)];
+        double[] values = new double[dates.length];
+        double value = cash;
+
+        for (int t = 1; t < bars; t++) {
+            // Orders fill at the close of the signal bar
+            boolean changed = false;
+            for (int a = 0; a < assets; a++) {
+                double price = panel.close(a)[t];
+                if (Double.isNaN(price)) {
+                    continue;
+                }
+                if (held[a]) {
+                    double move = price / entryPrice[a] - 1;
+                    boolean stopped = stopLoss > 0 && move <= -stopLoss;
+                    boolean targetHit = takeProfit > 0 && move >= takeProfit;
+                    if (stopped || targetHit || (signals[a][t] & EXIT) != 0) {
+                        cash += units[a] * price;
+                        units[a] = 0;
+                        held[a] = false;
+                        heldCount--;
+                        // Rebalancing resizes positions, so a trade counts as profitable on price alone
+                        if (price > entryPrice[a]) {
+                            profitableTrades[a]++;
+                        }
+                        changed = true;
+                    }
+                } else if ((signals[a][t] & ENTRY) != 0) {
+                    held[a] = true;
+                    heldCount++;
+                    entryPrice[a] = price;
+                    trades[a]++;
+                    changed = true;
+                }
+            }
+
+            value = cash;
+            for (int a = 0; a < assets; a++) {
+                if (units[a] != 0) {
+                    value += units[a] * panel.close(a)[t];
+                }
+            }
+
+            boolean scheduled = rebalanceFrequency > 0 && t % rebalanceFrequency == 0 && heldCount > 0;
+            if (changed || scheduled) {
+                double weight = heldCount == 0 ? 0 : positionSize / (fixedWeight ? assets : heldCount);
+                cash = value;
+                for (int a = 0; a < assets; a++) {
+                    if (held[a]) {
+                        double price = panel.close(a)[t];
+                        units[a] = weight * value / price;
+                        cash -= units[a] * price;
+                    }
+                }
+                rebalances++;
+            }
+
+            performance.update(value);
+            dates[t - 1] = (int) panel.date(t).toEpochDay();
+            values[t - 1] = value;
+        }
+
+        int totalTrades = Arrays.stream(trades).sum();
+        int totalProfitable = Arrays.stream(profitableTrades).sum();
+        Map<String, Object> results = performance
+                .metrics(request.getInitialCapital(), value, totalTrades, totalProfitable)
+                .toMap();
+        results.put("strategy_id", strategy.getStrategyId());
+        results.put("strategy_version", strategy.getVersionNumber());
+        results.put("rebalances", rebalances);
+
+        List<Map<String, Object>> assetResults = new ArrayList<>(assets);
+        for (int a = 0; a < assets; a++) {
+            Map<String, Object> asset = new HashMap<>();
+            asset.put("symbol", panel.symbol(a));
+            asset.put("total_trades", trades[a]);
+            asset.put("profitable_trades", profitableTrades[a]);
+            asset.put("final_weight", units[a] * panel.close(a)[bars - 1] / value);
+            assetResults.add(asset);
+        }
+        results.put("assets", assetResults);
+        return new BacktestResult(results, new EquityCurve(dates, values));
+    }
+
+    /**
+     * ENTRY and EXIT flags per bar for one asset, from its first real bar on
+     */
+    private static byte[] signals(PricePanel panel, int asset, CompiledStrategy strategy) {
+        int bars = panel.barCount();
+        byte[] signals = new byte[bars];
+        int first = panel.firstBar(asset);
+        if (first >= bars) {
+            return signals;
+        }
+
+        double[] closes = first == 0 ? panel.close(asset) : Arrays.copyOfRange(panel.close(asset), first, bars);
+        TechnicalIndicators.Series indicators = strategy.computeIndicators(closes);
+        CompiledStrategy.BarRule entryRule = strategy.getEntryRule();
+        CompiledStrategy.BarRule exitRule = strategy.getExitRule();
+        for (int i = 0; i < closes.length; i++) {
+            byte flags = 0;
+            if (entryRule.test(indicators, i)) {
+                flags |= ENTRY;
+            }
+            if (exitRule.test(indicators, i)) {
+                flags |= EXIT;
+            }
+            signals[first + i] = flags;
+        }
+        return signals;
+    }
+}
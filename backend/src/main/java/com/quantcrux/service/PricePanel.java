@@ -0,0 +1,145 @@
+package com.quantcrux.service;
+
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Daily OHLCV for several assets on one common calendar, stored column-wise:
+ * one primitive array per field per asset, indexed by bar.
+ *
+ * The calendar is the union of every asset's dates. Where an asset has no bar
+ * its prices are carried forward from its previous bar with zero volume; before
+ * an asset's first bar its prices are NaN.
+ */
+public class PricePanel {
+
+    private final String[] symbols;
+    private final LocalDate[] dates;
+    private final double[][] open;
+    private final double[][] high;
+    private final double[][] low;
+    private final double[][] close;
+    private final long[][] volume;
+    private final int[] firstBar;
+
+    private PricePanel(String[] symbols, LocalDate[] dates, double[][] open, double[][] high, double[][] low,
+                       double[][] close, long[][] volume, int[] firstBar) {
+        this.symbols = symbols;
+        this.dates = dates;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+        this.firstBar = firstBar;
+    }
+
+    public int assetCount() { return symbols.length; }
+
+    public int barCount() { return dates.length; }
+
+    public String symbol(int asset) { return symbols[asset]; }
+
+    public LocalDate date(int bar) { return dates[bar]; }
+
+    public double[] open(int asset) { return open[asset]; }
+
+    public double[] high(int asset) { return high[asset]; }
+
+    public double[] low(int asset) { return low[asset]; }
+
+    public double[] close(int asset) { return close[asset]; }
+
+    public long[] volume(int asset) { return volume[asset]; }
+
+    /**
+     * First bar with a real price for the asset, or barCount() if it has none
+     */
+    public int firstBar(int asset) { return firstBar[asset]; }
+
+    /**
+     * Collects each asset's columns, then aligns them on one calendar.
+     */
+    public static class Builder {
+        private final List<String> symbols = new ArrayList<>();
+        private final List<long[]> days = new ArrayList<>();
+        private final List<double[][]> prices = new ArrayList<>();
+        private final List<long[]> volumes = new ArrayList<>();
+
+        /**
+         * Add an asset's daily bars
+         */
+        public Builder add(BarSeries bars) {
+            long[] timestamps = bars.timestamps();
+            long[] epochDays = new long[timestamps.length];
+            for (int i = 0; i < epochDays.length; i++) {
+                epochDays[i] = BarSeries.epochDay(timestamps[i]);
+                if (i > 0 && epochDays[i] <= epochDays[i - 1]) {
+                    throw new IllegalArgumentException("Market data for " + bars.symbol() + " is not daily");
+                }
+            }
+            symbols.add(bars.symbol());
+            days.add(epochDays);
+            prices.add(new double[][] {bars.open(), bars.high(), bars.low(), bars.close()});
+            volumes.add(bars.volume());
+            return this;
+        }
+
+        public PricePanel build() {
+            long[] calendar = days.stream().flatMapToLong(Arrays::stream).sorted().distinct().toArray();
+            int bars = calendar.length;
+            int assets = symbols.size();
+
+            double[][] open = new double[assets][];
+            double[][] high = new double[assets][];
+            double[][] low = new double[assets][];
+            double[][] close = new double[assets][];
+            long[][] volume = new long[assets][];
+            int[] firstBar = new int[assets];
+
+            for (int a = 0; a < assets; a++) {
+                long[] epochDays = days.get(a);
+                double[][] ohlc = prices.get(a);
+                open[a] = new double[bars];
+                high[a] = new double[bars];
+                low[a] = new double[bars];
+                close[a] = new double[bars];
+                volume[a] = new long[bars];
+                firstBar[a] = epochDays.length > 0 ? Arrays.binarySearch(calendar, epochDays[0]) : bars;
+
+                // Walk the calendar and the asset's own dates together
+                int next = 0;
+                double lastClose = Double.NaN;
+                for (int t = 0; t < bars; t++) {
+                    if (next < epochDays.length && epochDays[next] == calendar[t]) {
+                        open[a][t] = ohlc[0][next];
+                        high[a][t] = ohlc[1][next];
+                        low[a][t] = ohlc[2][next];
+                        close[a][t] = ohlc[3][next];
+                        volume[a][t] = volumes.get(a)[next];
+                        lastClose = close[a][t];
+                        next++;
+                    } else {
+                        open[a][t] = lastClose;
+                        high[a][t] = lastClose;
+                        low[a][t] = lastClose;
+                        close[a][t] = lastClose;
+                    }
+                }
+                // Release the per-asset columns as they are copied
+                days.set(a, null);
+                prices.set(a, null);
+                volumes.set(a, null);
+            }
+
+            LocalDate[] dates = new LocalDate[bars];
+            for (int t = 0; t < bars; t++) {
+                dates[t] = LocalDate.ofEpochDay(calendar[t]);
+            }
+            return new PricePanel(symbols.toArray(new String[0]), dates, open, high, low, close, volume, firstBar);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.PricingRequest;
+import com.quantcrux.dto.PricingResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of priced results with a time-to-live.
+ *
+ * Keys quantise the market inputs, so requests that differ by less than the
+ * configured tolerances share an entry. Entries tagged with an underlying are
+ * dropped once that underlying's market price moves beyond the threshold.
+ */
+@Component
+public class PricingCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final double priceTolerance;
+    private final double parameterTolerance;
+    private final double invalidationThreshold;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Double> referencePrices = new HashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+    private final Counter marketEvictions;
+
+    public PricingCache(MeterRegistry meterRegistry,
+                        @Value("${pricing.cache.max-entries:10000}") int maxEntries,
+                        @Value("${pricing.cache.ttl-ms:60000}") long ttlMs,
+                        @Value("${pricing.cache.price-tolerance:0.0001}") double priceTolerance,
+                        @Value("${pricing.cache.parameter-tolerance:0.00001}") double parameterTolerance,
+                        @Value("${pricing.cache.invalidation-threshold:0.005}") double invalidationThreshold) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.priceTolerance = priceTolerance;
+        this.parameterTolerance = parameterTolerance;
+        this.invalidationThreshold = invalidationThreshold;
+
+        this.hits = meterRegistry.counter("pricing.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("pricing.cache.requests", "result", "miss");
+        this.sizeEvictions = meterRegistry.counter("pricing.cache.evictions", "cause", "size");
+        this.expiredEvictions = meterRegistry.counter("pricing.cache.evictions", "cause", "expired");
+        this.marketEvictions = meterRegistry.counter("pricing.cache.evictions", "cause", "market_move");
+        Gauge.builder("pricing.cache.size", this, PricingCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Cached result for the request, or the priced one, which is then cached.
+     * Pricing runs outside the lock, so a cold key may be priced more than once.
+     * The cache keeps its own copy and hands every hit a fresh one, so callers
+     * may change the result they get.
+     */
+    public PricingResult get(PricingRequest request, Supplier<PricingResult> pricer) {
+        if (maxEntries <= 0) {
+            return pricer.get();
+        }
+
+        String key = key(request);
+        long now = System.nanoTime();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (now - entry.createdAt < ttlNanos) {
+                    hits.increment();
+                    return new PricingResult(entry.result);
+                }
+                entries.remove(key);
+                expiredEvictions.increment();
+            }
+        }
+
+        misses.increment();
+        PricingResult result = pricer.get();
+
+        synchronized (this) {
+            entries.put(key, new Entry(new PricingResult(result), request.getUnderlyingAsset(), now));
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (entries.size() > maxEntries) {
+                eldest.next();
+                eldest.remove();
+                sizeEvictions.increment();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Record a new market price. When it is more than the threshold away from the
+     * price at the last invalidation, every entry on that underlying is dropped.
+     */
+    public synchronized void onMarketMove(String underlyingAsset, double price) {
+        Double reference = referencePrices.get(underlyingAsset);
+        if (reference != null && Math.abs(price / reference - 1) <= invalidationThreshold) {
+            return;
+        }
+        referencePrices.put(underlyingAsset, price);
+        if (reference == null) {
+            return;
+        }
+
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (underlyingAsset.equals(it.next().underlyingAsset)) {
+                it.remove();
+                marketEvictions.increment();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Prices are quantised on a log scale (relative tolerance), rates, volatility,
+     * coupon and maturity on a linear one (absolute tolerance). Every setting that
+     * changes the result is part of the key.
+     */
+    private String key(PricingRequest request) {
+        StringBuilder key = new StringBuilder(128);
+        key.append(request.getProductType().toLowerCase())
+            .append('|').append(request.getUnderlyingAsset())
+            .append('|').append(quantisePrice(request.getSpotPrice()))
+            .append('|').append(quantisePrice(request.getStrike()))
+            .append('|').append(quantisePrice(request.getBarrier()))
+            .append('|').append(quantise(request.getCoupon()))
+            .append('|').append(quantise(request.getVolatility()))
+            .append('|').append(quantise(request.getRiskFreeRate()))
+            .append('|').append(quantise(request.getTimeToMaturity()))
+            .append('|').append(request.getNumSimulations())
+            .append('|').append(request.getSeed())
+            .append('|').append(request.getTargetPrecision())
+            .append('|').append(request.getMaxSimulations())
+            .append('|').append(request.getMaxTimeMs())
+            .append('|').append(request.getForceMonteCarlo())
+            .append('|').append(request.getGreeksMethod())
+            .append('|').append(request.getSampler())
+            .append('|').append(request.getQmcReplicates())
+            .append('|').append(request.getAntitheticVariates())
+            .append('|').append(request.getControlVariate())
+            .append('|').append(request.getMomentMatching())
+            .append('|').append(request.getMonitoringFrequency())
+            .append('|').append(request.getBarrierCorrection());
+        return key.toString();
+    }
+
+    private String quantisePrice(Double value) {
+        if (value == null) {
+            return "-";
+        }
+        if (value <= 0) {
+            return "z" + quantise(value);
+        }
+        return Long.toString(Math.round(Math.log(value) / priceTolerance));
+    }
+
+    private String quantise(Double value) {
+        if (value == null) {
+            return "-";
+        }
+        return Long.toString(Math.round(value / parameterTolerance));
+    }
+
+    private static class Entry {
+        final PricingResult result;
+        final String underlyingAsset;
+        final long createdAt;
+
+        Entry(PricingResult result, String underlyingAsset, long createdAt) {
+            this.result = result;
+            this.underlyingAsset = underlyingAsset;
+            this.createdAt = createdAt;
+        }
+    }
+}
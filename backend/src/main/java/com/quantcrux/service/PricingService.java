@@ -2,124 +2,453 @@ package com.quantcrux.service;
 
 import com.quantcrux.dto.PricingRequest;
 import com.quantcrux.dto.PricingResult;
-import org.apache.commons.math3.distribution.NormalDistribution;
+import org.apache.commons.math3.distribution.TDistribution;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Random;
+import java.util.function.DoubleUnaryOperator;
 
 @Service
 public class PricingService {
 
-    private final Random random = new Random(42); // Fixed seed for consistent results
-    private final NormalDistribution normalDist = new NormalDistribution();
+    private static final long DEFAULT_SEED = 42L; // Fixed seed for consistent results
+    private static final int DEFAULT_QMC_REPLICATES = 16;
+    private static final int DEFAULT_MAX_SIMULATIONS = 1_000_000;
+    private static final long DEFAULT_MAX_TIME_MS = 10_000L;
 
+    // Bump sizes for the finite-difference Greeks
+    private static final double SPOT_BUMP = 0.01;
+    private static final double VOL_BUMP = 0.01;
+    private static final double TIME_BUMP = 1.0 / 365.0;
+
+    // Per-path outputs of the single Greeks pass, all discounted
+    private static final int BASE = 0;
+    private static final int SPOT_UP = 1;
+    private static final int SPOT_DOWN = 2;
+    private static final int VOL_UP = 3;
+    private static final int TIME_DOWN = 4;
+    private static final int PATHWISE_DELTA = 5;
+    private static final int PATHWISE_VEGA = 6;
+    private static final int LR_DELTA = 7;
+    private static final int LR_GAMMA = 8;
+    private static final int LR_VEGA = 9;
+    private static final int CONTROL = 10;
+    private static final int BASE_SQUARED = 11;
+    private static final int NUM_OUTPUTS = 12;
+
+    @Autowired
+    private MonteCarloEngine monteCarloEngine;
+
+    @Autowired
+    private AnalyticPricingService analyticPricingService;
+
+    @Autowired
+    private PricingCache pricingCache;
+
+    /**
+     * Closed-form price when the payoff has one, Monte Carlo otherwise or when forced.
+     * Results are served from the pricing cache while fresh.
+     */
     public PricingResult calculatePrice(PricingRequest request) {
-        return monteCarloPrice(request);
+        return pricingCache.get(request, () -> {
+            if (!Boolean.TRUE.equals(request.getForceMonteCarlo()) && analyticPricingService.supports(request)) {
+                return analyticPricingService.price(request);
+            }
+            return monteCarloPrice(request);
+        });
     }
 
+    /**
+     * Price and Greeks from one simulation pass. Every bumped scenario is
+     * revalued on the same shocks as the base price (common random numbers).
+     */
     public PricingResult monteCarloPrice(PricingRequest request) {
+        long startTime = System.nanoTime();
         int numSimulations = request.getNumSimulations();
-        double[] payoffs = new double[numSimulations];
-        
-        for (int i = 0; i < numSimulations; i++) {
-            double finalPrice = simulatePrice(request.getSpotPrice(), request.getVolatility(), 
-                                            request.getRiskFreeRate(), request.getTimeToMaturity());
-            payoffs[i] = calculatePayoff(finalPrice, request);
+        long seed = request.getSeed() != null ? request.getSeed() : DEFAULT_SEED;
+        double spot = request.getSpotPrice();
+        boolean continuousPayoff = isContinuousPayoff(request);
+
+        ShockSampler sampler = ShockSampler.forName(request.getSampler());
+        MonteCarloEngine.Options options = new MonteCarloEngine.Options(seed);
+        options.setSampler(sampler);
+        if (sampler.isQuasiRandom()) {
+            // Quasi-random points are not independent, so the error comes from scrambled replicates
+            options.setReplicates(request.getQmcReplicates() != null ? request.getQmcReplicates() : DEFAULT_QMC_REPLICATES);
+            options.setBrownianBridge(true);
+        }
+        options.setAntithetic(Boolean.TRUE.equals(request.getAntitheticVariates()));
+        options.setMomentMatching(Boolean.TRUE.equals(request.getMomentMatching()));
+        boolean controlVariate = Boolean.TRUE.equals(request.getControlVariate());
+        if (controlVariate) {
+            options.setControlOutput(CONTROL);
+        }
+
+        // Target-precision mode grows the run in rounds until the interval is tight enough
+        Double targetPrecision = request.getTargetPrecision();
+        MonteCarloEngine.StopCondition stopCondition = null;
+        if (targetPrecision != null) {
+            numSimulations = request.getMaxSimulations() != null ? request.getMaxSimulations() : DEFAULT_MAX_SIMULATIONS;
+            long maxTimeNanos = (request.getMaxTimeMs() != null ? request.getMaxTimeMs() : DEFAULT_MAX_TIME_MS) * 1_000_000L;
+            stopCondition = running -> estimatePrice(running, controlVariate, spot).confidenceInterval <= targetPrecision
+                || System.nanoTime() - startTime >= maxTimeNanos;
+        }
+
+        // Paths are spread across the engine's worker pool, one sampler cursor per chunk
+        MonteCarloEngine.Result result;
+        if (isMonitoredBarrier(request)) {
+            int steps = monitoringSteps(request);
+            options.setDimension(steps);
+            result = monteCarloEngine.simulatePaths(numSimulations, options, NUM_OUTPUTS,
+                barrierPathEvaluator(request, steps), stopCondition);
+        } else {
+            MonteCarloEngine.VectorPathEvaluator evaluator = terminalEvaluator(request, continuousPayoff);
+            result = monteCarloEngine.simulatePaths(numSimulations, options, NUM_OUTPUTS,
+                (shocks, out) -> evaluator.evaluate(shocks[0], out), stopCondition);
+        }
+
+        MonteCarloEngine.Estimate[] estimates = result.getEstimates();
+        int pathsUsed = (int) result.getNumPaths();
+        PriceEstimate estimate = estimatePrice(result, controlVariate, spot);
+
+        Map<String, Double> greeks = calculateGreeks(request, estimates, continuousPayoff);
+
+        PricingResult pricingResult = new PricingResult(estimate.price, greeks, estimate.confidenceInterval, pathsUsed);
+        pricingResult.setVarianceReductionFactor(varianceReductionFactor(estimates, pathsUsed, estimate.estimatorVariance));
+        pricingResult.setQmcErrorEstimate(estimate.fromReplicates ? estimate.confidenceInterval : null);
+        pricingResult.setPricingMethod("monte_carlo");
+        pricingResult.setElapsedMs((System.nanoTime() - startTime) / 1_000_000L);
+        if (targetPrecision != null) {
+            pricingResult.setTargetPrecisionReached(estimate.confidenceInterval <= targetPrecision);
+        }
+        return pricingResult;
+    }
+
+    /**
+     * Price and 95% half-width of a (possibly partial) run. With replicates the error
+     * comes from their spread, otherwise from the per-path variance.
+     */
+    private PriceEstimate estimatePrice(MonteCarloEngine.Result result, boolean controlVariate, double spot) {
+        MonteCarloEngine.Estimate base = result.getEstimate(BASE);
+
+        // Control variate coefficient from the pooled sample
+        double beta = 0;
+        double residualVariance = base.getVariance();
+        MonteCarloEngine.Estimate control = result.getEstimate(CONTROL);
+        if (controlVariate && control.getVariance() > 0) {
+            double covariance = result.getCovariance().getCovariance();
+            beta = covariance / control.getVariance();
+            residualVariance = Math.max(residualVariance - covariance * beta, 0);
         }
-        
-        // Calculate statistics
-        double meanPayoff = java.util.Arrays.stream(payoffs).average().orElse(0);
-        double variance = java.util.Arrays.stream(payoffs)
-            .map(p -> Math.pow(p - meanPayoff, 2))
-            .average().orElse(0);
-        double stdDev = Math.sqrt(variance);
-        
-        // Discount to present value
-        double price = meanPayoff * Math.exp(-request.getRiskFreeRate() * request.getTimeToMaturity());
-        
-        // Calculate Greeks (simplified finite difference)
-        Map<String, Double> greeks = calculateGreeks(request);
-        
-        // 95% confidence interval
-        double confidenceInterval = 1.96 * stdDev / Math.sqrt(numSimulations);
-        
-        return new PricingResult(price, greeks, confidenceInterval, numSimulations);
-    }
-    
-    private double simulatePrice(double spot, double volatility, double riskFreeRate, double timeToMaturity) {
+
+        PriceEstimate estimate = new PriceEstimate();
+        MonteCarloEngine.Result[] replicates = result.getReplicates();
+        if (replicates.length > 1) {
+            // Randomised QMC: the spread of independent replicate prices is the error estimate
+            MonteCarloEngine.Estimate spread = new MonteCarloEngine.Estimate();
+            for (MonteCarloEngine.Result replicate : replicates) {
+                spread.add(controlledPrice(replicate, beta, spot));
+            }
+            int n = replicates.length;
+            estimate.price = spread.getMean();
+            estimate.estimatorVariance = spread.getVariance() / (n - 1);
+            double tQuantile = new TDistribution(null, n - 1).inverseCumulativeProbability(0.975);
+            estimate.confidenceInterval = tQuantile * Math.sqrt(estimate.estimatorVariance);
+            estimate.fromReplicates = true;
+        } else {
+            estimate.price = controlledPrice(result, beta, spot);
+            estimate.estimatorVariance = residualVariance / base.getCount();
+            // 95% confidence interval
+            estimate.confidenceInterval = 1.96 * Math.sqrt(estimate.estimatorVariance);
+        }
+        return estimate;
+    }
+
+    /**
+     * Evaluator for payoffs that depend on the terminal price only, one shock per path
+     */
+    private MonteCarloEngine.VectorPathEvaluator terminalEvaluator(PricingRequest request, boolean continuousPayoff) {
+        double spot = request.getSpotPrice();
+        double volatility = request.getVolatility();
+        double riskFreeRate = request.getRiskFreeRate();
+        double timeToMaturity = request.getTimeToMaturity();
+        double shortenedMaturity = Math.max(timeToMaturity - TIME_BUMP, 0);
+
+        DoubleUnaryOperator payoff = payoffFunction(request);
+        double strike = request.getStrike();
+        double discount = Math.exp(-riskFreeRate * timeToMaturity);
+        double shortenedDiscount = Math.exp(-riskFreeRate * shortenedMaturity);
+        double sqrtT = Math.sqrt(timeToMaturity);
+
+        return (shock, out) -> {
+            double finalPrice = simulatePrice(spot, volatility, riskFreeRate, timeToMaturity, shock);
+            double basePayoff = discount * payoff.applyAsDouble(finalPrice);
+
+            out[BASE] = basePayoff;
+            // Terminal price is linear in spot, so spot bumps just rescale it
+            out[SPOT_UP] = discount * payoff.applyAsDouble(finalPrice * (1 + SPOT_BUMP));
+            out[SPOT_DOWN] = discount * payoff.applyAsDouble(finalPrice * (1 - SPOT_BUMP));
+            out[VOL_UP] = discount * payoff.applyAsDouble(
+                simulatePrice(spot, volatility + VOL_BUMP, riskFreeRate, timeToMaturity, shock));
+            out[TIME_DOWN] = shortenedDiscount * payoff.applyAsDouble(
+                simulatePrice(spot, volatility, riskFreeRate, shortenedMaturity, shock));
+
+            // Pathwise estimators differentiate the payoff itself (vanilla payoff only)
+            if (continuousPayoff && finalPrice > strike) {
+                out[PATHWISE_DELTA] = discount * finalPrice / spot;
+                out[PATHWISE_VEGA] = discount * finalPrice * (sqrtT * shock - volatility * timeToMaturity) * VOL_BUMP;
+            } else {
+                out[PATHWISE_DELTA] = 0;
+                out[PATHWISE_VEGA] = 0;
+            }
+
+            // Likelihood-ratio estimators differentiate the lognormal density instead
+            double volSqrtT = volatility * sqrtT;
+            out[LR_DELTA] = basePayoff * shock / (spot * volSqrtT);
+            out[LR_GAMMA] = basePayoff * ((shock * shock - 1) / (volSqrtT * volSqrtT) - shock / volSqrtT)
+                / (spot * spot);
+            out[LR_VEGA] = basePayoff * ((shock * shock - 1) / volatility - shock * sqrtT) * VOL_BUMP;
+
+            // Discounted terminal price, whose Black-Scholes expectation is today's spot
+            out[CONTROL] = discount * finalPrice;
+            out[BASE_SQUARED] = basePayoff * basePayoff;
+        };
+    }
+
+    /**
+     * Evaluator for a barrier digital on a time grid of steps shocks per path.
+     * A barrier above spot is up-and-in, a barrier at or below spot is down-and-out,
+     * as in the closed form. With the crossing correction, each step of the path is
+     * treated as a Brownian bridge and the terminal payoff is weighted by the exact
+     * probability of having touched the barrier, so a coarse grid still prices
+     * continuous monitoring. Without it the barrier is observed on grid dates only.
+     */
+    private MonteCarloEngine.MultiStepEvaluator barrierPathEvaluator(PricingRequest request, int steps) {
+        double spot = request.getSpotPrice();
+        double volatility = request.getVolatility();
+        double riskFreeRate = request.getRiskFreeRate();
+        double timeToMaturity = request.getTimeToMaturity();
+        double shortenedMaturity = Math.max(timeToMaturity - TIME_BUMP, 0);
+        double barrier = request.getBarrier();
+        double couponPayout = request.getCoupon() * 100;
+        boolean upAndIn = barrier > spot;
+        boolean correction = !Boolean.FALSE.equals(request.getBarrierCorrection());
+
+        // Paths are walked in log distance to the barrier, x = ln(S / barrier)
+        double startDistance = Math.log(spot / barrier);
+        double strikeDistance = Math.log(request.getStrike() / barrier);
+        double spotUpShift = Math.log1p(SPOT_BUMP);
+        double spotDownShift = Math.log1p(-SPOT_BUMP);
+        double discount = Math.exp(-riskFreeRate * timeToMaturity);
+        double shortenedDiscount = Math.exp(-riskFreeRate * shortenedMaturity);
+        double dt = timeToMaturity / steps;
+        double shortenedDt = shortenedMaturity / steps;
+        double sqrtDt = Math.sqrt(dt);
+        double volSqrtDt = volatility * sqrtDt;
+
+        BarrierPath basePath = new BarrierPath(volatility, riskFreeRate, dt, upAndIn, correction);
+        BarrierPath bumpedVolPath = new BarrierPath(volatility + VOL_BUMP, riskFreeRate, dt, upAndIn, correction);
+        BarrierPath shortenedPath = new BarrierPath(volatility, riskFreeRate, shortenedDt, upAndIn, correction);
+
+        return (shocks, out) -> {
+            double shockSum = 0;
+            double scoreVega = 0;
+            for (int i = 0; i < steps; i++) {
+                double z = shocks[i];
+                shockSum += z;
+                scoreVega += (z * z - 1) / volatility - z * sqrtDt;
+            }
+
+            double basePayoff = discount * couponPayout
+                * basePath.payoffWeight(shocks, startDistance, strikeDistance);
+            out[BASE] = basePayoff;
+            out[SPOT_UP] = discount * couponPayout
+                * basePath.payoffWeight(shocks, startDistance + spotUpShift, strikeDistance);
+            out[SPOT_DOWN] = discount * couponPayout
+                * basePath.payoffWeight(shocks, startDistance + spotDownShift, strikeDistance);
+            out[VOL_UP] = discount * couponPayout
+                * bumpedVolPath.payoffWeight(shocks, startDistance, strikeDistance);
+            out[TIME_DOWN] = shortenedDiscount * couponPayout
+                * shortenedPath.payoffWeight(shocks, startDistance, strikeDistance);
+
+            // Digital payoffs have no pathwise derivative
+            out[PATHWISE_DELTA] = 0;
+            out[PATHWISE_VEGA] = 0;
+
+            // Only the first step depends on today's spot; vega scores every step
+            double first = shocks[0];
+            out[LR_DELTA] = basePayoff * first / (spot * volSqrtDt);
+            out[LR_GAMMA] = basePayoff * ((first * first - 1) / (volSqrtDt * volSqrtDt) - first / volSqrtDt)
+                / (spot * spot);
+            out[LR_VEGA] = basePayoff * scoreVega * VOL_BUMP;
+
+            double finalPrice = spot * Math.exp((riskFreeRate - 0.5 * volatility * volatility) * timeToMaturity
+                + volSqrtDt * shockSum);
+            out[CONTROL] = discount * finalPrice;
+            out[BASE_SQUARED] = basePayoff * basePayoff;
+        };
+    }
+
+    /**
+     * The price and its error, from the replicate spread when there are replicates
+     */
+    private static class PriceEstimate {
+        double price;
+        double estimatorVariance;
+        double confidenceInterval;
+        boolean fromReplicates;
+    }
+
+    /**
+     * One scenario's grid walk. Holds only per-request constants, so the same
+     * instance is shared by all worker threads and the walk allocates nothing.
+     */
+    private static class BarrierPath {
+        private static final double MIN_CROSSING_EXPONENT = -40; // exp(-40) ~ 4e-18
+        private final double drift;
+        private final double diffusion;
+        private final double crossingScale;
+        private final boolean upAndIn;
+
+        BarrierPath(double volatility, double riskFreeRate, double dt, boolean upAndIn, boolean correction) {
+            this.drift = (riskFreeRate - 0.5 * volatility * volatility) * dt;
+            this.diffusion = volatility * Math.sqrt(dt);
+            // Bridge crossing probability between x1 and x2 on the same side: exp(-2 x1 x2 / (vol^2 dt))
+            this.crossingScale = correction && dt > 0 ? -2 / (volatility * volatility * dt) : 0;
+            this.upAndIn = upAndIn;
+        }
+
+        /**
+         * Fraction of the cash amount paid on this path: zero out of the money,
+         * otherwise the knock-in probability (up) or survival probability (down)
+         */
+        double payoffWeight(double[] shocks, double startDistance, double strikeDistance) {
+            double side = upAndIn ? 1 : -1;
+            double x = startDistance;
+            double survival = side * x >= 0 ? 0 : 1;
+            for (double shock : shocks) {
+                double next = x + drift + diffusion * shock;
+                if (survival > 0) {
+                    if (side * next >= 0) {
+                        survival = 0;
+                    } else if (crossingScale != 0) {
+                        // Far from the barrier the crossing probability underflows, so skip the exp
+                        double exponent = crossingScale * x * next;
+                        if (exponent > MIN_CROSSING_EXPONENT) {
+                            survival *= 1 - Math.exp(exponent);
+                        }
+                    }
+                }
+                x = next;
+            }
+            if (x <= strikeDistance) {
+                return 0;
+            }
+            return upAndIn ? 1 - survival : survival;
+        }
+    }
+
+    private double controlledPrice(MonteCarloEngine.Result result, double beta, double spot) {
+        return result.getEstimate(BASE).getMean() - beta * (result.getEstimate(CONTROL).getMean() - spot);
+    }
+
+    /**
+     * Plain Monte Carlo estimator variance over the achieved one, for the same path budget.
+     * The plain payoff variance comes from E[X^2] - E[X]^2, which stays unbiased under
+     * antithetic pairing and moment matching. Moment matching couples the paths
+     * of a chunk, so its gain does not show up in the per-path variance.
+     */
+    private Double varianceReductionFactor(MonteCarloEngine.Estimate[] estimates, int numSimulations,
+                                           double estimatorVariance) {
+        double mean = estimates[BASE].getMean();
+        double plainVariance = Math.max(estimates[BASE_SQUARED].getMean() - mean * mean, 0) / numSimulations;
+        if (estimatorVariance <= 0) {
+            return null; // No residual noise, e.g. a payoff that is constant across paths
+        }
+        return Math.round(plainVariance / estimatorVariance * 100.0) / 100.0;
+    }
+
+    private double simulatePrice(double spot, double volatility, double riskFreeRate, double timeToMaturity,
+                                 double randomShock) {
         double drift = riskFreeRate - 0.5 * volatility * volatility;
-        double randomShock = normalDist.sample();
         return spot * Math.exp(drift * timeToMaturity + volatility * Math.sqrt(timeToMaturity) * randomShock);
     }
-    
-    private double calculatePayoff(double finalPrice, PricingRequest request) {
+
+    /**
+     * Resolve the payoff once per request so the path loop does no string work
+     */
+    private DoubleUnaryOperator payoffFunction(PricingRequest request) {
+        double strike = request.getStrike();
+        double couponPayout = request.getCoupon() * 100;
         return switch (request.getProductType().toLowerCase()) {
-            case "digital_option" -> finalPrice > request.getStrike() ? request.getCoupon() * 100 : 0;
-            case "barrier_option" -> {
-                if (request.getBarrier() != null) {
-                    yield finalPrice > request.getBarrier() && finalPrice > request.getStrike() ? 
-                        request.getCoupon() * 100 : 0;
-                } else {
-                    yield finalPrice > request.getStrike() ? request.getCoupon() * 100 : 0;
-                }
-            }
-            default -> Math.max(finalPrice - request.getStrike(), 0);
+            // Without a barrier level the barrier option is a plain digital; a set barrier
+            // is monitored along the path by barrierPathEvaluator
+            case "digital_option", "barrier_option" -> finalPrice -> finalPrice > strike ? couponPayout : 0;
+            // Every other type, dual_currency included, pays a vanilla call, as AnalyticPricingService assumes
+            default -> finalPrice -> Math.max(finalPrice - strike, 0);
         };
     }
-    
-    private Map<String, Double> calculateGreeks(PricingRequest request) {
+
+    private boolean isMonitoredBarrier(PricingRequest request) {
+        return request.getProductType().equalsIgnoreCase("barrier_option") && request.getBarrier() != null;
+    }
+
+    /**
+     * Whether the payoff weight carries the bridge crossing correction. The weight
+     * then depends on spot and volatility directly, which the likelihood ratio
+     * scores of the path density leave out, so such barriers keep the finite
+     * difference Greeks.
+     */
+    private boolean hasCorrectedBarrier(PricingRequest request) {
+        return isMonitoredBarrier(request) && !Boolean.FALSE.equals(request.getBarrierCorrection());
+    }
+
+    /**
+     * Grid dates over the option's life at the requested observations per year
+     */
+    private int monitoringSteps(PricingRequest request) {
+        int frequency = request.getMonitoringFrequency() != null ? request.getMonitoringFrequency() : 52;
+        return Math.max(1, (int) Math.ceil(frequency * request.getTimeToMaturity() - 1e-9));
+    }
+
+    private boolean isContinuousPayoff(PricingRequest request) {
+        String productType = request.getProductType().toLowerCase();
+        return !productType.equals("digital_option") && !productType.equals("barrier_option");
+    }
+
+    private Map<String, Double> calculateGreeks(PricingRequest request, MonteCarloEngine.Estimate[] estimates,
+                                                boolean continuousPayoff) {
         Map<String, Double> greeks = new HashMap<>();
-        
-        // Simplified Greeks calculation using finite differences
-        double epsilon = 0.01;
-        
-        // Delta: sensitivity to underlying price
-        PricingRequest upRequest = copyRequest(request);
-        upRequest.setSpotPrice(request.getSpotPrice() * (1 + epsilon));
-        double priceUp = monteCarloPrice(upRequest).getPrice();
-        
-        PricingRequest downRequest = copyRequest(request);
-        downRequest.setSpotPrice(request.getSpotPrice() * (1 - epsilon));
-        double priceDown = monteCarloPrice(downRequest).getPrice();
-        
-        double delta = (priceUp - priceDown) / (2 * request.getSpotPrice() * epsilon);
+        double spotBump = request.getSpotPrice() * SPOT_BUMP;
+        double basePrice = estimates[BASE].getMean();
+        double priceUp = estimates[SPOT_UP].getMean();
+        double priceDown = estimates[SPOT_DOWN].getMean();
+
+        // Finite differences on common random numbers
+        double delta = (priceUp - priceDown) / (2 * spotBump);
+        double gamma = (priceUp - 2 * basePrice + priceDown) / (spotBump * spotBump);
+        double vega = estimates[VOL_UP].getMean() - basePrice;
+        double theta = estimates[TIME_DOWN].getMean() - basePrice;
+
+        String method = request.getGreeksMethod() != null ? request.getGreeksMethod().toLowerCase() : "finite_difference";
+        if (method.equals("pathwise") && continuousPayoff) {
+            delta = estimates[PATHWISE_DELTA].getMean();
+            vega = estimates[PATHWISE_VEGA].getMean();
+        } else if ((method.equals("pathwise") || method.equals("likelihood_ratio"))
+                && !hasCorrectedBarrier(request)) {
+            // Pathwise needs a differentiable payoff, so digital and barrier payoffs use likelihood ratio
+            delta = estimates[LR_DELTA].getMean();
+            gamma = estimates[LR_GAMMA].getMean();
+            vega = estimates[LR_VEGA].getMean();
+        }
+
         greeks.put("delta", Math.round(delta * 10000.0) / 10000.0);
-        
-        // Gamma: second derivative with respect to spot
-        double basePrice = calculatePrice(request).getPrice();
-        double gamma = (priceUp - 2 * basePrice + priceDown) / Math.pow(request.getSpotPrice() * epsilon, 2);
         greeks.put("gamma", Math.round(gamma * 10000.0) / 10000.0);
-        
-        // Vega: sensitivity to volatility
-        PricingRequest vegaRequest = copyRequest(request);
-        vegaRequest.setVolatility(request.getVolatility() + 0.01);
-        double vegaPrice = calculatePrice(vegaRequest).getPrice();
-        double vega = vegaPrice - basePrice;
         greeks.put("vega", Math.round(vega * 10000.0) / 10000.0);
-        
-        // Theta: time decay
-        PricingRequest thetaRequest = copyRequest(request);
-        thetaRequest.setTimeToMaturity(request.getTimeToMaturity() - 1.0/365.0);
-        double thetaPrice = calculatePrice(thetaRequest).getPrice();
-        double theta = thetaPrice - basePrice;
         greeks.put("theta", Math.round(theta * 10000.0) / 10000.0);
-        
+
         return greeks;
     }
-    
-    private PricingRequest copyRequest(PricingRequest original) {
-        PricingRequest copy = new PricingRequest();
-        copy.setProductType(original.getProductType());
-        copy.setSpotPrice(original.getSpotPrice());
-        copy.setStrike(original.getStrike());
-        copy.setBarrier(original.getBarrier());
-        copy.setCoupon(original.getCoupon());
-        copy.setVolatility(original.getVolatility());
-        copy.setRiskFreeRate(original.getRiskFreeRate());
-        copy.setTimeToMaturity(original.getTimeToMaturity());
-        copy.setNumSimulations(10000); // Use fewer simulations for Greeks calculation
-        return copy;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,28 @@
+package com.quantcrux.service;
+
+import java.util.SplittableRandom;
+
+/**
+ * Independent normal draws from a SplittableRandom stream per chunk
+ */
+public class PseudoRandomSampler implements ShockSampler {
+
+    public static final PseudoRandomSampler INSTANCE = new PseudoRandomSampler();
+
+    @Override
+    public PointSet create(int dimension, long seed) {
+        return (from, streamSeed) -> {
+            SplittableRandom rng = new SplittableRandom(streamSeed);
+            return normals -> {
+                for (int j = 0; j < dimension; j++) {
+                    normals[j] = rng.nextGaussian();
+                }
+            };
+        };
+    }
+
+    @Override
+    public boolean isQuasiRandom() {
+        return false;
+    }
+}
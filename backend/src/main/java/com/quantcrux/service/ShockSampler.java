@@ -0,0 +1,52 @@
+package com.quantcrux.service;
+
+import org.apache.commons.math3.special.Erf;
+
+/**
+ * Source of standard normal shocks for the Monte Carlo engine.
+ *
+ * A sampler creates randomised point sets; the engine reads each chunk of a
+ * point set through its own cursor, so chunks can run on any thread.
+ */
+public interface ShockSampler {
+
+    /**
+     * One randomised point set of the given dimension
+     */
+    PointSet create(int dimension, long seed);
+
+    /**
+     * Whether points are low-discrepancy, so errors have to come from independent randomisations
+     */
+    boolean isQuasiRandom();
+
+    static ShockSampler forName(String name) {
+        if (name == null) {
+            return PseudoRandomSampler.INSTANCE;
+        }
+        return switch (name.toLowerCase()) {
+            case "pseudo_random" -> PseudoRandomSampler.INSTANCE;
+            case "sobol" -> SobolSampler.INSTANCE;
+            case "halton" -> HaltonSampler.INSTANCE;
+            default -> throw new IllegalArgumentException("Unknown sampler: " + name);
+        };
+    }
+
+    /**
+     * Map a uniform in (0, 1) to a standard normal
+     */
+    static double inverseNormal(double u) {
+        return Math.sqrt(2) * Erf.erfInv(2 * u - 1);
+    }
+
+    interface PointSet {
+        /**
+         * Cursor over points from, from + 1, ... of this set; streamSeed is unique per chunk
+         */
+        Cursor cursor(long from, long streamSeed);
+    }
+
+    interface Cursor {
+        void next(double[] normals);
+    }
+}
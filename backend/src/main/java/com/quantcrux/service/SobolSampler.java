@@ -0,0 +1,158 @@
+package com.quantcrux.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+/**
+ * Sobol sequence with random linear scrambling and a digital shift.
+ *
+ * Direction numbers are the Joe-Kuo set shipped with commons-math. Each point
+ * set gets its own scrambling matrices, so independent point sets give an
+ * unbiased randomised-QMC error estimate.
+ */
+public class SobolSampler implements ShockSampler {
+
+    public static final SobolSampler INSTANCE = new SobolSampler();
+
+    private static final String DIRECTION_NUMBERS = "/assets/org/apache/commons/math3/random/new-joe-kuo-6.1000";
+    private static final int BITS = 32;
+    private static final double NORMALISER = 1.0 / (1L << BITS);
+
+    @Override
+    public PointSet create(int dimension, long seed) {
+        int[][] base = DirectionNumbers.forDimension(dimension);
+        SplittableRandom rng = new SplittableRandom(seed);
+
+        int[][] directions = new int[dimension][BITS];
+        int[] shifts = new int[dimension];
+        for (int j = 0; j < dimension; j++) {
+            int[] rows = randomLowerTriangular(rng);
+            for (int k = 0; k < BITS; k++) {
+                directions[j][k] = scramble(rows, base[j][k]);
+            }
+            shifts[j] = rng.nextInt();
+        }
+
+        return (from, streamSeed) -> new SobolCursor(directions, shifts, from);
+    }
+
+    @Override
+    public boolean isQuasiRandom() {
+        return true;
+    }
+
+    /**
+     * Rows of a random lower-triangular binary matrix with unit diagonal, most significant digit first
+     */
+    private static int[] randomLowerTriangular(SplittableRandom rng) {
+        int[] rows = new int[BITS];
+        for (int i = 0; i < BITS; i++) {
+            long above = (0xFFFFFFFFL << (BITS - i)) & 0xFFFFFFFFL;
+            rows[i] = (int) ((rng.nextLong() & above) | (1L << (BITS - 1 - i)));
+        }
+        return rows;
+    }
+
+    private static int scramble(int[] rows, int value) {
+        int result = 0;
+        for (int i = 0; i < BITS; i++) {
+            if ((Integer.bitCount(rows[i] & value) & 1) != 0) {
+                result |= 1 << (BITS - 1 - i);
+            }
+        }
+        return result;
+    }
+
+    private static class SobolCursor implements Cursor {
+        private final int[][] directions;
+        private final int[] state;
+        private long index;
+
+        SobolCursor(int[][] directions, int[] shifts, long from) {
+            this.directions = directions;
+            this.state = shifts.clone();
+            this.index = from;
+
+            // Jump straight to point 'from' through its Gray code
+            long gray = from ^ (from >>> 1);
+            for (int k = 0; gray != 0; k++, gray >>>= 1) {
+                if ((gray & 1) != 0) {
+                    for (int j = 0; j < state.length; j++) {
+                        state[j] ^= directions[j][k];
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void next(double[] normals) {
+            for (int j = 0; j < state.length; j++) {
+                normals[j] = ShockSampler.inverseNormal(((state[j] & 0xFFFFFFFFL) + 0.5) * NORMALISER);
+            }
+            int bit = Long.numberOfTrailingZeros(++index);
+            for (int j = 0; j < state.length; j++) {
+                state[j] ^= directions[j][bit];
+            }
+        }
+    }
+
+    /**
+     * Unscrambled direction numbers, parsed once and grown on demand
+     */
+    private static class DirectionNumbers {
+        private static int[][] table = new int[0][];
+
+        static synchronized int[][] forDimension(int dimension) {
+            if (table.length < dimension) {
+                table = load(dimension);
+            }
+            return table;
+        }
+
+        private static int[][] load(int dimension) {
+            int[][] directions = new int[dimension][BITS];
+            for (int k = 0; k < BITS; k++) {
+                directions[0][k] = 1 << (BITS - 1 - k);
+            }
+            if (dimension == 1) {
+                return directions;
+            }
+
+            InputStream in = SobolSampler.class.getResourceAsStream(DIRECTION_NUMBERS);
+            if (in == null) {
+                throw new IllegalStateException("Sobol direction numbers not found on the classpath");
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII))) {
+                reader.readLine(); // header
+                int d = 1;
+                String line;
+                while (d < dimension && (line = reader.readLine()) != null) {
+                    String[] fields = line.trim().split("\\s+");
+                    int s = Integer.parseInt(fields[1]);
+                    int a = Integer.parseInt(fields[2]);
+                    int[] v = directions[d];
+                    for (int i = 0; i < s && i < BITS; i++) {
+                        v[i] = Integer.parseInt(fields[3 + i]) << (BITS - 1 - i);
+                    }
+                    for (int i = s; i < BITS; i++) {
+                        v[i] = v[i - s] ^ (v[i - s] >>> s);
+                        for (int k = 1; k < s; k++) {
+                            v[i] ^= ((a >>> (s - 1 - k)) & 1) * v[i - k];
+                        }
+                    }
+                    d++;
+                }
+                if (d < dimension) {
+                    throw new IllegalArgumentException("Sobol sampler supports at most " + d + " dimensions");
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to read Sobol direction numbers: " + e.getMessage());
+            }
+            return directions;
+        }
+    }
+}
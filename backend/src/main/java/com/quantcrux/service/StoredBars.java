@@ -0,0 +1,67 @@
+package com.quantcrux.service;
+
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * A range of one symbol's bars read from the BarStore. The columns are views of
+ * the memory-mapped column files, so nothing is copied until toSeries() is called.
+ */
+public class StoredBars {
+
+    private final String symbol;
+    private final LongBuffer timestamps;
+    private final DoubleBuffer open;
+    private final DoubleBuffer high;
+    private final DoubleBuffer low;
+    private final DoubleBuffer close;
+    private final LongBuffer volume;
+
+    StoredBars(String symbol, LongBuffer timestamps, DoubleBuffer open, DoubleBuffer high, DoubleBuffer low,
+               DoubleBuffer close, LongBuffer volume) {
+        this.symbol = symbol;
+        this.timestamps = timestamps;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+    }
+
+    public String symbol() { return symbol; }
+
+    public int size() { return timestamps.limit(); }
+
+    public long timestamp(int bar) { return timestamps.get(bar); }
+
+    public double open(int bar) { return open.get(bar); }
+
+    public double high(int bar) { return high.get(bar); }
+
+    public double low(int bar) { return low.get(bar); }
+
+    public double close(int bar) { return close.get(bar); }
+
+    public long volume(int bar) { return volume.get(bar); }
+
+    /**
+     * The bars copied column by column into a BarSeries
+     */
+    public BarSeries toSeries() {
+        int n = size();
+        long[] timestampColumn = new long[n];
+        double[] openColumn = new double[n];
+        double[] highColumn = new double[n];
+        double[] lowColumn = new double[n];
+        double[] closeColumn = new double[n];
+        long[] volumeColumn = new long[n];
+        // Absolute bulk gets leave the shared views' positions alone
+        timestamps.get(0, timestampColumn);
+        open.get(0, openColumn);
+        high.get(0, highColumn);
+        low.get(0, lowColumn);
+        close.get(0, closeColumn);
+        volume.get(0, volumeColumn);
+        return new BarSeries(symbol, timestampColumn, openColumn, highColumn, lowColumn, closeColumn, volumeColumn);
+    }
+}
@@ -0,0 +1,256 @@
+package com.quantcrux.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quantcrux.model.Strategy;
+import com.quantcrux.model.StrategyVersion;
+import com.quantcrux.repository.StrategyRepository;
+import com.quantcrux.repository.StrategyVersionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Turns a strategy's rules into a CompiledStrategy.
+ *
+ * Versioned strategies are compiled from the version's snapshotJson once and
+ * cached per (strategyId, versionNumber); strategies without versions are
+ * compiled from their Indicators and Rules fields on every call.
+ *
+ * All entry conditions must hold to open a position; any exit condition,
+ * stop loss or take profit closes it.
+ */
+@Service
+public class StrategyCompiler {
+
+    private static final double DEFAULT_OVERSOLD = 30.0;
+    private static final double DEFAULT_OVERBOUGHT = 70.0;
+
+    @Autowired
+    private StrategyRepository strategyRepository;
+
+    @Autowired
+    private StrategyVersionRepository versionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<String, CompiledStrategy> cache = new ConcurrentHashMap<>();
+
+    /**
+     * One entry or exit condition, e.g. rsi_oversold below 30
+     */
+    public static class Condition {
+        private final String type;
+        private final Double threshold;
+
+        public Condition(String type, Double threshold) {
+            this.type = type;
+            this.threshold = threshold;
+        }
+
+        public String getType() { return type; }
+
+        public Double getThreshold() { return threshold; }
+    }
+
+    /**
+     * Compiled form of the strategy's current version
+     */
+    public CompiledStrategy getCompiledStrategy(Long strategyId) {
+        Strategy strategy = strategyRepository.findById(strategyId)
+                .orElseThrow(() -> new RuntimeException("Strategy not found"));
+
+        Integer versionNumber = strategy.getCurrentVersion();
+        if (versionNumber == null) {
+            return compile(strategy);
+        }
+        return cache.computeIfAbsent(strategyId + ":" + versionNumber, key ->
+                versionRepository.findByStrategyIdAndVersionNumber(strategyId, versionNumber)
+                        .map(version -> compile(strategy, version))
+                        .orElseGet(() -> compile(strategy)));
+    }
+
+    /**
+     * Compile from the strategy's own Indicators and Rules fields
+     */
+    public CompiledStrategy compile(Strategy strategy) {
+        Strategy.Indicators indicators = strategy.getIndicators() != null
+                ? strategy.getIndicators() : new Strategy.Indicators();
+        Strategy.Rules rules = strategy.getRules() != null ? strategy.getRules() : new Strategy.Rules();
+
+        List<Condition> entry = new ArrayList<>();
+        if (rules.getEntryCondition() != null) {
+            entry.add(new Condition(rules.getEntryCondition(), null));
+        }
+        List<Condition> exit = new ArrayList<>();
+        if (rules.getExitCondition() != null) {
+            exit.add(new Condition(rules.getExitCondition(), null));
+        }
+        return compile(strategy.getId(), strategy.getCurrentVersion(), indicators, entry, exit,
+                DEFAULT_OVERSOLD, DEFAULT_OVERBOUGHT,
+                valueOr(rules.getStopLoss(), 0), valueOr(rules.getTakeProfit(), 0), valueOr(rules.getPositionSize(), 1));
+    }
+
+    /**
+     * Compile from a version snapshot in the strategy editor's format; anything
+     * the snapshot leaves out falls back to the strategy's own fields
+     */
+    public CompiledStrategy compile(Strategy strategy, StrategyVersion version) {
+        JsonNode snapshot;
+        try {
+            snapshot = objectMapper.readTree(version.getSnapshotJson());
+        } catch (Exception e) {
+            throw new RuntimeException("Invalid strategy snapshot for version " + version.getVersionNumber()
+                    + ": " + e.getMessage());
+        }
+        CompiledStrategy fallback = compile(strategy);
+        Strategy.Indicators defaults = fallback.getIndicators();
+
+        JsonNode indicatorsNode = snapshot.path("indicators");
+        Strategy.Indicators indicators = new Strategy.Indicators();
+        indicators.setEmaShort(intOr(indicatorsNode.path("ema").path("short"), defaults.getEmaShort()));
+        indicators.setEmaLong(intOr(indicatorsNode.path("ema").path("long"), defaults.getEmaLong()));
+        indicators.setRsiPeriod(intOr(indicatorsNode.path("rsi").path("period"), defaults.getRsiPeriod()));
+        indicators.setMacdFast(intOr(indicatorsNode.path("macd").path("fast"), defaults.getMacdFast()));
+        indicators.setMacdSlow(intOr(indicatorsNode.path("macd").path("slow"), defaults.getMacdSlow()));
+        indicators.setMacdSignal(intOr(indicatorsNode.path("macd").path("signal"), defaults.getMacdSignal()));
+        double oversold = doubleOr(indicatorsNode.path("rsi").path("oversoldThreshold"), DEFAULT_OVERSOLD);
+        double overbought = doubleOr(indicatorsNode.path("rsi").path("overboughtThreshold"), DEFAULT_OVERBOUGHT);
+
+        JsonNode rulesNode = snapshot.path("rules");
+        JsonNode risk = rulesNode.path("riskManagement");
+        double stopLoss = doubleOr(risk.path("stopLoss"), fallback.getStopLoss() * 100);
+        double takeProfit = doubleOr(risk.path("takeProfit"), fallback.getTakeProfit() * 100);
+        double positionSize = doubleOr(risk.path("positionSize"), fallback.getPositionSize());
+
+        Strategy.Rules rules = strategy.getRules() != null ? strategy.getRules() : new Strategy.Rules();
+        List<Condition> entry = conditions(rulesNode.path("entryConditions"), rules.getEntryCondition());
+        List<Condition> exit = conditions(rulesNode.path("exitConditions"), rules.getExitCondition());
+
+        return compile(strategy.getId(), version.getVersionNumber(), indicators, entry, exit,
+                oversold, overbought, stopLoss, takeProfit, positionSize);
+    }
+
+    /**
+     * Compile explicit parameters. stopLoss and takeProfit are percentages, 0 disables them.
+     */
+    public CompiledStrategy compile(Long strategyId, Integer versionNumber, Strategy.Indicators indicators,
+                                    List<Condition> entry, List<Condition> exit,
+                                    double oversold, double overbought,
+                                    double stopLoss, double takeProfit, double positionSize) {
+        if (positionSize <= 0) {
+            throw new IllegalArgumentException("Position size must be positive");
+        }
+        CompiledStrategy.BarRule entryRule = allOf(compileAll(entry, oversold, overbought));
+        CompiledStrategy.BarRule exitRule = anyOf(compileAll(exit, oversold, overbought));
+        return new CompiledStrategy(strategyId, versionNumber, indicators, entryRule, exitRule,
+                entry, exit, oversold, overbought,
+                Math.max(stopLoss, 0) / 100, Math.max(takeProfit, 0) / 100, positionSize);
+    }
+
+    private CompiledStrategy.BarRule[] compileAll(List<Condition> conditions, double oversold, double overbought) {
+        CompiledStrategy.BarRule[] rules = new CompiledStrategy.BarRule[conditions.size()];
+        for (int i = 0; i < rules.length; i++) {
+            rules[i] = compile(conditions.get(i), oversold, overbought);
+        }
+        return rules;
+    }
+
+    /**
+     * Each condition becomes a lambda over the indicator arrays. Comparisons with
+     * NaN are false, so no condition fires before its indicators have warmed up.
+     */
+    private CompiledStrategy.BarRule compile(Condition condition, double oversold, double overbought) {
+        String type = condition.getType() != null ? condition.getType().toLowerCase() : "";
+        return switch (type) {
+            case "rsi_oversold" -> {
+                double threshold = condition.getThreshold() != null ? condition.getThreshold() : oversold;
+                yield (s, i) -> s.rsi[i] < threshold;
+            }
+            case "rsi_overbought" -> {
+                double threshold = condition.getThreshold() != null ? condition.getThreshold() : overbought;
+                yield (s, i) -> s.rsi[i] > threshold;
+            }
+            case "ema_cross_up" -> (s, i) -> i > 0
+                    && s.emaShort[i] > s.emaLong[i] && s.emaShort[i - 1] <= s.emaLong[i - 1];
+            case "ema_cross_down" -> (s, i) -> i > 0
+                    && s.emaShort[i] < s.emaLong[i] && s.emaShort[i - 1] >= s.emaLong[i - 1];
+            case "macd_bullish" -> (s, i) -> i > 0
+                    && s.macd[i] > s.macdSignal[i] && s.macd[i - 1] <= s.macdSignal[i - 1];
+            case "macd_bearish" -> (s, i) -> i > 0
+                    && s.macd[i] < s.macdSignal[i] && s.macd[i - 1] >= s.macdSignal[i - 1];
+            default -> throw new IllegalArgumentException("Unknown strategy condition: " + condition.getType());
+        };
+    }
+
+    private static CompiledStrategy.BarRule allOf(CompiledStrategy.BarRule[] rules) {
+        return switch (rules.length) {
+            case 0 -> (s, i) -> false;
+            case 1 -> rules[0];
+            case 2 -> {
+                CompiledStrategy.BarRule first = rules[0];
+                CompiledStrategy.BarRule second = rules[1];
+                yield (s, i) -> first.test(s, i) && second.test(s, i);
+            }
+            default -> (s, i) -> {
+                for (CompiledStrategy.BarRule rule : rules) {
+                    if (!rule.test(s, i)) {
+                        return false;
+                    }
+                }
+                return true;
+            };
+        };
+    }
+
+    private static CompiledStrategy.BarRule anyOf(CompiledStrategy.BarRule[] rules) {
+        return switch (rules.length) {
+            case 0 -> (s, i) -> false;
+            case 1 -> rules[0];
+            case 2 -> {
+                CompiledStrategy.BarRule first = rules[0];
+                CompiledStrategy.BarRule second = rules[1];
+                yield (s, i) -> first.test(s, i) || second.test(s, i);
+            }
+            default -> (s, i) -> {
+                for (CompiledStrategy.BarRule rule : rules) {
+                    if (rule.test(s, i)) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+        };
+    }
+
+    private static List<Condition> conditions(JsonNode node, String fallbackType) {
+        List<Condition> conditions = new ArrayList<>();
+        if (node.isArray()) {
+            for (JsonNode condition : node) {
+                JsonNode threshold = condition.path("threshold");
+                conditions.add(new Condition(condition.path("type").asText(null),
+                        threshold.isNumber() ? threshold.asDouble() : null));
+            }
+        } else if (fallbackType != null) {
+            conditions.add(new Condition(fallbackType, null));
+        }
+        return conditions;
+    }
+
+    private static Integer intOr(JsonNode node, Integer fallback) {
+        return node.isNumber() ? node.asInt() : fallback;
+    }
+
+    private static double doubleOr(JsonNode node, double fallback) {
+        return node.isNumber() ? node.asDouble() : fallback;
+    }
+
+    private static double valueOr(Double value, double fallback) {
+        return value != null ? value : fallback;
+    }
+}
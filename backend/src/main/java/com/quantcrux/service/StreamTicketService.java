@@ -0,0 +1,60 @@
+package com.quantcrux.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived, single-use tickets for the quote stream. EventSource cannot set
+ * headers, so the stream is opened with a ticket in its URL rather than the
+ * session token; a ticket names its user and is spent on first use or expires
+ * after ticket-ttl-ms.
+ */
+@Service
+public class StreamTicketService {
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+
+    @Value("${market-data.stream.ticket-ttl-ms:30000}")
+    private long ticketTtlMs;
+
+    /**
+     * A new ticket for the user
+     */
+    public String issue(String username) {
+        long now = System.currentTimeMillis();
+        // Unredeemed tickets are dropped here, as nothing else removes them
+        tickets.values().removeIf(ticket -> ticket.expiresAt <= now);
+
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        tickets.put(ticket, new Ticket(username, now + ticketTtlMs));
+        return ticket;
+    }
+
+    /**
+     * The user the ticket was issued to, spending it, or null if it is unknown,
+     * already spent or expired
+     */
+    public String redeem(String ticket) {
+        Ticket redeemed = tickets.remove(ticket);
+        if (redeemed == null || redeemed.expiresAt <= System.currentTimeMillis()) {
+            return null;
+        }
+        return redeemed.username;
+    }
+
+    public long getTicketTtlMs() {
+        return ticketTtlMs;
+    }
+
+    private record Ticket(String username, long expiresAt) {
+    }
+}
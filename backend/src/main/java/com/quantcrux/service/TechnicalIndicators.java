@@ -0,0 +1,467 @@
+package com.quantcrux.service;
+
+import com.quantcrux.model.Strategy;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Incremental technical indicators over primitive price series.
+ *
+ * Each indicator keeps its own running state and costs O(1) per bar, so a whole
+ * series is one pass with no boxing. Indicators return NaN until they have seen
+ * enough bars. Running state can be written out and read back, so a run can be
+ * checkpointed and continued over new bars only.
+ */
+public final class TechnicalIndicators {
+
+    private TechnicalIndicators() {
+    }
+
+    /**
+     * Rolling window that adds and drops one value per bar
+     */
+    private static class Window {
+        final double[] buffer;
+        int next;
+        int size;
+
+        Window(int period) {
+            if (period <= 0) {
+                throw new IllegalArgumentException("Indicator period must be positive");
+            }
+            buffer = new double[period];
+        }
+
+        /**
+         * Store value and return the one that fell out of the window, or NaN while filling
+         */
+        double push(double value) {
+            double dropped = size == buffer.length ? buffer[next] : Double.NaN;
+            buffer[next] = value;
+            next = next + 1 == buffer.length ? 0 : next + 1;
+            if (size < buffer.length) {
+                size++;
+            }
+            return dropped;
+        }
+
+        boolean isFull() {
+            return size == buffer.length;
+        }
+
+        void writeState(DataOutput out) throws IOException {
+            out.writeInt(next);
+            out.writeInt(size);
+            for (double v : buffer) {
+                out.writeDouble(v);
+            }
+        }
+
+        void readState(DataInput in) throws IOException {
+            next = in.readInt();
+            size = in.readInt();
+            if (next < 0 || next >= buffer.length || size < 0 || size > buffer.length) {
+                throw new IOException("Indicator window state does not fit period " + buffer.length);
+            }
+            for (int i = 0; i < buffer.length; i++) {
+                buffer[i] = in.readDouble();
+            }
+        }
+    }
+
+    /**
+     * Exponential moving average with alpha = 2 / (period + 1), seeded with the SMA of the first period bars
+     */
+    public static class Ema {
+        private final int period;
+        private final double alpha;
+        private int count;
+        private double value = Double.NaN;
+        private double seedSum;
+
+        public Ema(int period) {
+            if (period <= 0) {
+                throw new IllegalArgumentException("Indicator period must be positive");
+            }
+            this.period = period;
+            this.alpha = 2.0 / (period + 1);
+        }
+
+        public double update(double price) {
+            count++;
+            if (count < period) {
+                seedSum += price;
+            } else if (count == period) {
+                value = (seedSum + price) / period;
+            } else {
+                value += alpha * (price - value);
+            }
+            return value;
+        }
+
+        public double value() {
+            return value;
+        }
+
+        public boolean isReady() {
+            return count >= period;
+        }
+
+        void writeState(DataOutput out) throws IOException {
+            out.writeInt(count);
+            out.writeDouble(value);
+            out.writeDouble(seedSum);
+        }
+
+        void readState(DataInput in) throws IOException {
+            count = in.readInt();
+            value = in.readDouble();
+            seedSum = in.readDouble();
+        }
+    }
+
+    /**
+     * Wilder's RSI: smoothed average gain and loss over period bars, 0 to 100
+     */
+    public static class Rsi {
+        private final int period;
+        private int count;
+        private double previous = Double.NaN;
+        private double averageGain;
+        private double averageLoss;
+        private double value = Double.NaN;
+
+        public Rsi(int period) {
+            if (period <= 0) {
+                throw new IllegalArgumentException("Indicator period must be positive");
+            }
+            this.period = period;
+        }
+
+        public double update(double price) {
+            if (Double.isNaN(previous)) {
+                previous = price;
+                return value;
+            }
+            double change = price - previous;
+            previous = price;
+            double gain = Math.max(change, 0);
+            double loss = Math.max(-change, 0);
+
+            count++;
+            if (count <= period) {
+                // Plain average over the first period changes
+                averageGain += gain / period;
+                averageLoss += loss / period;
+                if (count < period) {
+                    return value;
+                }
+            } else {
+                averageGain = (averageGain * (period - 1) + gain) / period;
+                averageLoss = (averageLoss * (period - 1) + loss) / period;
+            }
+            value = averageLoss == 0 ? (averageGain == 0 ? 50 : 100) : 100 - 100 / (1 + averageGain / averageLoss);
+            return value;
+        }
+
+        public double value() {
+            return value;
+        }
+
+        public boolean isReady() {
+            return count >= period;
+        }
+
+        void writeState(DataOutput out) throws IOException {
+            out.writeInt(count);
+            out.writeDouble(previous);
+            out.writeDouble(averageGain);
+            out.writeDouble(averageLoss);
+            out.writeDouble(value);
+        }
+
+        void readState(DataInput in) throws IOException {
+            count = in.readInt();
+            previous = in.readDouble();
+            averageGain = in.readDouble();
+            averageLoss = in.readDouble();
+            value = in.readDouble();
+        }
+    }
+
+    /**
+     * MACD line (fast EMA - slow EMA), its signal EMA and the histogram between them
+     */
+    public static class Macd {
+        private final Ema fast;
+        private final Ema slow;
+        private final Ema signal;
+        private final int warmup;
+        private int count;
+        private double line = Double.NaN;
+        private double signalValue = Double.NaN;
+
+        public Macd(int fastPeriod, int slowPeriod, int signalPeriod) {
+            this.fast = new Ema(fastPeriod);
+            this.slow = new Ema(slowPeriod);
+            this.signal = new Ema(signalPeriod);
+            this.warmup = Math.max(fastPeriod, slowPeriod);
+        }
+
+        /**
+         * Returns the MACD line
+         */
+        public double update(double price) {
+            count++;
+            fast.update(price);
+            slow.update(price);
+            if (count >= warmup) {
+                line = fast.value() - slow.value();
+                signalValue = signal.update(line);
+            }
+            return line;
+        }
+
+        public double line() {
+            return line;
+        }
+
+        public double signal() {
+            return signalValue;
+        }
+
+        public double histogram() {
+            return line - signalValue;
+        }
+
+        public boolean isReady() {
+            return signal.isReady();
+        }
+
+        void writeState(DataOutput out) throws IOException {
+            fast.writeState(out);
+            slow.writeState(out);
+            signal.writeState(out);
+            out.writeInt(count);
+            out.writeDouble(line);
+            out.writeDouble(signalValue);
+        }
+
+        void readState(DataInput in) throws IOException {
+            fast.readState(in);
+            slow.readState(in);
+            signal.readState(in);
+            count = in.readInt();
+            line = in.readDouble();
+            signalValue = in.readDouble();
+        }
+    }
+
+    /**
+     * SMA middle band with bands k population standard deviations away.
+     * The window variance is updated Welford-style, which stays accurate on
+     * high-priced series where sum-of-squares would cancel.
+     */
+    public static class BollingerBands {
+        private final Window window;
+        private final double width;
+        private double mean;
+        private double m2;
+
+        public BollingerBands(int period, double width) {
+            this.window = new Window(period);
+            this.width = width;
+        }
+
+        /**
+         * Returns the middle band
+         */
+        public double update(double value) {
+            double dropped = window.push(value);
+            if (Double.isNaN(dropped)) {
+                int n = window.size;
+                double delta = value - mean;
+                mean += delta / n;
+                m2 += delta * (value - mean);
+            } else {
+                double previousMean = mean;
+                mean += (value - dropped) / window.buffer.length;
+                m2 += (value - dropped) * (value - mean + dropped - previousMean);
+                if (m2 < 0) {
+                    m2 = 0;
+                }
+            }
+            if (window.next == 0) {
+                // Exact two-pass refresh once per window keeps the sliding update from drifting
+                double sum = 0;
+                for (double v : window.buffer) {
+                    sum += v;
+                }
+                mean = sum / window.buffer.length;
+                m2 = 0;
+                for (double v : window.buffer) {
+                    m2 += (v - mean) * (v - mean);
+                }
+            }
+            return middle();
+        }
+
+        public double middle() {
+            return window.isFull() ? mean : Double.NaN;
+        }
+
+        public double upper() {
+            return middle() + width * standardDeviation();
+        }
+
+        public double lower() {
+            return middle() - width * standardDeviation();
+        }
+
+        public double standardDeviation() {
+            return window.isFull() ? Math.sqrt(m2 / window.buffer.length) : Double.NaN;
+        }
+
+        public boolean isReady() {
+            return window.isFull();
+        }
+
+        void writeState(DataOutput out) throws IOException {
+            window.writeState(out);
+            out.writeDouble(mean);
+            out.writeDouble(m2);
+        }
+
+        void readState(DataInput in) throws IOException {
+            window.readState(in);
+            mean = in.readDouble();
+            m2 = in.readDouble();
+        }
+    }
+
+    /**
+     * Every indicator configured on a strategy, evaluated over one close series in a single pass
+     */
+    public static class Series {
+        public final double[] emaShort;
+        public final double[] emaLong;
+        public final double[] rsi;
+        public final double[] macd;
+        public final double[] macdSignal;
+        public final double[] macdHistogram;
+        public final double[] bollingerMiddle;
+        public final double[] bollingerUpper;
+        public final double[] bollingerLower;
+        private final Calculator calculator;
+
+        public Series(double[] closes, Strategy.Indicators params) {
+            this(closes, new Calculator(params), 0);
+        }
+
+        /**
+         * Continue a calculator that has already seen closes[0]: bar 0 takes its
+         * latest values and later bars advance it, so rules that look one bar back
+         * work from bar 1 on. The calculator is advanced in place.
+         */
+        public Series(double[] closes, Calculator calculator) {
+            this(closes, calculator, 1);
+        }
+
+        private Series(double[] closes, Calculator calculator, int from) {
+            int n = closes.length;
+            emaShort = new double[n];
+            emaLong = new double[n];
+            rsi = new double[n];
+            macd = new double[n];
+            macdSignal = new double[n];
+            macdHistogram = new double[n];
+            bollingerMiddle = new double[n];
+            bollingerUpper = new double[n];
+            bollingerLower = new double[n];
+            this.calculator = calculator;
+
+            if (from > 0 && n > 0) {
+                calculator.record(this, 0);
+            }
+            for (int i = from; i < n; i++) {
+                calculator.update(closes[i]);
+                calculator.record(this, i);
+            }
+        }
+
+        /**
+         * Indicator state after the last bar, for continuing over later bars
+         */
+        public Calculator getCalculator() {
+            return calculator;
+        }
+    }
+
+    /**
+     * Running state of every indicator in a Series. Only the state is written out;
+     * periods come from the strategy the calculator is rebuilt with.
+     */
+    public static class Calculator {
+        private static final int BOLLINGER_PERIOD = 20;
+        private static final double BOLLINGER_WIDTH = 2.0;
+
+        private final Ema shortEma;
+        private final Ema longEma;
+        private final Rsi rsi;
+        private final Macd macd;
+        private final BollingerBands bands;
+
+        public Calculator(Strategy.Indicators params) {
+            shortEma = new Ema(valueOr(params != null ? params.getEmaShort() : null, 10));
+            longEma = new Ema(valueOr(params != null ? params.getEmaLong() : null, 20));
+            rsi = new Rsi(valueOr(params != null ? params.getRsiPeriod() : null, 14));
+            macd = new Macd(
+                valueOr(params != null ? params.getMacdFast() : null, 12),
+                valueOr(params != null ? params.getMacdSlow() : null, 26),
+                valueOr(params != null ? params.getMacdSignal() : null, 9));
+            bands = new BollingerBands(BOLLINGER_PERIOD, BOLLINGER_WIDTH);
+        }
+
+        void update(double close) {
+            shortEma.update(close);
+            longEma.update(close);
+            rsi.update(close);
+            macd.update(close);
+            bands.update(close);
+        }
+
+        void record(Series series, int bar) {
+            series.emaShort[bar] = shortEma.value();
+            series.emaLong[bar] = longEma.value();
+            series.rsi[bar] = rsi.value();
+            series.macd[bar] = macd.line();
+            series.macdSignal[bar] = macd.signal();
+            series.macdHistogram[bar] = macd.histogram();
+            series.bollingerMiddle[bar] = bands.middle();
+            series.bollingerUpper[bar] = bands.upper();
+            series.bollingerLower[bar] = bands.lower();
+        }
+
+        void writeState(DataOutput out) throws IOException {
+            shortEma.writeState(out);
+            longEma.writeState(out);
+            rsi.writeState(out);
+            macd.writeState(out);
+            bands.writeState(out);
+        }
+
+        void readState(DataInput in) throws IOException {
+            shortEma.readState(in);
+            longEma.readState(in);
+            rsi.readState(in);
+            macd.readState(in);
+            bands.readState(in);
+        }
+
+        private static int valueOr(Integer value, int fallback) {
+            return value != null && value > 0 ? value : fallback;
+        }
+    }
+}
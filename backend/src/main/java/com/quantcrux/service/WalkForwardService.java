@@ -0,0 +1,222 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.BacktestResult;
+import com.quantcrux.dto.EquityCurve;
+import com.quantcrux.dto.WalkForwardRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Walk-forward evaluation: the series is cut into consecutive test windows, each
+ * preceded by a training window. The request's parameter sweep picks the best
+ * combination on the training bars, which is then traded on the test bars. Only
+ * the test bars count towards the result, so every bar is traded out of sample.
+ *
+ * Indicators for a window are computed over its training and test bars together;
+ * they only look back, so the training bars warm them up without leaking the test
+ * bars into the search. Windows are evaluated concurrently on the sweep executor,
+ * and all windows together may run at most max-combinations backtests, as a
+ * sweep may.
+ */
+@Service
+public class WalkForwardService {
+
+    @Autowired
+    private BacktestService backtestService;
+
+    @Autowired
+    private BacktestSweepService sweepService;
+
+    @Autowired
+    private StrategyCompiler strategyCompiler;
+
+    /**
+     * Start the walk-forward. The request is checked and the market data loaded
+     * before this returns, so bad input fails here; the windows then run in the
+     * background. Cancelling the returned future stops the remaining runs.
+     */
+    public CompletableFuture<BacktestResult> runWalkForward(WalkForwardRequest request) {
+        CompiledStrategy base = strategyCompiler.getCompiledStrategy(request.getStrategyId());
+        Comparator<BacktestSweepService.Outcome> ranking = sweepService.ranking(request.getRankBy());
+        BacktestSweepService.Plan plan = sweepService.plan(request);
+        BarSeries marketData = backtestService.loadMarketData(request);
+        double[] closes = marketData.close();
+
+        int trainBars = request.getTrainBars();
+        int testBars = request.getTestBars();
+        boolean anchored = Boolean.TRUE.equals(request.getAnchored());
+        if (closes.length <= trainBars) {
+            throw new IllegalArgumentException("Walk-forward needs more than " + trainBars + " bars, got " + closes.length);
+        }
+        long windowCount = (closes.length - trainBars + testBars - 1) / testBars;
+        if (plan.total > sweepService.maxCombinations() / windowCount) {
+            throw new IllegalArgumentException("Walk-forward exceeds " + sweepService.maxCombinations()
+                    + " combinations over its " + windowCount + " windows");
+        }
+
+        CompletableFuture<BacktestResult> done = new CompletableFuture<>();
+        List<CompletableFuture<Window>> evaluations = new ArrayList<>();
+        for (int testStart = trainBars; testStart < closes.length; testStart += testBars) {
+            Window window = new Window(anchored ? 0 : testStart - trainBars, testStart,
+                    Math.min(testStart + testBars, closes.length));
+            CompletableFuture<Window> evaluation = CompletableFuture.supplyAsync(
+                    () -> evaluate(window, closes, base, plan, ranking, request.getInitialCapital(), done),
+                    sweepService.executor());
+            // The first failure ends the walk-forward, which stops the other windows
+            evaluation.whenComplete((ignored, error) -> {
+                if (error != null) {
+                    done.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error);
+                }
+            });
+            evaluations.add(evaluation);
+        }
+
+        CompletableFuture.allOf(evaluations.toArray(new CompletableFuture<?>[0]))
+            .whenComplete((ignored, error) -> {
+                if (error != null || done.isDone()) {
+                    return;
+                }
+                try {
+                    done.complete(combine(request, base, plan, marketData, evaluations.stream()
+                            .map(CompletableFuture::join).toList()));
+                } catch (RuntimeException e) {
+                    done.completeExceptionally(e);
+                }
+            });
+        return done;
+    }
+
+    /**
+     * Chain the windows' out-of-sample runs into one result
+     */
+    private BacktestResult combine(WalkForwardRequest request, CompiledStrategy base, BacktestSweepService.Plan plan,
+                                   BarSeries marketData, List<Window> windows) {
+        int trainBars = request.getTrainBars();
+        double[] closes = marketData.close();
+
+        // Chain the test windows: each starts with the capital the previous one ended
+        // with, and since the backtest scales with capital its curve is just rescaled
+        double initialCapital = request.getInitialCapital();
+        double capital = initialCapital;
+        BacktestService.PerformanceTracker performance = new BacktestService.PerformanceTracker(capital);
+        int[] dates = new int[closes.length - trainBars];
+        double[] values = new double[dates.length];
+        int bar = 0;
+        List<Map<String, Object>> windowResults = new ArrayList<>(windows.size());
+        int totalTrades = 0;
+        int profitableTrades = 0;
+
+        for (Window window : windows) {
+            double scale = capital / initialCapital;
+            for (int k = 0; k < window.values.length; k++) {
+                double value = window.values[k] * scale;
+                performance.update(value);
+                dates[bar] = BarSeries.epochDay(marketData.timestamps()[window.testStart + k]);
+                values[bar++] = value;
+            }
+            capital = window.outOfSample.getFinalValue() * scale;
+            totalTrades += window.outOfSample.getTotalTrades();
+            profitableTrades += window.outOfSample.getProfitableTrades();
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("train_start", marketData.date(window.trainStart).toString());
+            result.put("train_end", marketData.date(window.testStart - 1).toString());
+            result.put("test_start", marketData.date(window.testStart).toString());
+            result.put("test_end", marketData.date(window.testEnd - 1).toString());
+            result.put("parameters", BacktestSweepService.parameterMap(plan, window.best.parameters));
+            result.put("in_sample", window.best.metrics.toMap());
+            result.put("out_of_sample", window.outOfSample.toMap());
+            windowResults.add(result);
+        }
+
+        Map<String, Object> results = performance
+                .metrics(initialCapital, capital, totalTrades, profitableTrades)
+                .toMap();
+        results.put("strategy_id", base.getStrategyId());
+        results.put("strategy_version", base.getVersionNumber());
+        results.put("mode", "walk_forward");
+        BacktestResult result = new BacktestResult(results, new EquityCurve(dates, values));
+        result.setWindows(windowResults);
+        return result;
+    }
+
+    /**
+     * Search the training bars, then trade the winner on the test bars
+     */
+    private Window evaluate(Window window, double[] closes, CompiledStrategy base, BacktestSweepService.Plan plan,
+                            Comparator<BacktestSweepService.Outcome> ranking, double initialCapital,
+                            CompletableFuture<?> done) {
+        double[] bars = Arrays.copyOfRange(closes, window.trainStart, window.testEnd);
+        int split = window.testStart - window.trainStart;
+
+        BacktestSweepService.Outcome best = null;
+        double[] previous = null;
+        TechnicalIndicators.Series series = null;
+        for (long n = 0; n < plan.total; n++) {
+            if (done.isDone()) {
+                // Cancelled, or another window failed
+                throw new CancellationException();
+            }
+            double[] parameters = new double[plan.axes.length];
+            plan.decode(n, parameters);
+            try {
+                CompiledStrategy variant = sweepService.compile(base, plan, parameters);
+                if (series == null || !Arrays.equals(previous, 0, plan.indicatorAxes,
+                        parameters, 0, plan.indicatorAxes)) {
+                    series = variant.computeIndicators(bars);
+                    previous = parameters;
+                }
+                BacktestService.Metrics metrics = backtestService.simulate(
+                        bars, series, variant, initialCapital, 1, split, null);
+                BacktestSweepService.Outcome outcome = new BacktestSweepService.Outcome(n, parameters, metrics);
+                if (best == null || ranking.compare(outcome, best) < 0) {
+                    best = outcome;
+                }
+            } catch (RuntimeException e) {
+                // Combinations the compiler rejects are skipped, as in a sweep
+            }
+        }
+        if (best == null) {
+            throw new IllegalArgumentException("No parameter combination could be evaluated");
+        }
+
+        CompiledStrategy chosen = sweepService.compile(base, plan, best.parameters);
+        double[] values = new double[bars.length - split];
+        BacktestService.Metrics outOfSample = backtestService.simulate(bars, chosen.computeIndicators(bars), chosen,
+                initialCapital, split, bars.length, (bar, value) -> values[bar - split] = value);
+
+        window.best = best;
+        window.outOfSample = outOfSample;
+        window.values = values;
+        return window;
+    }
+
+    /**
+     * Bar ranges of one training and test window, and what came of them
+     */
+    private static class Window {
+        final int trainStart;
+        final int testStart;
+        final int testEnd;
+        BacktestSweepService.Outcome best;
+        BacktestService.Metrics outOfSample;
+        double[] values;
+
+        Window(int trainStart, int testStart, int testEnd) {
+            this.trainStart = trainStart;
+            this.testStart = testStart;
+            this.testEnd = testEnd;
+        }
+    }
+}
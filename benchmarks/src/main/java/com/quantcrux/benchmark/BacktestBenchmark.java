@@ -0,0 +1,78 @@
+package com.quantcrux.benchmark;
+
+import com.quantcrux.dto.BacktestRequest;
+import com.quantcrux.dto.BacktestResult;
+import com.quantcrux.model.Strategy;
+import com.quantcrux.service.BacktestService;
+import com.quantcrux.service.BarStore;
+import com.quantcrux.service.CompiledStrategy;
+import com.quantcrux.service.StrategyCompiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full backtest of the default EMA-cross strategy over a stored series of the given length in days
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BacktestBenchmark {
+
+    @Param({"252", "2520", "25200"})
+    private int seriesLength;
+
+    private Path directory;
+    private BarStore barStore;
+    private BacktestService backtestService;
+    private BacktestRequest request;
+    private CompiledStrategy strategy;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("bar-store");
+        barStore = new BarStore();
+        backtestService = new BacktestService();
+        Wiring.inject(backtestService, "marketDataService", Wiring.marketData(barStore, directory, 1024));
+
+        LocalDate endDate = LocalDate.now();
+        request = new BacktestRequest();
+        request.setStrategyId(1L);
+        request.setSymbol("SPY");
+        request.setStartDate(endDate.minusDays(seriesLength).toString());
+        request.setEndDate(endDate.toString());
+        request.setInitialCapital(100000.0);
+
+        strategy = new StrategyCompiler().compile(new Strategy());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        barStore.close();
+        Wiring.delete(directory);
+    }
+
+    @Benchmark
+    public BacktestResult runBacktest() {
+        return backtestService.runBacktest(request, strategy);
+    }
+}
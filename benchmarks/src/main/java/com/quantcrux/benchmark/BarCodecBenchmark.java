@@ -0,0 +1,95 @@
+package com.quantcrux.benchmark;
+
+import com.quantcrux.service.BarCodec;
+import com.quantcrux.service.BarSeries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding one block of generated minute bars, reported per bar.
+ * Setup prints the encoded size in bytes per bar and per point (6 points a bar).
+ * "decimal" prices are rounded to cents, "full" keep every bit of the random walk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BarCodecBenchmark {
+
+    private static final int BARS = 1024;
+
+    @Param({"decimal", "full"})
+    private String prices;
+
+    private BarSeries bars;
+    private ByteBuffer block;
+    private long[] timestamps;
+    private double[] open;
+    private double[] high;
+    private double[] low;
+    private double[] close;
+    private long[] volume;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        timestamps = new long[BARS];
+        open = new double[BARS];
+        high = new double[BARS];
+        low = new double[BARS];
+        close = new double[BARS];
+        volume = new long[BARS];
+        double price = 100;
+        long timestamp = 1_600_000_000_000L;
+        for (int i = 0; i < BARS; i++) {
+            // 390 minute bars a session, then an overnight gap
+            timestamp += i % 390 == 0 && i > 0 ? 17L * 3_600_000 + 1_860_000 : 60_000;
+            timestamps[i] = timestamp;
+            open[i] = price;
+            price = round(price * (1 + random.nextGaussian() * 0.001));
+            close[i] = price;
+            high[i] = round(Math.max(open[i], close[i]) * (1 + random.nextDouble() * 0.0005));
+            low[i] = round(Math.min(open[i], close[i]) * (1 - random.nextDouble() * 0.0005));
+            volume[i] = 100 * random.nextInt(2000);
+        }
+        bars = new BarSeries("SPY", timestamps.clone(), open.clone(), high.clone(), low.clone(), close.clone(),
+                volume.clone());
+        byte[] encoded = BarCodec.encode(bars, 0, BARS);
+        block = ByteBuffer.wrap(encoded);
+        System.out.printf("%n%s prices: %.2f bytes/bar, %.2f bytes/point (raw 48 bytes/bar)%n",
+                prices, (double) encoded.length / BARS, encoded.length / (BARS * 6.0));
+    }
+
+    private double round(double price) {
+        return prices.equals("decimal") ? Math.round(price * 100) / 100.0 : price;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BARS)
+    public byte[] encode() {
+        return BarCodec.encode(bars, 0, BARS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BARS)
+    public int decode() {
+        return BarCodec.decode(block, timestamps, open, high, low, close, volume, 0);
+    }
+}
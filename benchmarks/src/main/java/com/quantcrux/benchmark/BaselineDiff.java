@@ -0,0 +1,81 @@
+package com.quantcrux.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files benchmark by benchmark:
+ * score and normalised allocation (bytes/op), with the relative change.
+ *
+ * Usage: java -cp target/benchmarks.jar com.quantcrux.benchmark.BaselineDiff old.json new.json
+ */
+public class BaselineDiff {
+
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: BaselineDiff <baseline.json> <candidate.json>");
+            System.exit(2);
+        }
+        Map<String, double[]> baseline = load(new File(args[0]));
+        Map<String, double[]> candidate = load(new File(args[1]));
+
+        System.out.printf("%-90s %14s %14s %9s %14s %14s %9s%n",
+            "benchmark", "old score", "new score", "change", "old B/op", "new B/op", "change");
+        for (Map.Entry<String, double[]> entry : candidate.entrySet()) {
+            double[] before = baseline.get(entry.getKey());
+            double[] after = entry.getValue();
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s %14s %14.0f %9s%n",
+                    entry.getKey(), "-", after[0], "new", "-", after[1], "new");
+                continue;
+            }
+            System.out.printf("%-90s %14.3f %14.3f %9s %14.0f %14.0f %9s%n",
+                entry.getKey(), before[0], after[0], change(before[0], after[0]),
+                before[1], after[1], change(before[1], after[1]));
+        }
+        for (String name : baseline.keySet()) {
+            if (!candidate.containsKey(name)) {
+                System.out.printf("%-90s %s%n", name, "removed");
+            }
+        }
+    }
+
+    /**
+     * Benchmark name with its parameters mapped to {score, bytes per op}
+     */
+    private static Map<String, double[]> load(File file) throws IOException {
+        JsonNode results = new ObjectMapper().readTree(file);
+        Map<String, double[]> scores = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder name = new StringBuilder(result.path("benchmark").asText());
+            Map<String, String> params = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = result.path("params").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> param = fields.next();
+                params.put(param.getKey(), param.getValue().asText());
+            }
+            params.forEach((key, value) -> name.append(' ').append(key).append('=').append(value));
+
+            double score = result.path("primaryMetric").path("score").asDouble(Double.NaN);
+            double allocation = result.path("secondaryMetrics").path(ALLOC_NORM).path("score").asDouble(Double.NaN);
+            scores.put(name.toString(), new double[] {score, allocation});
+        }
+        return scores;
+    }
+
+    private static String change(double before, double after) {
+        if (Double.isNaN(before) || Double.isNaN(after) || before == 0) {
+            return "-";
+        }
+        return String.format("%+.1f%%", (after - before) / before * 100);
+    }
+}
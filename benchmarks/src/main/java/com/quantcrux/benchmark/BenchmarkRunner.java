@@ -0,0 +1,34 @@
+package com.quantcrux.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH entry point with baseline defaults: the GC profiler is always on (gc.alloc.rate
+ * and gc.alloc.rate.norm) and results go to target/jmh-baseline.json unless -rff says
+ * otherwise. Every other standard JMH option is accepted, e.g. a benchmark regex or -t.
+ */
+public class BenchmarkRunner {
+
+    private static final String DEFAULT_BASELINE = "target/jmh-baseline.json";
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+            .parent(commandLine)
+            .addProfiler(GCProfiler.class);
+        if (!commandLine.getResult().hasValue()) {
+            options.result(DEFAULT_BASELINE);
+        }
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+
+        new Runner(options.build()).run();
+    }
+}
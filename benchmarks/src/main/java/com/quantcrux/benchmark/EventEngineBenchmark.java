@@ -0,0 +1,99 @@
+package com.quantcrux.benchmark;
+
+import com.quantcrux.service.BarSeries;
+import com.quantcrux.service.EventDrivenEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event-driven replay of one million generated minute bars spread over the given
+ * number of symbols, with a bracket order every 64 bars per symbol. Reported per event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventEngineBenchmark {
+
+    private static final int EVENTS = 1_000_000;
+
+    @Param({"1", "50", "1000"})
+    private int symbols;
+
+    private List<BarSeries> series;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        int bars = EVENTS / symbols;
+        series = new ArrayList<>(symbols);
+        for (int s = 0; s < symbols; s++) {
+            long[] timestamps = new long[bars];
+            double[] open = new double[bars];
+            double[] high = new double[bars];
+            double[] low = new double[bars];
+            double[] close = new double[bars];
+            double price = 100;
+            for (int i = 0; i < bars; i++) {
+                timestamps[i] = 1_600_000_000_000L + i * 60_000L;
+                open[i] = price;
+                price *= 1 + random.nextGaussian() * 0.001;
+                close[i] = price;
+                high[i] = Math.max(open[i], close[i]) * 1.0005;
+                low[i] = Math.min(open[i], close[i]) * 0.9995;
+            }
+            series.add(new BarSeries("S" + s, timestamps, open, high, low, close, new long[bars]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public double replay() {
+        EventDrivenEngine engine = new EventDrivenEngine(series, 1_000_000, new EventDrivenEngine.Costs(1, 0.005, 0));
+        engine.run(new EventDrivenEngine.EventHandler() {
+            @Override
+            public void onBar(EventDrivenEngine.BarEvent bar, EventDrivenEngine engine) {
+                int s = bar.symbol();
+                if ((bar.bar() & 63) != 0) {
+                    return;
+                }
+                if (engine.position(s) == 0) {
+                    engine.submitMarket(s, EventDrivenEngine.Side.BUY, 10);
+                } else {
+                    engine.cancelAll(s);
+                    engine.submitMarket(s, EventDrivenEngine.Side.SELL, engine.position(s));
+                }
+            }
+
+            @Override
+            public void onFill(EventDrivenEngine.Fill fill, EventDrivenEngine engine) {
+                if (fill.side() == EventDrivenEngine.Side.BUY) {
+                    long group = engine.newGroup();
+                    engine.submit(fill.symbol(), EventDrivenEngine.Side.SELL, EventDrivenEngine.OrderType.STOP,
+                            fill.quantity(), fill.price() * 0.995, group);
+                    engine.submit(fill.symbol(), EventDrivenEngine.Side.SELL, EventDrivenEngine.OrderType.LIMIT,
+                            fill.quantity(), fill.price() * 1.005, group);
+                }
+            }
+        });
+        return engine.equity();
+    }
+}
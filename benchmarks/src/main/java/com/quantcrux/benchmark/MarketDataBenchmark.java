@@ -0,0 +1,78 @@
+package com.quantcrux.benchmark;
+
+import com.quantcrux.service.BarSeries;
+import com.quantcrux.service.BarStore;
+import com.quantcrux.service.MarketDataService;
+import com.quantcrux.service.StoredBars;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading an OHLCV range from the bar store, as views and as copied columns, with
+ * all history raw or with older bars in compressed blocks
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MarketDataBenchmark {
+
+    @Param({"252", "2520", "25200"})
+    private int seriesLength;
+
+    @Param({"SPY", "EUR/USD"})
+    private String symbol;
+
+    // 0 keeps every bar in the raw segment; otherwise older bars are compressed blocks
+    @Param({"0", "1024"})
+    private int blockBars;
+
+    private Path directory;
+    private BarStore barStore;
+    private MarketDataService marketDataService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("bar-store");
+        barStore = new BarStore();
+        marketDataService = Wiring.marketData(barStore, directory, blockBars);
+        // Seeds the store, so the benchmarks only read
+        marketDataService.getStoredBars(symbol, seriesLength);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        barStore.close();
+        Wiring.delete(directory);
+    }
+
+    @Benchmark
+    public StoredBars getStoredBars() {
+        return marketDataService.getStoredBars(symbol, seriesLength);
+    }
+
+    @Benchmark
+    public BarSeries getBars() {
+        LocalDate today = LocalDate.now();
+        return marketDataService.getBars(symbol, today.minusDays(seriesLength - 1), today);
+    }
+}
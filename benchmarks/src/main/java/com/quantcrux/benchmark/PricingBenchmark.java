@@ -0,0 +1,84 @@
+package com.quantcrux.benchmark;
+
+import com.quantcrux.dto.PricingRequest;
+import com.quantcrux.dto.PricingResult;
+import com.quantcrux.service.AnalyticPricingService;
+import com.quantcrux.service.MonteCarloEngine;
+import com.quantcrux.service.PricingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Monte Carlo price plus Greeks for each product type, path count and engine pool size.
+ * The analytic benchmark is the closed-form fast path for the same request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PricingBenchmark {
+
+    @Param({"vanilla", "digital_option", "barrier_option"})
+    private String productType;
+
+    @Param({"10000", "100000"})
+    private int numSimulations;
+
+    @Param({"1", "0"}) // 0 = one worker per core
+    private int parallelism;
+
+    private MonteCarloEngine engine;
+    private PricingService pricingService;
+    private AnalyticPricingService analyticPricingService;
+    private PricingRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new MonteCarloEngine(parallelism, 8192);
+        analyticPricingService = new AnalyticPricingService();
+        pricingService = new PricingService();
+        Wiring.inject(pricingService, "monteCarloEngine", engine);
+        Wiring.inject(pricingService, "analyticPricingService", analyticPricingService);
+
+        request = new PricingRequest();
+        request.setProductType(productType);
+        request.setSpotPrice(100.0);
+        request.setStrike(100.0);
+        request.setBarrier(110.0);
+        request.setCoupon(0.05);
+        request.setVolatility(0.2);
+        request.setRiskFreeRate(0.05);
+        request.setTimeToMaturity(1.0);
+        request.setNumSimulations(numSimulations);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engine.shutdown();
+    }
+
+    @Benchmark
+    public PricingResult monteCarloPrice() {
+        return pricingService.monteCarloPrice(request);
+    }
+
+    @Benchmark
+    public PricingResult analyticPrice() {
+        return analyticPricingService.price(request);
+    }
+}
@@ -0,0 +1,61 @@
+package com.quantcrux.benchmark;
+
+import com.quantcrux.service.BarStore;
+import com.quantcrux.service.MarketDataService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Fills @Autowired fields by hand, so services can be benchmarked without
+ * starting a Spring context (and its database connection).
+ */
+final class Wiring {
+
+    private Wiring() {
+    }
+
+    static <T> T inject(T target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+            return target;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot wire " + fieldName + " into " + target.getClass().getSimpleName(), e);
+        }
+    }
+
+    /**
+     * A market data service whose bar store lives in the given directory and
+     * compresses every blockBars bars, or never if 0
+     */
+    static MarketDataService marketData(BarStore store, Path directory, int blockBars) {
+        inject(store, "directory", directory.toString());
+        inject(store, "blockBars", blockBars);
+        inject(store, "maxOpenSymbols", 256);
+        MarketDataService marketData = inject(new MarketDataService(), "barStore", store);
+        inject(marketData, "maxDays", 36500);
+        inject(marketData, "knownSymbols", List.of("SPY", "EUR/USD"));
+        return inject(marketData, "seedDays", 0);
+    }
+
+    /**
+     * Remove a benchmark's scratch directory
+     */
+    static void delete(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -27,6 +27,47 @@ const Overview: React.FC = () => {
     initializeDashboard();
   }, []);
 
+  // Live quotes for the markets already shown
+  useEffect(() => {
+    let source: EventSource | null = null;
+    let retry: ReturnType<typeof setTimeout> | undefined;
+    let closed = false;
+
+    const connect = async () => {
+      let opened: EventSource;
+      try {
+        opened = await dashboardAPI.streamMarketData();
+      } catch (error) {
+        console.error('Quote stream error:', error);
+        if (!closed) retry = setTimeout(connect, 5000);
+        return;
+      }
+      if (closed) {
+        opened.close();
+        return;
+      }
+      opened.addEventListener('quotes', (event) => {
+        const quotes: any[] = JSON.parse((event as MessageEvent).data);
+        setMarketData((current) =>
+          current.map((item) => quotes.find((quote) => quote.symbol === item.symbol) ?? item)
+        );
+      });
+      // The ticket is spent, so reconnect with a new one instead of letting EventSource retry
+      opened.onerror = () => {
+        opened.close();
+        if (!closed) retry = setTimeout(connect, 5000);
+      };
+      source = opened;
+    };
+    connect();
+
+    return () => {
+      closed = true;
+      clearTimeout(retry);
+      source?.close();
+    };
+  }, []);
+
   const initializeDashboard = async () => {
     setLoading(true);
     try {
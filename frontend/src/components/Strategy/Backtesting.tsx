@@ -40,7 +40,8 @@ const Backtesting: React.FC = () => {
     try {
       const response = await backtestAPI.runBacktest({
         strategyId: selectedStrategy,
-        ...backtestParams
+        ...backtestParams,
+        curvePoints: 500
       });
       setBacktestResult(response.data);
       toast.success('Backtest completed successfully!');
@@ -52,6 +53,14 @@ const Backtesting: React.FC = () => {
     }
   };
 
+  // The equity curve arrives column-wise, with dates as epoch days
+  const equityCurve = backtestResult?.equityCurve
+    ? backtestResult.equityCurve.dates.map((day: number, i: number) => ({
+        date: new Date(day * 86400000).toISOString().slice(0, 10),
+        value: backtestResult.equityCurve.values[i]
+      }))
+    : [];
+
   const metrics = backtestResult ? [
     {
       label: 'Total Return',
@@ -209,7 +218,7 @@ const Backtesting: React.FC = () => {
           >
             <h3 className="text-xl font-semibold text-white mb-4">Equity Curve</h3>
             <ResponsiveContainer width="100%" height={400}>
-              <LineChart data={backtestResult.equity_curve || backtestResult.equityCurve}>
+              <LineChart data={equityCurve}>
                 <CartesianGrid strokeDasharray="3 3" stroke="#374151" />
                 <XAxis 
                   dataKey="date" 
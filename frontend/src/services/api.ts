@@ -124,6 +124,15 @@ export const dashboardAPI = {
   getMarketSnapshot: () =>
     api.get('/api/market/snapshot'),
   
+  // EventSource cannot send headers, so the stream opens with a single-use ticket
+  // rather than the token; a ticket cannot be reused when the stream reconnects
+  streamMarketData: async (symbols: string[] = []) => {
+    const response = await api.post('/api/market/stream/ticket');
+    const params = new URLSearchParams({ ticket: response.data.ticket });
+    if (symbols.length > 0) params.set('symbols', symbols.join(','));
+    return new EventSource(`${API_BASE_URL}/api/market/stream?${params}`);
+  },
+  
   getSystemStatus: () =>
     api.get('/api/system/status'),
   